@@ -0,0 +1,125 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Measures the cost of rejecting absent input, i.e. an empty or a
+ * {@code null} input source, with and without the
+ * {@link NullPolicyObjectMapper#setLightweightExceptions(boolean) lightweight
+ * exceptions} of a {@link NullPolicyObjectMapper}. The {@code _message}
+ * variants additionally format the exception's message, as a logging client
+ * would. The {@code readValueOrNull} and {@code readValueOptional} variants
+ * serve as the exception-free baseline.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AbsentInputBenchmark {
+	private static final byte[] EMPTY = new byte[0];
+	
+	@Param({ "false", "true" })
+	public boolean lightweight;
+	
+	private NullPolicyObjectMapper objectMapper;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		this.objectMapper = new NullPolicyObjectMapper().setLightweightExceptions(this.lightweight);
+	}
+	
+	@Benchmark
+	public Object readValue_InputStream_empty() throws IOException {
+		try {
+			return this.objectMapper.readValue(new ByteArrayInputStream(AbsentInputBenchmark.EMPTY), Object.class);
+		} catch (final MismatchedInputException exception) {
+			return exception;
+		}
+	}
+	
+	@Benchmark
+	public Object readValue_InputStream_null() throws IOException {
+		try {
+			return this.objectMapper.readValue((InputStream) null, Object.class);
+		} catch (final MismatchedInputException exception) {
+			return exception;
+		}
+	}
+	
+	@Benchmark
+	public Object readValue_Reader_empty() throws IOException {
+		try {
+			return this.objectMapper.readValue(new StringReader(""), Object.class);
+		} catch (final MismatchedInputException exception) {
+			return exception;
+		}
+	}
+	
+	@Benchmark
+	public Object readValue_Reader_null() throws IOException {
+		try {
+			return this.objectMapper.readValue((Reader) null, Object.class);
+		} catch (final MismatchedInputException exception) {
+			return exception;
+		}
+	}
+	
+	@Benchmark
+	public Object readValue_Bytes_empty() throws IOException {
+		try {
+			return this.objectMapper.readValue(AbsentInputBenchmark.EMPTY, 0, 0, Object.class);
+		} catch (final MismatchedInputException exception) {
+			return exception;
+		}
+	}
+	
+	@Benchmark
+	public Object readValue_InputStream_empty_message() throws IOException {
+		try {
+			return this.objectMapper.readValue(new ByteArrayInputStream(AbsentInputBenchmark.EMPTY), Object.class);
+		} catch (final MismatchedInputException exception) {
+			return exception.getMessage();
+		}
+	}
+	
+	@Benchmark
+	public Object readValueOrNull_InputStream_empty() throws IOException {
+		return this.objectMapper.readValueOrNull(new ByteArrayInputStream(AbsentInputBenchmark.EMPTY), Object.class);
+	}
+	
+	@Benchmark
+	public Object readValueOrNull_InputStream_null() throws IOException {
+		return this.objectMapper.readValueOrNull((InputStream) null, Object.class);
+	}
+	
+	@Benchmark
+	public Object readValueOptional_Bytes_empty() throws IOException {
+		return this.objectMapper.readValueOptional(AbsentInputBenchmark.EMPTY, 0, 0, Object.class);
+	}
+}
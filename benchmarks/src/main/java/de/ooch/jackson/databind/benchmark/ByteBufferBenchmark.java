@@ -0,0 +1,78 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Reads a document from a heap and from a direct {@link ByteBuffer}, either
+ * by copying its content into a {@code byte[]} first, or in place through
+ * {@link NullPolicyObjectMapper#readValue(ByteBuffer, Class)}. Run with
+ * {@code -prof gc} to see the copy.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ByteBufferBenchmark {
+	/**
+	 * Either {@code heap} or {@code direct}.
+	 */
+	@Param({ "heap", "direct" })
+	public String buffer;
+	
+	/**
+	 * The approximate size of the document in bytes.
+	 */
+	@Param({ "1024", "65536" })
+	public int size;
+	
+	private NullPolicyObjectMapper objectMapper;
+	
+	private ByteBuffer content;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		this.objectMapper = new NullPolicyObjectMapper();
+		final byte[] document = Payloads.documentOfSize(this.size);
+		this.content = this.buffer.equals("direct") ? ByteBuffer.allocateDirect(document.length) : ByteBuffer.allocate(document.length);
+		this.content.put(document).flip();
+	}
+	
+	@Benchmark
+	public Object readValue_copy() throws IOException {
+		final ByteBuffer src = this.content.duplicate();
+		final byte[] bytes = new byte[src.remaining()];
+		src.get(bytes);
+		return this.objectMapper.readValue(bytes, Object.class);
+	}
+	
+	@Benchmark
+	public Object readValue_ByteBuffer() throws IOException {
+		return this.objectMapper.readValue(this.content, Object.class);
+	}
+	
+	@Benchmark
+	public Object readTree_ByteBuffer() throws IOException {
+		return this.objectMapper.readTree(this.content);
+	}
+}
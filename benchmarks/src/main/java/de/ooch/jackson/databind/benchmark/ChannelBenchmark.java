@@ -0,0 +1,101 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Reads a document from, and writes it to a {@link FileChannel}, either
+ * through the stream adapters of {@link Channels}, or through the channel
+ * overloads of {@link NullPolicyObjectMapper}, which write in large, gathered
+ * writes.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChannelBenchmark {
+	/**
+	 * Either {@code stream} or {@code channel}.
+	 */
+	@Param({ "stream", "channel" })
+	public String adapter;
+	
+	/**
+	 * The approximate size of the document in bytes.
+	 */
+	@Param({ "1024", "102400" })
+	public int size;
+	
+	private NullPolicyObjectMapper objectMapper;
+	
+	private Object document;
+	
+	private File file;
+	
+	private FileChannel channel;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.objectMapper = new NullPolicyObjectMapper();
+		this.objectMapper.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		this.objectMapper.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+		final byte[] content = Payloads.documentOfSize(this.size);
+		this.document = this.objectMapper.readValue(content, Object.class);
+		this.file = File.createTempFile("ChannelBenchmark", ".json");
+		Files.write(this.file.toPath(), content);
+		this.channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		this.channel.close();
+		this.file.delete();
+	}
+	
+	@Benchmark
+	public Object readValue() throws IOException {
+		this.channel.position(0);
+		if (this.adapter.equals("channel")) {
+			return this.objectMapper.readValue(this.channel, Object.class);
+		}
+		return this.objectMapper.readValue(Channels.newInputStream(this.channel), Object.class);
+	}
+	
+	@Benchmark
+	public void writeValue() throws IOException {
+		this.channel.position(0);
+		if (this.adapter.equals("channel")) {
+			this.objectMapper.writeValue(this.channel, this.document);
+		} else {
+			this.objectMapper.writeValue(Channels.newOutputStream(this.channel), this.document);
+		}
+	}
+}
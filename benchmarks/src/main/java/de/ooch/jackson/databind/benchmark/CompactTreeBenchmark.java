@@ -0,0 +1,113 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.ooch.jackson.databind.CompactNodeFactory;
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Reads a tree of 10,000 telemetry records (about 2.5 MB), or of about 4 MB
+ * of regular records, by the regular or the {@link CompactNodeFactory}, and
+ * measures the time it takes, the time it takes to traverse it, and the heap
+ * it retains. The retained heap is reported as the secondary result
+ * {@code retainedBytes} of {@link #retained(Heap)}, once per iteration, and
+ * summed up over all iterations. Its time includes several full collections,
+ * and is meaningless.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CompactTreeBenchmark {
+	@Param({ "regular", "compact" })
+	public String factory;
+	
+	@Param({ "telemetry", "records" })
+	public String payload;
+	
+	private NullPolicyObjectMapper objectMapper;
+	
+	private byte[] content;
+	
+	private JsonNode tree;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.objectMapper = new NullPolicyObjectMapper();
+		if (this.factory.equals("compact")) {
+			CompactNodeFactory.install(this.objectMapper);
+		}
+		this.content = this.payload.equals("telemetry") ? Payloads.telemetry(10_000) : Payloads.documentOfSize(4 * 1024 * 1024);
+		this.tree = this.objectMapper.readTree(this.content);
+	}
+	
+	@Benchmark
+	public JsonNode readTree() throws IOException {
+		return this.objectMapper.readTree(this.content);
+	}
+	
+	@Benchmark
+	public double traverse() {
+		return CompactTreeBenchmark.sum(this.tree);
+	}
+	
+	@Benchmark
+	public JsonNode retained(final Heap heap) throws IOException {
+		final long before = Heap.used();
+		final JsonNode tree = this.objectMapper.readTree(this.content);
+		heap.retainedBytes = Heap.used() - before;
+		return tree;
+	}
+	
+	private static double sum(final JsonNode node) {
+		if (node.isNumber()) {
+			return node.doubleValue();
+		}
+		double sum = node.isTextual() ? node.textValue().length() : 0;
+		for (final JsonNode child : node) {
+			sum += CompactTreeBenchmark.sum(child);
+		}
+		return sum;
+	}
+	
+	/**
+	 * Reports the heap retained by the last tree of an iteration.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Heap {
+		private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+		
+		public long retainedBytes;
+		
+		static long used() {
+			for (int i = 0; i < 3; i++) {
+				System.gc();
+			}
+			return Heap.MEMORY.getHeapMemoryUsage().getUsed();
+		}
+	}
+}
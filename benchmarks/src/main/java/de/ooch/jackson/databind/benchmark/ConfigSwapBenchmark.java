@@ -0,0 +1,89 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Reads a document on three threads, while a fourth thread keeps flipping a
+ * {@link DeserializationFeature}, either on a mapper in
+ * {@link NullPolicyObjectMapper#setAtomicConfig(boolean) atomic mode}, on a
+ * plain mapper (which is not safe, but shows the baseline), or by publishing
+ * a reconfigured {@link ObjectMapper#copy() copy}, whose caches are cold. The
+ * latency distribution of the readers ({@link Mode#SampleTime}) shows the
+ * spikes of the latter.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Group)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConfigSwapBenchmark {
+	/**
+	 * Either {@code atomic}, {@code plain} or {@code copy}.
+	 */
+	@Param({ "atomic", "plain", "copy" })
+	public String mode;
+	
+	/**
+	 * The number of records in the document.
+	 */
+	@Param({ "10" })
+	public int records;
+	
+	private volatile ObjectMapper mapper;
+	
+	private String json;
+	
+	private boolean state;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.mapper = new NullPolicyObjectMapper().setAtomicConfig(this.mode.equals("atomic"));
+		this.json = Payloads.document(this.records);
+		this.mapper.readValue(this.json, Object.class);
+	}
+	
+	@Benchmark
+	@Group("swap")
+	@GroupThreads(3)
+	public Object read() throws IOException {
+		return this.mapper.readValue(this.json, Object.class);
+	}
+	
+	@Benchmark
+	@Group("swap")
+	@GroupThreads(1)
+	public Object flip() {
+		// throttles the flips, which would otherwise starve the readers
+		Blackhole.consumeCPU(1 << 16);
+		this.state = !this.state;
+		if (this.mode.equals("copy")) {
+			return this.mapper = this.mapper.copy().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, this.state);
+		}
+		return this.mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, this.state);
+	}
+}
@@ -0,0 +1,92 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Reads a document from a {@link RandomAccessFile} and from a
+ * {@link DataInputStream} of a {@link BufferedInputStream}, either one byte at
+ * a time, as a plain {@link ObjectMapper} does, or in bulk, as a
+ * {@link NullPolicyObjectMapper} does.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DataInputBenchmark {
+	/**
+	 * Either {@code plain} or {@code bulk}.
+	 */
+	@Param({ "plain", "bulk" })
+	public String mapper;
+	
+	/**
+	 * The approximate size of the document in bytes.
+	 */
+	@Param({ "1024", "65536" })
+	public int size;
+	
+	private ObjectMapper objectMapper;
+	
+	private byte[] content;
+	
+	private File file;
+	
+	private RandomAccessFile randomAccessFile;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.objectMapper = this.mapper.equals("bulk") ? new NullPolicyObjectMapper() : new ObjectMapper();
+		this.content = Payloads.documentOfSize(this.size);
+		this.file = File.createTempFile("DataInputBenchmark", ".json");
+		Files.write(this.file.toPath(), this.content);
+		this.randomAccessFile = new RandomAccessFile(this.file, "r");
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		this.randomAccessFile.close();
+		this.file.delete();
+	}
+	
+	@Benchmark
+	public Object readValue_RandomAccessFile() throws IOException {
+		this.randomAccessFile.seek(0);
+		return this.objectMapper.readValue((DataInput) this.randomAccessFile, Object.class);
+	}
+	
+	@Benchmark
+	public Object readValue_DataInputStream() throws IOException {
+		final DataInput in = new DataInputStream(new BufferedInputStream(new ByteArrayInputStream(this.content)));
+		return this.objectMapper.readValue(in, Object.class);
+	}
+}
@@ -0,0 +1,106 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Writes records to a {@link DataOutputStream} of an unbuffered file, as a
+ * record file writer would, either through the generator's buffer only, as a
+ * plain {@link ObjectMapper} (or its {@link com.fasterxml.jackson.databind.ObjectWriter})
+ * does, or in chunks, as a {@link NullPolicyObjectMapper} does. The
+ * {@code writeValues} variants write {@value #SEQUENCE} records per
+ * invocation.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DataOutputBenchmark {
+	private static final int SEQUENCE = 100;
+	
+	/**
+	 * Either {@code plain} or {@code chunked}.
+	 */
+	@Param({ "plain", "chunked" })
+	public String mapper;
+	
+	/**
+	 * The approximate size of a record in bytes.
+	 */
+	@Param({ "100", "102400" })
+	public int size;
+	
+	private ObjectMapper objectMapper;
+	
+	private Object record;
+	
+	private File file;
+	
+	private DataOutputStream out;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.objectMapper = this.mapper.equals("chunked") ? new NullPolicyObjectMapper() : new ObjectMapper();
+		this.record = this.objectMapper.readValue(this.size < 150 ? Payloads.appendRecord(new StringBuilder(), 1).toString().getBytes("UTF-8")
+				: Payloads.documentOfSize(this.size), Object.class);
+		this.file = File.createTempFile("DataOutputBenchmark", ".json");
+	}
+	
+	@Setup(Level.Iteration)
+	public void open() throws IOException {
+		this.out = new DataOutputStream(new FileOutputStream(this.file));
+	}
+	
+	@TearDown(Level.Iteration)
+	public void close() throws IOException {
+		this.out.close();
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.file.delete();
+	}
+	
+	@Benchmark
+	public void writeValue() throws IOException {
+		this.objectMapper.writeValue((DataOutput) this.out, this.record);
+	}
+	
+	@Benchmark
+	public void writeValues() throws IOException {
+		try (SequenceWriter sequence = this.objectMapper instanceof NullPolicyObjectMapper
+				? ((NullPolicyObjectMapper) this.objectMapper).writeValues(this.out)
+				: this.objectMapper.writer().writeValues((DataOutput) this.out)) {
+			for (int i = 0; i < DataOutputBenchmark.SEQUENCE; i++) {
+				sequence.write(this.record);
+			}
+		}
+	}
+}
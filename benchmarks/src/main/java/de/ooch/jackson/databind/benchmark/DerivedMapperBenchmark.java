@@ -0,0 +1,98 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Measures the cost of obtaining a fresh, per-tenant mapper and using it for
+ * the first time, i.e. of constructing a new {@link ObjectMapper}, of
+ * {@link ObjectMapper#copy() copying} a warmed-up template, and of
+ * {@link NullPolicyObjectMapper#derive() deriving} a mapper from it. Each
+ * invocation is measured on its own ({@link Mode#SingleShotTime}), since the
+ * point is the cold path; run with {@code -prof gc} to see the allocation
+ * per derived mapper.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(3)
+@Warmup(iterations = 100, batchSize = 1)
+@Measurement(iterations = 500, batchSize = 1)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DerivedMapperBenchmark {
+	private static final OutputStream DISCARD = new OutputStream() {
+		@Override
+		public void write(final int b) {
+		}
+		
+		@Override
+		public void write(final byte[] b, final int off, final int len) {
+		}
+	};
+	
+	/**
+	 * The number of records in the document read and written by each new
+	 * mapper.
+	 */
+	@Param({ "1" })
+	public int records;
+	
+	private NullPolicyObjectMapper template;
+	
+	private String json;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.template = new NullPolicyObjectMapper();
+		this.json = Payloads.document(this.records);
+		DerivedMapperBenchmark.firstUse(this.template, this.json);
+	}
+	
+	/**
+	 * Reads and writes the document with a new mapper, which builds the
+	 * (de)serializers it needs, unless it shares them.
+	 */
+	private static Object firstUse(final ObjectMapper mapper, final String json) throws IOException {
+		final Object value = mapper.readValue(json, Object.class);
+		mapper.writeValue(DerivedMapperBenchmark.DISCARD, value);
+		return value;
+	}
+	
+	@Benchmark
+	public Object construct() throws IOException {
+		final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+		return DerivedMapperBenchmark.firstUse(mapper, this.json);
+	}
+	
+	@Benchmark
+	public Object copy() throws IOException {
+		final ObjectMapper mapper = this.template.copy().enable(SerializationFeature.INDENT_OUTPUT);
+		return DerivedMapperBenchmark.firstUse(mapper, this.json);
+	}
+	
+	@Benchmark
+	public Object derive() throws IOException {
+		final ObjectMapper mapper = this.template.derive().enable(SerializationFeature.INDENT_OUTPUT);
+		return DerivedMapperBenchmark.firstUse(mapper, this.json);
+	}
+}
@@ -0,0 +1,422 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.core.type.ResolvedType;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.type.SimpleType;
+
+/**
+ * Measures the happy path of every {@link ObjectMapper} entry point covered by
+ * {@code ObjectMapperNullabilityTest}, i.e. the same overloads with valid,
+ * non-{@code null} arguments. Running this benchmark against the 2.9 and the
+ * 2.10 code base (see the {@code jackson-2.10} profile of this module) shows
+ * what the eager non-null assertions of 2.10 cost on calls that never fail
+ * them.
+ * <p>
+ * Benchmarks are named after their respective test. Entry points taking a
+ * {@link JsonParser} or a stream necessarily include the creation of that
+ * parser or stream, because neither can be re-used across invocations.
+ * <p>
+ * {@link #main(String[])} runs every benchmark twice, once reporting
+ * throughput in ops/s and once reporting average time in ns/op. Regular JMH
+ * command line options are honored by both runs.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EntryPointBenchmark {
+	private static final TypeReference<Object> TYPE_REFERENCE = new TypeReference<Object>() {
+	};
+	
+	private static final JavaType JAVA_TYPE = SimpleType.constructUnsafe(Object.class);
+	
+	private static final OutputStream DISCARD = new OutputStream() {
+		@Override
+		public void write(final int b) {
+		}
+		
+		@Override
+		public void write(final byte[] b, final int off, final int len) {
+		}
+	};
+	
+	/**
+	 * The number of records in the benchmarked document.
+	 */
+	@Param({ "10" })
+	public int records;
+	
+	private ObjectMapper mapper;
+	
+	private String json;
+	
+	private byte[] bytes;
+	
+	private File file;
+	
+	private URL url;
+	
+	private Object value;
+	
+	private JsonNode tree;
+	
+	private Module module;
+	
+	private File output;
+	
+	private JsonGenerator generator;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.mapper = new ObjectMapper();
+		this.json = Payloads.document(this.records);
+		this.bytes = this.json.getBytes(StandardCharsets.UTF_8);
+		this.file = File.createTempFile("entry-point-", ".json");
+		Files.write(this.file.toPath(), this.bytes);
+		this.url = this.file.toURI().toURL();
+		this.value = this.mapper.readValue(this.bytes, Object.class);
+		this.tree = this.mapper.readTree(this.bytes);
+		this.module = new SimpleModule();
+		this.output = File.createTempFile("entry-point-", ".out.json");
+		this.generator = this.mapper.getFactory().createGenerator(EntryPointBenchmark.DISCARD);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		this.generator.close();
+		Files.deleteIfExists(this.file.toPath());
+		Files.deleteIfExists(this.output.toPath());
+	}
+	
+	@Benchmark
+	public Object registerModule_Module() {
+		return this.mapper.registerModule(this.module);
+	}
+	
+	@Benchmark
+	public Object registerModules_Modules() {
+		return this.mapper.registerModules(this.module);
+	}
+	
+	@Benchmark
+	public Object registerModules_Iterable() {
+		return this.mapper.registerModules(Collections.singleton(this.module));
+	}
+	
+	@Benchmark
+	public Object constructType_Class() {
+		return this.mapper.constructType(Object.class);
+	}
+	
+	@Benchmark
+	public Object setConfig_SerializationConfig() {
+		final SerializationConfig config = this.mapper.getSerializationConfig();
+		return this.mapper.setConfig(config);
+	}
+	
+	@Benchmark
+	public Object setConfig_DeserializationConfig() {
+		final DeserializationConfig config = this.mapper.getDeserializationConfig();
+		return this.mapper.setConfig(config);
+	}
+	
+	@Benchmark
+	public Object readValue_JsonParser_Class() throws IOException {
+		try (final JsonParser parser = this.mapper.getFactory().createParser(this.bytes)) {
+			return this.mapper.readValue(parser, Object.class);
+		}
+	}
+	
+	@Benchmark
+	public Object readValue_JsonParser_TypeReference() throws IOException {
+		try (final JsonParser parser = this.mapper.getFactory().createParser(this.bytes)) {
+			return this.mapper.readValue(parser, EntryPointBenchmark.TYPE_REFERENCE);
+		}
+	}
+	
+	@Benchmark
+	public Object readValue_JsonParser_ResolvedType() throws IOException {
+		try (final JsonParser parser = this.mapper.getFactory().createParser(this.bytes)) {
+			return this.mapper.readValue(parser, (ResolvedType) EntryPointBenchmark.JAVA_TYPE);
+		}
+	}
+	
+	@Benchmark
+	public Object readValue_JsonParser_JavaType() throws IOException {
+		try (final JsonParser parser = this.mapper.getFactory().createParser(this.bytes)) {
+			return this.mapper.readValue(parser, EntryPointBenchmark.JAVA_TYPE);
+		}
+	}
+	
+	@Benchmark
+	public Object readTree_JsonParser() throws IOException {
+		try (final JsonParser parser = this.mapper.getFactory().createParser(this.bytes)) {
+			return this.mapper.readTree(parser);
+		}
+	}
+	
+	@Benchmark
+	public void readValues_JsonParser_JavaType(final Blackhole blackhole) throws IOException {
+		try (final JsonParser parser = this.mapper.getFactory().createParser(this.bytes)) {
+			final Iterator<Object> values = this.mapper.readValues(parser, EntryPointBenchmark.JAVA_TYPE);
+			while (values.hasNext()) {
+				blackhole.consume(values.next());
+			}
+		}
+	}
+	
+	@Benchmark
+	public Object readTree_InputStream() throws IOException {
+		return this.mapper.readTree(new ByteArrayInputStream(this.bytes));
+	}
+	
+	@Benchmark
+	public Object readTree_Reader() throws IOException {
+		return this.mapper.readTree(new InputStreamReader(new ByteArrayInputStream(this.bytes), StandardCharsets.UTF_8));
+	}
+	
+	@Benchmark
+	public Object readTree_String() throws IOException {
+		return this.mapper.readTree(this.json);
+	}
+	
+	@Benchmark
+	public Object readTree_Bytes() throws IOException {
+		return this.mapper.readTree(this.bytes);
+	}
+	
+	@Benchmark
+	public Object readTree_File() throws IOException {
+		return this.mapper.readTree(this.file);
+	}
+	
+	@Benchmark
+	public Object readTree_URL() throws IOException {
+		return this.mapper.readTree(this.url);
+	}
+	
+	@Benchmark
+	public void writeValue_JsonGenerator_Object() throws IOException {
+		this.mapper.writeValue(this.generator, this.value);
+	}
+	
+	@Benchmark
+	public void writeTree_JsonGenerator_TreeNode() throws IOException {
+		this.mapper.writeTree(this.generator, (TreeNode) this.tree);
+	}
+	
+	@Benchmark
+	public void writeTree_JsonGenerator_JsonNode() throws IOException {
+		this.mapper.writeTree(this.generator, this.tree);
+	}
+	
+	@Benchmark
+	public Object treeAsTokens_TreeNode() throws IOException {
+		try (final JsonParser parser = this.mapper.treeAsTokens(this.tree)) {
+			return parser.nextToken();
+		}
+	}
+	
+	@Benchmark
+	public Object readValue_File_Class() throws IOException {
+		return this.mapper.readValue(this.file, Object.class);
+	}
+	
+	@Benchmark
+	public Object readValue_File_TypeReference() throws IOException {
+		return this.mapper.readValue(this.file, EntryPointBenchmark.TYPE_REFERENCE);
+	}
+	
+	@Benchmark
+	public Object readValue_File_JavaType() throws IOException {
+		return this.mapper.readValue(this.file, EntryPointBenchmark.JAVA_TYPE);
+	}
+	
+	@Benchmark
+	public Object readValue_URL_Class() throws IOException {
+		return this.mapper.readValue(this.url, Object.class);
+	}
+	
+	@Benchmark
+	public Object readValue_URL_TypeReference() throws IOException {
+		return this.mapper.readValue(this.url, EntryPointBenchmark.TYPE_REFERENCE);
+	}
+	
+	@Benchmark
+	public Object readValue_URL_JavaType() throws IOException {
+		return this.mapper.readValue(this.url, EntryPointBenchmark.JAVA_TYPE);
+	}
+	
+	@Benchmark
+	public Object readValue_String_Class() throws IOException {
+		return this.mapper.readValue(this.json, Object.class);
+	}
+	
+	@Benchmark
+	public Object readValue_String_TypeReference() throws IOException {
+		return this.mapper.readValue(this.json, EntryPointBenchmark.TYPE_REFERENCE);
+	}
+	
+	@Benchmark
+	public Object readValue_String_JavaType() throws IOException {
+		return this.mapper.readValue(this.json, EntryPointBenchmark.JAVA_TYPE);
+	}
+	
+	@Benchmark
+	public Object readValue_Reader_Class() throws IOException {
+		return this.mapper.readValue(new InputStreamReader(new ByteArrayInputStream(this.bytes), StandardCharsets.UTF_8), Object.class);
+	}
+	
+	@Benchmark
+	public Object readValue_Reader_TypeReference() throws IOException {
+		return this.mapper.readValue(new InputStreamReader(new ByteArrayInputStream(this.bytes), StandardCharsets.UTF_8), EntryPointBenchmark.TYPE_REFERENCE);
+	}
+	
+	@Benchmark
+	public Object readValue_Reader_JavaType() throws IOException {
+		return this.mapper.readValue(new InputStreamReader(new ByteArrayInputStream(this.bytes), StandardCharsets.UTF_8), EntryPointBenchmark.JAVA_TYPE);
+	}
+	
+	@Benchmark
+	public Object readValue_InputStream_Class() throws IOException {
+		return this.mapper.readValue(new ByteArrayInputStream(this.bytes), Object.class);
+	}
+	
+	@Benchmark
+	public Object readValue_InputStream_TypeReference() throws IOException {
+		return this.mapper.readValue(new ByteArrayInputStream(this.bytes), EntryPointBenchmark.TYPE_REFERENCE);
+	}
+	
+	@Benchmark
+	public Object readValue_InputStream_JavaType() throws IOException {
+		return this.mapper.readValue(new ByteArrayInputStream(this.bytes), EntryPointBenchmark.JAVA_TYPE);
+	}
+	
+	@Benchmark
+	public Object readValue_Bytes_Class() throws IOException {
+		return this.mapper.readValue(this.bytes, Object.class);
+	}
+	
+	@Benchmark
+	public Object readValue_Bytes_int_int_Class() throws IOException {
+		return this.mapper.readValue(this.bytes, 0, this.bytes.length, Object.class);
+	}
+	
+	@Benchmark
+	public Object readValue_Bytes_TypeReference() throws IOException {
+		return this.mapper.readValue(this.bytes, EntryPointBenchmark.TYPE_REFERENCE);
+	}
+	
+	@Benchmark
+	public Object readValue_Bytes_int_int_TypeReference() throws IOException {
+		return this.mapper.readValue(this.bytes, 0, this.bytes.length, EntryPointBenchmark.TYPE_REFERENCE);
+	}
+	
+	@Benchmark
+	public Object readValue_Bytes_JavaType() throws IOException {
+		return this.mapper.readValue(this.bytes, EntryPointBenchmark.JAVA_TYPE);
+	}
+	
+	@Benchmark
+	public Object readValue_Bytes_int_int_JavaType() throws IOException {
+		return this.mapper.readValue(this.bytes, 0, this.bytes.length, EntryPointBenchmark.JAVA_TYPE);
+	}
+	
+	@Benchmark
+	public Object readValue_DataInput_Class() throws IOException {
+		return this.mapper.readValue((DataInput) new DataInputStream(new ByteArrayInputStream(this.bytes)), Object.class);
+	}
+	
+	@Benchmark
+	public Object readValue_DataInput_JavaType() throws IOException {
+		return this.mapper.readValue((DataInput) new DataInputStream(new ByteArrayInputStream(this.bytes)), EntryPointBenchmark.JAVA_TYPE);
+	}
+	
+	@Benchmark
+	public void writeValue_File_Object() throws IOException {
+		this.mapper.writeValue(this.output, this.value);
+	}
+	
+	@Benchmark
+	public void writeValue_OutputStream_Object() throws IOException {
+		this.mapper.writeValue(EntryPointBenchmark.DISCARD, this.value);
+	}
+	
+	@Benchmark
+	public void writeValue_DataOutput_Object() throws IOException {
+		this.mapper.writeValue((DataOutput) new DataOutputStream(EntryPointBenchmark.DISCARD), this.value);
+	}
+	
+	@Benchmark
+	public void writeValue_Writer_Object() throws IOException {
+		final Writer writer = new OutputStreamWriter(EntryPointBenchmark.DISCARD, StandardCharsets.UTF_8);
+		this.mapper.writeValue(writer, this.value);
+	}
+	
+	/**
+	 * Runs all benchmarks of this class twice, reporting throughput in ops/s
+	 * and average time in ns/op, respectively.
+	 */
+	public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+		final CommandLineOptions options = new CommandLineOptions(args);
+		final String include = options.getIncludes().isEmpty() ? EntryPointBenchmark.class.getName() : null;
+		for (final Mode mode : new Mode[] { Mode.Throughput, Mode.AverageTime }) {
+			final OptionsBuilder builder = new OptionsBuilder();
+			builder.parent(options);
+			if (include != null) {
+				builder.include(include);
+			}
+			builder.mode(mode);
+			builder.timeUnit(mode == Mode.Throughput ? TimeUnit.SECONDS : TimeUnit.NANOSECONDS);
+			new Runner(builder.build()).run();
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Reads a document from a file, either through a {@link java.io.FileInputStream},
+ * as a plain {@link ObjectMapper} does, or according to its size, as a
+ * {@link NullPolicyObjectMapper} does: a small file is read in one go, and a
+ * large file is memory-mapped. The throughput is reported in operations per
+ * second, and is to be multiplied by the size for bytes per second.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FileBenchmark {
+	/**
+	 * Either {@code plain} or {@code sized}.
+	 */
+	@Param({ "plain", "sized" })
+	public String mapper;
+	
+	/**
+	 * The approximate size of the file in bytes.
+	 */
+	@Param({ "1024", "65536", "1048576", "16777216" })
+	public int size;
+	
+	private ObjectMapper objectMapper;
+	
+	private File file;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.objectMapper = this.mapper.equals("sized") ? new NullPolicyObjectMapper() : new ObjectMapper();
+		this.file = File.createTempFile("FileBenchmark", ".json");
+		Files.write(this.file.toPath(), Payloads.documentOfSize(this.size));
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.file.delete();
+	}
+	
+	@Benchmark
+	public Object readValue() throws IOException {
+		return this.objectMapper.readValue(this.file, Object.class);
+	}
+	
+	@Benchmark
+	public Object readTree() throws IOException {
+		return this.objectMapper.readTree(this.file);
+	}
+}
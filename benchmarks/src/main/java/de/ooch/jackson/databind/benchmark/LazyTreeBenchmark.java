@@ -0,0 +1,96 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Reads a tree from a document of the given size by
+ * {@link NullPolicyObjectMapper#readTree(byte[])} or
+ * {@link NullPolicyObjectMapper#readTreeLazy(byte[])}, and visits either four
+ * of its values, or all of them. Run with {@code -prof gc} to compare the
+ * allocations per operation ({@code gc.alloc.rate.norm}).
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LazyTreeBenchmark {
+	/**
+	 * The approximate size of the document in bytes.
+	 */
+	@Param({ "16384", "1048576", "16777216" })
+	public int size;
+	
+	private NullPolicyObjectMapper objectMapper;
+	
+	private byte[] content;
+	
+	private JsonPointer[] pointers;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.objectMapper = new NullPolicyObjectMapper();
+		this.content = Payloads.documentOfSize(this.size);
+		final int records = this.objectMapper.readTree(this.content).get("count").intValue();
+		this.pointers = new JsonPointer[] { JsonPointer.compile("/count"), JsonPointer.compile("/records/0/name"),
+				JsonPointer.compile("/records/" + records / 2 + "/score"), JsonPointer.compile("/records/" + (records - 1) + "/tags/1") };
+	}
+	
+	@Benchmark
+	public int sparse_readTree() throws IOException {
+		return this.sparse(this.objectMapper.readTree(this.content));
+	}
+	
+	@Benchmark
+	public int sparse_readTreeLazy() throws IOException {
+		return this.sparse(this.objectMapper.readTreeLazy(this.content));
+	}
+	
+	@Benchmark
+	public int full_readTree() throws IOException {
+		return LazyTreeBenchmark.full(this.objectMapper.readTree(this.content));
+	}
+	
+	@Benchmark
+	public int full_readTreeLazy() throws IOException {
+		return LazyTreeBenchmark.full(this.objectMapper.readTreeLazy(this.content));
+	}
+	
+	private int sparse(final JsonNode tree) {
+		int hash = 0;
+		for (final JsonPointer pointer : this.pointers) {
+			hash += tree.at(pointer).hashCode();
+		}
+		return hash;
+	}
+	
+	private static int full(final JsonNode node) {
+		int hash = node.isValueNode() ? node.hashCode() : node.size();
+		for (final JsonNode child : node) {
+			hash += LazyTreeBenchmark.full(child);
+		}
+		return hash;
+	}
+}
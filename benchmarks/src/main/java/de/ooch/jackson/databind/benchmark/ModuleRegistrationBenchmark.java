@@ -0,0 +1,111 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.fasterxml.jackson.databind.type.TypeBindings;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.type.TypeModifier;
+
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Measures the registration of a number of modules, each of which contributes
+ * serializers, deserializers, a mix-in and a type modifier, with a plain
+ * {@link ObjectMapper}, and with a {@link NullPolicyObjectMapper} one module
+ * after another and in a single batch. Each invocation
+ * constructs a new mapper, and resolves a type afterwards, which hits the
+ * type cache of the final {@link TypeFactory}. None of the modules
+ * contributes to the configurations, which a batch rebuilds per contribution
+ * anyway.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ModuleRegistrationBenchmark {
+	/**
+	 * The number of modules registered.
+	 */
+	@Param({ "16" })
+	public int modules;
+	
+	private List<Module> moduleList;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		this.moduleList = new ArrayList<>();
+		for (int i = 0; i < this.modules; i++) {
+			this.moduleList.add(ModuleRegistrationBenchmark.module("module" + i));
+		}
+	}
+	
+	private static Module module(final String name) {
+		return new SimpleModule(name) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			public Object getTypeId() {
+				return name;
+			}
+			
+			@Override
+			public void setupModule(final SetupContext context) {
+				super.setupModule(context);
+				context.addTypeModifier(new TypeModifier() {
+					@Override
+					public JavaType modifyType(final JavaType type, final Type jdkType, final TypeBindings bindings, final TypeFactory typeFactory) {
+						return type;
+					}
+				});
+			}
+		}.addSerializer(StringBuilder.class, new ToStringSerializer()).addDeserializer(String.class, new StringDeserializer())
+				.setMixInAnnotation(StringBuilder.class, Object.class);
+	}
+	
+	@Benchmark
+	public JavaType plain() {
+		final ObjectMapper mapper = new ObjectMapper().registerModules(this.moduleList);
+		return mapper.constructType(StringBuilder.class);
+	}
+	
+	@Benchmark
+	public JavaType sequential() {
+		final ObjectMapper mapper = new NullPolicyObjectMapper();
+		for (final Module module : this.moduleList) {
+			mapper.registerModule(module);
+		}
+		return mapper.constructType(StringBuilder.class);
+	}
+	
+	@Benchmark
+	public JavaType batched() {
+		final ObjectMapper mapper = new NullPolicyObjectMapper().registerModules(this.moduleList);
+		return mapper.constructType(StringBuilder.class);
+	}
+}
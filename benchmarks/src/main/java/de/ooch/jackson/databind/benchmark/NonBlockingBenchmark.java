@@ -0,0 +1,77 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+
+import de.ooch.jackson.databind.NonBlockingReader;
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Reads {@value #RECORDS} newline-delimited records, either blocking, through
+ * a {@link MappingIterator} over an {@link java.io.InputStream}, or
+ * non-blocking, by feeding chunks of the given size to a
+ * {@link NonBlockingReader}, as an event loop does.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NonBlockingBenchmark {
+	private static final int RECORDS = 1000;
+	
+	/**
+	 * The size of the chunks fed to the non-blocking reader.
+	 */
+	@Param({ "512", "8192" })
+	public int chunk;
+	
+	private NullPolicyObjectMapper objectMapper;
+	
+	private byte[] content;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		this.objectMapper = new NullPolicyObjectMapper();
+		this.content = Payloads.lines(NonBlockingBenchmark.RECORDS);
+	}
+	
+	@Benchmark
+	public void blocking(final Blackhole blackhole) throws IOException {
+		try (MappingIterator<Object> values = this.objectMapper.readerFor(Object.class).readValues(new ByteArrayInputStream(this.content))) {
+			while (values.hasNextValue()) {
+				blackhole.consume(values.nextValue());
+			}
+		}
+	}
+	
+	@Benchmark
+	public void nonBlocking(final Blackhole blackhole) throws IOException {
+		try (NonBlockingReader<Object> reader = this.objectMapper.nonBlockingReader(Object.class)) {
+			for (int off = 0; off < this.content.length; off += this.chunk) {
+				blackhole.consume(reader.feed(this.content, off, Math.min(this.chunk, this.content.length - off)));
+			}
+			blackhole.consume(reader.end());
+		}
+	}
+}
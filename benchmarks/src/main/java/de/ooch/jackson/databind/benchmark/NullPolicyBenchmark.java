@@ -0,0 +1,111 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.SimpleType;
+
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Compares the happy path of a plain {@link ObjectMapper} with that of a
+ * {@link NullPolicyObjectMapper} using the legacy policies, in order to show
+ * that the additional {@code null} checks come for free.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NullPolicyBenchmark {
+	private static final JavaType JAVA_TYPE = SimpleType.constructUnsafe(Object.class);
+	
+	private static final OutputStream DISCARD = new OutputStream() {
+		@Override
+		public void write(final int b) {
+		}
+		
+		@Override
+		public void write(final byte[] b, final int off, final int len) {
+		}
+	};
+	
+	/**
+	 * Either {@code plain} or {@code legacy}.
+	 */
+	@Param({ "plain", "legacy" })
+	public String mapper;
+	
+	/**
+	 * The number of records in the benchmarked document.
+	 */
+	@Param({ "1", "10" })
+	public int records;
+	
+	private ObjectMapper objectMapper;
+	
+	private String json;
+	
+	private byte[] bytes;
+	
+	private Object value;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.objectMapper = this.mapper.equals("plain") ? new ObjectMapper() : new NullPolicyObjectMapper();
+		this.json = Payloads.document(this.records);
+		this.bytes = this.json.getBytes(StandardCharsets.UTF_8);
+		this.value = this.objectMapper.readValue(this.bytes, Object.class);
+	}
+	
+	@Benchmark
+	public Object readValue_Bytes_Class() throws IOException {
+		return this.objectMapper.readValue(this.bytes, Object.class);
+	}
+	
+	@Benchmark
+	public Object readValue_String_JavaType() throws IOException {
+		return this.objectMapper.readValue(this.json, NullPolicyBenchmark.JAVA_TYPE);
+	}
+	
+	@Benchmark
+	public Object readValue_InputStream_Class() throws IOException {
+		return this.objectMapper.readValue(new ByteArrayInputStream(this.bytes), Object.class);
+	}
+	
+	@Benchmark
+	public Object readTree_Bytes() throws IOException {
+		return this.objectMapper.readTree(this.bytes);
+	}
+	
+	@Benchmark
+	public void writeValue_OutputStream_Object() throws IOException {
+		this.objectMapper.writeValue(NullPolicyBenchmark.DISCARD, this.value);
+	}
+	
+	@Benchmark
+	public Object constructType_Class() {
+		return this.objectMapper.constructType(Object.class);
+	}
+}
@@ -0,0 +1,90 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Reads {@value #RECORDS} newline-delimited records (about 16 MB), either
+ * sequentially through a {@link MappingIterator}, or through
+ * {@link NullPolicyObjectMapper#readValuesParallel(byte[], Class, boolean)} on
+ * a {@link ForkJoinPool} of the given parallelism, to see how decoding scales
+ * with the number of cores.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelBenchmark {
+	private static final int RECORDS = 100000;
+	
+	/**
+	 * The parallelism of the pool.
+	 */
+	@Param({ "1", "2", "4", "8", "16", "32" })
+	public int threads;
+	
+	private NullPolicyObjectMapper objectMapper;
+	
+	private byte[] content;
+	
+	private ForkJoinPool pool;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		this.objectMapper = new NullPolicyObjectMapper();
+		this.content = Payloads.lines(ParallelBenchmark.RECORDS);
+		this.pool = new ForkJoinPool(this.threads);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.pool.shutdown();
+	}
+	
+	@Benchmark
+	public long sequential() throws IOException {
+		long count = 0;
+		try (MappingIterator<?> values = this.objectMapper.readValues(this.objectMapper.getFactory().createParser(this.content), Map.class)) {
+			while (values.hasNextValue()) {
+				values.nextValue();
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	@Benchmark
+	public long ordered() throws InterruptedException, ExecutionException {
+		return this.pool.submit(() -> this.objectMapper.readValuesParallel(this.content, Map.class, true).count()).get();
+	}
+	
+	@Benchmark
+	public long unordered() throws InterruptedException, ExecutionException {
+		return this.pool.submit(() -> this.objectMapper.readValuesParallel(this.content, Map.class, false).count()).get();
+	}
+}
@@ -0,0 +1,74 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Reads a tree from a single document of about 16 MB, either by a single
+ * parser, or through {@link NullPolicyObjectMapper#readTreeParallel(byte[])}
+ * on a {@link ForkJoinPool} of the given parallelism, to see how tree
+ * construction scales with the number of cores.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelTreeBenchmark {
+	/**
+	 * The parallelism of the pool.
+	 */
+	@Param({ "1", "2", "4", "8", "16", "32" })
+	public int threads;
+	
+	private NullPolicyObjectMapper objectMapper;
+	
+	private byte[] content;
+	
+	private ForkJoinPool pool;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		this.objectMapper = new NullPolicyObjectMapper();
+		this.content = Payloads.documentOfSize(16 * 1024 * 1024);
+		this.pool = new ForkJoinPool(this.threads);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.pool.shutdown();
+	}
+	
+	@Benchmark
+	public JsonNode readTree() throws IOException {
+		return this.objectMapper.readTree(this.content);
+	}
+	
+	@Benchmark
+	public JsonNode readTreeParallel() throws InterruptedException, ExecutionException {
+		return this.pool.submit(() -> this.objectMapper.readTreeParallel(this.content)).get();
+	}
+}
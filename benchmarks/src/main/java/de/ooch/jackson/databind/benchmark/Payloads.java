@@ -0,0 +1,86 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Generates the synthetic JSON documents used by the benchmarks in this
+ * package. All documents are built from the same record shape, so that
+ * results of different benchmarks remain comparable.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+final class Payloads {
+	private Payloads() {
+	}
+	
+	/**
+	 * Appends a single record to the given builder.
+	 */
+	static StringBuilder appendRecord(final StringBuilder builder, final int id) {
+		return builder.append("{\"id\":").append(id)
+				.append(",\"name\":\"item-").append(id).append('"')
+				.append(",\"active\":").append(id % 3 != 0)
+				.append(",\"score\":").append(id * 1.5d)
+				.append(",\"status\":\"").append(id % 7 == 0 ? "FAILED" : "OK").append('"')
+				.append(",\"tags\":[\"alpha\",\"beta\",\"gamma\"]")
+				.append(",\"samples\":[").append(id).append(',').append(id + 1).append(',').append(id + 2).append(']')
+				.append('}');
+	}
+	
+	/**
+	 * Returns a single JSON object holding an array of {@code records}
+	 * records.
+	 */
+	static String document(final int records) {
+		final StringBuilder builder = new StringBuilder(records * 160 + 32);
+		builder.append("{\"count\":").append(records).append(",\"records\":[");
+		for (int i = 0; i < records; i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			Payloads.appendRecord(builder, i);
+		}
+		return builder.append("]}").toString();
+	}
+	
+	/**
+	 * Returns {@code records} records as newline-delimited JSON.
+	 */
+	static byte[] lines(final int records) {
+		final StringBuilder builder = new StringBuilder(records * 160);
+		for (int i = 0; i < records; i++) {
+			Payloads.appendRecord(builder, i).append('\n');
+		}
+		return builder.toString().getBytes(StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Returns a JSON array of {@code records} telemetry records, each of which
+	 * holds a few names and series of integer and decimal samples.
+	 */
+	static byte[] telemetry(final int records) {
+		final StringBuilder builder = new StringBuilder(records * 400 + 2).append('[');
+		for (int i = 0; i < records; i++) {
+			builder.append(i == 0 ? "{" : ",{").append("\"sensor\":\"sensor-").append(i % 100).append('"')
+					.append(",\"unit\":\"").append(i % 2 == 0 ? "celsius" : "pascal").append('"')
+					.append(",\"timestamp\":").append(1_600_000_000_000L + i * 1000L)
+					.append(",\"counts\":[");
+			for (int j = 0; j < 16; j++) {
+				builder.append(j == 0 ? "" : ",").append((i * 31 + j * 7) % 1000);
+			}
+			builder.append("],\"values\":[");
+			for (int j = 0; j < 16; j++) {
+				builder.append(j == 0 ? "" : ",").append((i * 31 + j * 7) % 1000 / 8.0d);
+			}
+			builder.append("]}");
+		}
+		return builder.append(']').toString().getBytes(StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Returns a single JSON object of roughly {@code size} bytes.
+	 */
+	static byte[] documentOfSize(final int size) {
+		return Payloads.document(Math.max(1, size / 150)).getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,118 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Loads {@value #RESOURCES} small classpath resources, as a service does at
+ * startup, from a directory or from a jar, either through
+ * {@link URL#openStream()}, as a plain {@link ObjectMapper} does, or through
+ * the file or a cached zip file, as a {@link NullPolicyObjectMapper} does.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ResourceBenchmark {
+	private static final int RESOURCES = 1000;
+	
+	/**
+	 * Either {@code plain} or {@code local}.
+	 */
+	@Param({ "plain", "local" })
+	public String mapper;
+	
+	/**
+	 * Either {@code dir} or {@code jar}.
+	 */
+	@Param({ "dir", "jar" })
+	public String location;
+	
+	private ObjectMapper objectMapper;
+	
+	private File dir;
+	
+	private URLClassLoader loader;
+	
+	private URL[] resources;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.objectMapper = this.mapper.equals("local") ? new NullPolicyObjectMapper() : new ObjectMapper();
+		this.dir = Files.createTempDirectory("ResourceBenchmark").toFile();
+		final File root;
+		if (this.location.equals("jar")) {
+			root = new File(this.dir, "resources.jar");
+			try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(root))) {
+				for (int i = 0; i < ResourceBenchmark.RESOURCES; i++) {
+					out.putNextEntry(new ZipEntry("config/resource" + i + ".json"));
+					out.write(Payloads.appendRecord(new StringBuilder(), i).toString().getBytes("UTF-8"));
+					out.closeEntry();
+				}
+			}
+		} else {
+			root = this.dir;
+			final File config = new File(this.dir, "config");
+			config.mkdir();
+			for (int i = 0; i < ResourceBenchmark.RESOURCES; i++) {
+				Files.write(new File(config, "resource" + i + ".json").toPath(), Payloads.appendRecord(new StringBuilder(), i).toString().getBytes("UTF-8"));
+			}
+		}
+		this.loader = new URLClassLoader(new URL[] { root.toURI().toURL() }, null);
+		this.resources = new URL[ResourceBenchmark.RESOURCES];
+		for (int i = 0; i < ResourceBenchmark.RESOURCES; i++) {
+			this.resources[i] = this.loader.getResource("config/resource" + i + ".json");
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		this.loader.close();
+		for (final File file : this.dir.listFiles()) {
+			if (file.isDirectory()) {
+				for (final File resource : file.listFiles()) {
+					resource.delete();
+				}
+			}
+			file.delete();
+		}
+		this.dir.delete();
+	}
+	
+	@Benchmark
+	public void readValue(final Blackhole blackhole) throws IOException {
+		for (final URL resource : this.resources) {
+			blackhole.consume(this.objectMapper.readValue(resource, Object.class));
+		}
+	}
+}
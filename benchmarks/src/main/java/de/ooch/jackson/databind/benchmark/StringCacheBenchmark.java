@@ -0,0 +1,81 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+import de.ooch.jackson.databind.StringCache;
+
+/**
+ * Reads about 4 MB of regular records, whose status and tags repeat, as a tree
+ * and as an untyped {@link Object}, with or without a {@link StringCache}, and
+ * measures the time it takes, and the heap it retains (see
+ * {@link CompactTreeBenchmark} on how the retained heap is reported). Run
+ * with {@code -prof gc} to see the allocation rate.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StringCacheBenchmark {
+	@Param({ "none", "cached" })
+	public String strings;
+	
+	private NullPolicyObjectMapper objectMapper;
+	
+	private byte[] content;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		this.objectMapper = new NullPolicyObjectMapper();
+		if (this.strings.equals("cached")) {
+			this.objectMapper.setStringCache(new StringCache());
+		}
+		this.content = Payloads.documentOfSize(4 * 1024 * 1024);
+	}
+	
+	@Benchmark
+	public JsonNode readTree() throws IOException {
+		return this.objectMapper.readTree(this.content);
+	}
+	
+	@Benchmark
+	public Object readValue() throws IOException {
+		return this.objectMapper.readValue(this.content, Object.class);
+	}
+	
+	@Benchmark
+	public JsonNode retainedTree(final CompactTreeBenchmark.Heap heap) throws IOException {
+		final long before = CompactTreeBenchmark.Heap.used();
+		final JsonNode tree = this.objectMapper.readTree(this.content);
+		heap.retainedBytes = CompactTreeBenchmark.Heap.used() - before;
+		return tree;
+	}
+	
+	@Benchmark
+	public Object retainedValue(final CompactTreeBenchmark.Heap heap) throws IOException {
+		final long before = CompactTreeBenchmark.Heap.used();
+		final Object value = this.objectMapper.readValue(this.content, Object.class);
+		heap.retainedBytes = CompactTreeBenchmark.Heap.used() - before;
+		return value;
+	}
+}
@@ -0,0 +1,97 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.JsonPointerBasedFilter;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Validates a document of the given size, and reads the name of its last
+ * record by a {@link JsonPointer}, either through the structural scanner of
+ * {@link NullPolicyObjectMapper#isValidJson(byte[])} and
+ * {@link NullPolicyObjectMapper#readValueAt(byte[], JsonPointer, Class)}, or
+ * through the tokens of a regular parser, a {@link FilteringParserDelegate},
+ * or a whole tree.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StructuralBenchmark {
+	/**
+	 * The approximate size of the document in bytes.
+	 */
+	@Param({ "1024", "1048576", "104857600" })
+	public int size;
+	
+	private NullPolicyObjectMapper objectMapper;
+	
+	private byte[] content;
+	
+	private JsonPointer pointer;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.objectMapper = new NullPolicyObjectMapper();
+		this.content = Payloads.documentOfSize(this.size);
+		final int records = this.objectMapper.readValueAt(this.content, JsonPointer.compile("/count"), Integer.class);
+		this.pointer = JsonPointer.compile("/records/" + (records - 1) + "/name");
+	}
+	
+	@Benchmark
+	public boolean isValidJson() throws IOException {
+		return this.objectMapper.isValidJson(this.content);
+	}
+	
+	@Benchmark
+	public boolean isValidJson_parser() throws IOException {
+		try (JsonParser p = this.objectMapper.getFactory().createParser(this.content)) {
+			while (p.nextToken() != null) {
+				// tokens only
+			}
+			return true;
+		}
+	}
+	
+	@Benchmark
+	public String readValueAt() throws IOException {
+		return this.objectMapper.readValueAt(this.content, this.pointer, String.class);
+	}
+	
+	@Benchmark
+	public String readValueAt_filter() throws IOException {
+		try (JsonParser p = new FilteringParserDelegate(this.objectMapper.getFactory().createParser(this.content), new JsonPointerBasedFilter(this.pointer),
+				false, false)) {
+			p.nextToken();
+			return this.objectMapper.readValue(p, String.class);
+		}
+	}
+	
+	@Benchmark
+	public JsonNode readTree_at() throws IOException {
+		return this.objectMapper.readTree(this.content).at(this.pointer);
+	}
+}
@@ -0,0 +1,109 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.lang.reflect.Array;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.ooch.jackson.databind.TypeCache;
+
+/**
+ * Resolves a rotating set of distinct types on all cores, with the default
+ * cache of the {@link com.fasterxml.jackson.databind.type.TypeFactory} and
+ * with a {@link TypeCache}. Once there are more types than the default cache
+ * holds, the default cache keeps dropping all of its entries.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(Threads.MAX)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TypeCacheBenchmark {
+	private static final Class<?>[] COMPONENTS = { int.class, long.class, double.class, float.class, short.class, byte.class, char.class,
+			boolean.class, String.class, Object.class };
+	
+	/**
+	 * Either {@code default} or {@code bounded}.
+	 */
+	@Param({ "default", "bounded" })
+	public String cache;
+	
+	/**
+	 * The number of distinct types resolved.
+	 */
+	@Param({ "100", "1000" })
+	public int types;
+	
+	private ObjectMapper objectMapper;
+	
+	private TypeCache typeCache;
+	
+	private Class<?>[] valueTypes;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		this.objectMapper = new ObjectMapper();
+		if (this.cache.equals("bounded")) {
+			this.typeCache = TypeCache.install(this.objectMapper, 2 * this.types + TypeCache.DEFAULT_MAX_ENTRIES);
+		}
+		this.valueTypes = new Class<?>[this.types];
+		for (int i = 0; i < this.types; i++) {
+			final Class<?> component = TypeCacheBenchmark.COMPONENTS[i % TypeCacheBenchmark.COMPONENTS.length];
+			this.valueTypes[i] = Array.newInstance(component, new int[1 + i / TypeCacheBenchmark.COMPONENTS.length]).getClass();
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (this.typeCache != null) {
+			System.out.println(this.typeCache);
+		}
+	}
+	
+	@Benchmark
+	public JavaType constructMapType(final Cursor cursor) {
+		final Class<?> valueType = this.valueTypes[cursor.next(this.types)];
+		return this.objectMapper.getTypeFactory().constructMapType(Map.class, String.class, valueType);
+	}
+	
+	@Benchmark
+	public JavaType constructType_Class(final Cursor cursor) {
+		return this.objectMapper.constructType(this.valueTypes[cursor.next(this.types)]);
+	}
+	
+	/**
+	 * The per-thread position within the types.
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+		private int index;
+		
+		int next(final int bound) {
+			if (++this.index >= bound) {
+				this.index = 0;
+			}
+			return this.index;
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package de.ooch.jackson.databind.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.ResolvedType;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.ooch.jackson.databind.NullPolicyObjectMapper;
+
+/**
+ * Compares the {@code Class}, {@code TypeReference}, {@code JavaType} and
+ * {@code ResolvedType} overloads of {@code readValue}, on a plain
+ * {@link ObjectMapper} and on a {@link NullPolicyObjectMapper}, which memoizes
+ * the resolved type of each {@link TypeReference} subclass. The
+ * {@code constructType} benchmarks isolate the cost of type resolution.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TypeReferenceBenchmark {
+	private static final TypeReference<Map<String, Object>> TYPE_REFERENCE = new TypeReference<Map<String, Object>>() {
+	};
+	
+	/**
+	 * Either {@code plain} or {@code cached}.
+	 */
+	@Param({ "plain", "cached" })
+	public String mapper;
+	
+	/**
+	 * The number of records in the benchmarked document.
+	 */
+	@Param({ "1" })
+	public int records;
+	
+	private ObjectMapper objectMapper;
+	
+	private byte[] bytes;
+	
+	private JavaType javaType;
+	
+	@Setup(Level.Trial)
+	public void setup() {
+		this.objectMapper = this.mapper.equals("plain") ? new ObjectMapper() : new NullPolicyObjectMapper();
+		this.bytes = Payloads.document(this.records).getBytes(StandardCharsets.UTF_8);
+		this.javaType = this.objectMapper.getTypeFactory().constructType(TypeReferenceBenchmark.TYPE_REFERENCE);
+	}
+	
+	@Benchmark
+	public Object readValue_Bytes_Class() throws IOException {
+		return this.objectMapper.readValue(this.bytes, Map.class);
+	}
+	
+	@Benchmark
+	public Object readValue_Bytes_TypeReference() throws IOException {
+		return this.objectMapper.readValue(this.bytes, TypeReferenceBenchmark.TYPE_REFERENCE);
+	}
+	
+	@Benchmark
+	public Object readValue_Bytes_JavaType() throws IOException {
+		return this.objectMapper.readValue(this.bytes, this.javaType);
+	}
+	
+	@Benchmark
+	public Object readValue_Parser_ResolvedType() throws IOException {
+		try (JsonParser p = this.objectMapper.getFactory().createParser(this.bytes)) {
+			return this.objectMapper.readValue(p, (ResolvedType) this.javaType);
+		}
+	}
+	
+	@Benchmark
+	public Object constructType_Class() {
+		return this.objectMapper.constructType(Map.class);
+	}
+	
+	@Benchmark
+	public Object constructType_TypeReference() {
+		if (this.objectMapper instanceof NullPolicyObjectMapper) {
+			return ((NullPolicyObjectMapper) this.objectMapper).constructType(TypeReferenceBenchmark.TYPE_REFERENCE);
+		}
+		return this.objectMapper.getTypeFactory().constructType(TypeReferenceBenchmark.TYPE_REFERENCE);
+	}
+}
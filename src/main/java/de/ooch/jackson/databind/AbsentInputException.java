@@ -0,0 +1,87 @@
+package de.ooch.jackson.databind;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+
+/**
+ * A lightweight {@link MismatchedInputException}, that indicates an absent
+ * input, i.e. either a {@code null} input source or an input without any
+ * content. It is thrown by a {@link NullPolicyObjectMapper} in
+ * {@link NullPolicyObjectMapper#setLightweightExceptions(boolean) lightweight
+ * mode}.
+ * <p>
+ * Absent input is not exceptional for many clients (e.g. empty request
+ * bodies), which is why this exception neither fills in its stack trace, nor
+ * formats its message or determines its location before being asked to.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+public class AbsentInputException extends MismatchedInputException {
+	private static final long serialVersionUID = 1L;
+	
+	private final String argument;
+	
+	/**
+	 * Constructs an exception for the given parser, which has reached the end
+	 * of its input before reading any content.
+	 */
+	public AbsentInputException(final JsonParser p, final JavaType targetType) {
+		this(p, targetType, null);
+	}
+	
+	/**
+	 * Constructs an exception for the given parser (if any), and the name of
+	 * the argument, which should have been the input source, but is
+	 * {@code null}.
+	 */
+	public AbsentInputException(final JsonParser p, final JavaType targetType, final String argument) {
+		super(p, null, (JsonLocation) null);
+		this._targetType = targetType == null ? null : targetType.getRawClass();
+		this.argument = argument;
+	}
+	
+	/**
+	 * Returns the name of the {@code null} argument, or {@code null} if the
+	 * input was empty rather than {@code null}.
+	 */
+	public String getArgument() {
+		return this.argument;
+	}
+	
+	@Override
+	public String getOriginalMessage() {
+		if (this.argument != null) {
+			return "No content to map: argument \"" + this.argument + "\" is null";
+		}
+		return "No content to map due to end-of-input";
+	}
+	
+	@Override
+	public JsonLocation getLocation() {
+		if (this._location == null && this._processor instanceof JsonParser) {
+			this._location = ((JsonParser) this._processor).getTokenLocation();
+		}
+		return this._location;
+	}
+	
+	@Override
+	public String getMessage() {
+		final JsonLocation location = this.getLocation();
+		if (location == null) {
+			return this.getOriginalMessage();
+		}
+		return this.getOriginalMessage() + "\n at " + location;
+	}
+	
+	@Override
+	public String getLocalizedMessage() {
+		return this.getMessage();
+	}
+	
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+}
@@ -0,0 +1,217 @@
+package de.ooch.jackson.databind;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads and writes files through an {@link AsynchronousFileChannel}, whose
+ * I/O and completion handlers run on a given executor, so that the calling
+ * thread never blocks on the file system.
+ * <p>
+ * A file of up to {@value FileSource#MAPPED_SIZE} bytes is read into memory
+ * in full, and then parsed on the executor. A larger file, or a file that
+ * cannot be opened, is read by a blocking task on the executor instead,
+ * which streams or maps the file, and reports failures just as the blocking
+ * methods do.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+final class AsyncFiles {
+	private static final Set<OpenOption> READ = Collections.singleton(StandardOpenOption.READ);
+	
+	private static final Set<OpenOption> WRITE = Collections
+			.unmodifiableSet(EnumSet.of(StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING));
+	
+	/**
+	 * Parses the content of a file, once it has been read into memory.
+	 */
+	interface ContentReader<T> {
+		T read(byte[] content, int length) throws IOException;
+	}
+	
+	private AsyncFiles() {
+		// no instances
+	}
+	
+	/**
+	 * Returns the executor, that runs asynchronous reads and writes, unless a
+	 * mapper is given one: a virtual thread per task, if the runtime
+	 * supports virtual threads, or else a bounded pool of daemon threads.
+	 */
+	static ExecutorService defaultExecutor() {
+		return DefaultExecutor.INSTANCE;
+	}
+	
+	/**
+	 * Reads the given file asynchronously, and completes the returned future
+	 * with the result of the given reader, or with the result of the given
+	 * blocking task, if the file is large or cannot be opened.
+	 */
+	static <T> CompletableFuture<T> read(final File file, final ExecutorService executor, final ContentReader<T> reader, final Callable<T> blocking) {
+		final AsynchronousFileChannel channel;
+		final long size;
+		try {
+			channel = AsynchronousFileChannel.open(file.toPath(), AsyncFiles.READ, executor);
+		} catch (final IOException | RuntimeException e) {
+			return AsyncFiles.call(executor, blocking);
+		}
+		try {
+			size = channel.size();
+		} catch (final IOException e) {
+			AsyncFiles.closeQuietly(channel);
+			return AsyncFiles.call(executor, blocking);
+		}
+		if (size >= FileSource.MAPPED_SIZE) {
+			AsyncFiles.closeQuietly(channel);
+			return AsyncFiles.call(executor, blocking);
+		}
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		final ByteBuffer buffer = ByteBuffer.wrap(new byte[(int) size]);
+		channel.read(buffer, 0, null, new CompletionHandler<Integer, Void>() {
+			private long position;
+			
+			@Override
+			public void completed(final Integer n, final Void attachment) {
+				if (n > 0 && buffer.hasRemaining()) {
+					this.position += n;
+					channel.read(buffer, this.position, null, this);
+					return;
+				}
+				AsyncFiles.closeQuietly(channel);
+				try {
+					future.complete(reader.read(buffer.array(), buffer.position()));
+				} catch (final Throwable t) {
+					future.completeExceptionally(t);
+				}
+			}
+			
+			@Override
+			public void failed(final Throwable t, final Void attachment) {
+				AsyncFiles.closeQuietly(channel);
+				future.completeExceptionally(t);
+			}
+		});
+		return future;
+	}
+	
+	/**
+	 * Writes the content returned by the given task, which runs on the given
+	 * executor, to the given file asynchronously.
+	 */
+	static CompletableFuture<Void> write(final File file, final ExecutorService executor, final Callable<byte[]> content) {
+		final CompletableFuture<Void> future = new CompletableFuture<>();
+		executor.execute(() -> {
+			final ByteBuffer buffer;
+			final AsynchronousFileChannel channel;
+			try {
+				buffer = ByteBuffer.wrap(content.call());
+				channel = AsynchronousFileChannel.open(file.toPath(), AsyncFiles.WRITE, executor);
+			} catch (final Throwable t) {
+				future.completeExceptionally(t);
+				return;
+			}
+			channel.write(buffer, 0, null, new CompletionHandler<Integer, Void>() {
+				private long position;
+				
+				@Override
+				public void completed(final Integer n, final Void attachment) {
+					if (buffer.hasRemaining()) {
+						this.position += n;
+						channel.write(buffer, this.position, null, this);
+						return;
+					}
+					try {
+						channel.close();
+						future.complete(null);
+					} catch (final Throwable t) {
+						future.completeExceptionally(t);
+					}
+				}
+				
+				@Override
+				public void failed(final Throwable t, final Void attachment) {
+					AsyncFiles.closeQuietly(channel);
+					future.completeExceptionally(t);
+				}
+			});
+		});
+		return future;
+	}
+	
+	/**
+	 * Runs the given task on the calling thread, and returns its outcome as a
+	 * completed future.
+	 */
+	static <T> CompletableFuture<T> now(final Callable<T> task) {
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		try {
+			future.complete(task.call());
+		} catch (final Throwable t) {
+			future.completeExceptionally(t);
+		}
+		return future;
+	}
+	
+	/**
+	 * Runs the given blocking task on the given executor.
+	 */
+	static <T> CompletableFuture<T> call(final ExecutorService executor, final Callable<T> task) {
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		executor.execute(() -> {
+			try {
+				future.complete(task.call());
+			} catch (final Throwable t) {
+				future.completeExceptionally(t);
+			}
+		});
+		return future;
+	}
+	
+	private static void closeQuietly(final AsynchronousFileChannel channel) {
+		try {
+			channel.close();
+		} catch (final IOException e) {
+			// the content has been read already
+		}
+	}
+	
+	/**
+	 * Holds the default executor, which is created on first use.
+	 */
+	private static final class DefaultExecutor {
+		static final ExecutorService INSTANCE = DefaultExecutor.create();
+		
+		private static ExecutorService create() {
+			try {
+				return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			} catch (final ReflectiveOperationException e) {
+				// virtual threads are not available before Java 21
+			}
+			final int size = Math.max(4, Runtime.getRuntime().availableProcessors());
+			final AtomicInteger count = new AtomicInteger();
+			final ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+				final Thread thread = new Thread(runnable, "jackson-async-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			executor.allowCoreThreadTimeOut(true);
+			return executor;
+		}
+	}
+}
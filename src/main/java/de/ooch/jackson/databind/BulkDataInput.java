@@ -0,0 +1,206 @@
+package de.ooch.jackson.databind;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * An {@link InputStream} view of a {@link DataInput}, that is capable of bulk
+ * reads, so that a parser reads it through its recycled byte buffer, rather
+ * than one {@link DataInput#readUnsignedByte() byte} at a time.
+ * <p>
+ * Since a parser reads ahead, the data input is repositioned to the end of
+ * the consumed content afterwards (see {@link #reposition(JsonParser)}). A
+ * {@link RandomAccessFile} seeks back, and an {@link InputStream}, that
+ * {@link InputStream#markSupported() supports marks}, is reset to the mark
+ * set on the first read, and skips the consumed bytes, while retaining no
+ * more than about one buffer of the parser (see {@link MarkedStreamInput}).
+ * The mark is {@link #release() released} in any case, even if reading fails.
+ * Any other data input is not bulk-capable in that sense.
+ * <p>
+ * Closing this stream does not close the data input, just as closing a
+ * parser for the data input does not.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+abstract class BulkDataInput extends InputStream {
+	private static final OutputStream DISCARD = new OutputStream() {
+		@Override
+		public void write(final int b) {
+		}
+		
+		@Override
+		public void write(final byte[] b, final int off, final int len) {
+		}
+	};
+	
+	/**
+	 * Returns a bulk-capable view of the given data input, or {@code null} if
+	 * the data input cannot be repositioned.
+	 */
+	static BulkDataInput of(final DataInput in) {
+		if (in instanceof RandomAccessFile) {
+			return new RandomAccessFileInput((RandomAccessFile) in);
+		}
+		if (in instanceof InputStream && ((InputStream) in).markSupported()) {
+			return new MarkedStreamInput((InputStream) in);
+		}
+		return null;
+	}
+	
+	/**
+	 * Repositions the data input to the end of the content consumed by the
+	 * given parser, which must not have been closed yet.
+	 */
+	void reposition(final JsonParser p) throws IOException {
+		this.unread(Math.max(0, p.releaseBuffered(BulkDataInput.DISCARD)));
+	}
+	
+	/**
+	 * Moves the data input back by the given number of bytes, which have been
+	 * read, but not consumed.
+	 */
+	abstract void unread(int count) throws IOException;
+	
+	/**
+	 * Releases any resources retained for repositioning, whether the data
+	 * input has been repositioned or not.
+	 */
+	void release() {
+	}
+	
+	@Override
+	public void close() {
+	}
+	
+	/**
+	 * Reads a {@link RandomAccessFile}, and seeks back to reposition it.
+	 */
+	private static final class RandomAccessFileInput extends BulkDataInput {
+		private final RandomAccessFile file;
+		
+		RandomAccessFileInput(final RandomAccessFile file) {
+			this.file = file;
+		}
+		
+		@Override
+		public int read() throws IOException {
+			return this.file.read();
+		}
+		
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			return this.file.read(b, off, len);
+		}
+		
+		@Override
+		void unread(final int count) throws IOException {
+			if (count > 0) {
+				this.file.seek(this.file.getFilePointer() - count);
+			}
+		}
+	}
+	
+	/**
+	 * Reads a marked {@link InputStream}, and resets it to reposition it.
+	 * <p>
+	 * The mark is kept just far enough behind the current position, that the
+	 * stream does not retain more than about one buffer of a parser: a parser
+	 * reads into its buffer at the offset of the bytes it still holds, so the
+	 * bytes before those are dropped, whenever the mark would exceed its
+	 * limit otherwise. The mark is set on the first bulk read, with a limit
+	 * of the buffer size, and widened only if a read does not fit anyway.
+	 */
+	private static final class MarkedStreamInput extends BulkDataInput {
+		private final InputStream in;
+		
+		private int markLimit;
+		
+		private long count;
+		
+		MarkedStreamInput(final InputStream in) {
+			this.in = in;
+		}
+		
+		@Override
+		public int read() throws IOException {
+			this.mark(Integer.MAX_VALUE, 1, 1);
+			final int b = this.in.read();
+			if (b >= 0) {
+				this.count++;
+			}
+			return b;
+		}
+		
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			this.mark(off, len, b.length);
+			final int n = this.in.read(b, off, len);
+			if (n > 0) {
+				this.count += n;
+			}
+			return n;
+		}
+		
+		/**
+		 * Makes sure, that the mark covers the given number of bytes, that
+		 * have been read last, and the given number of bytes to read next.
+		 */
+		private void mark(final int keep, final int len, final int bufferSize) throws IOException {
+			if (this.markLimit == 0) {
+				this.markLimit = Math.max(len, bufferSize);
+				this.in.mark(this.markLimit);
+				this.count = 0;
+			} else if (this.count + len > this.markLimit) {
+				final long retained = Math.min(keep, this.count);
+				this.in.reset();
+				this.skipFully(this.count - retained);
+				if (retained + len > this.markLimit) {
+					this.markLimit = (int) Math.min(Integer.MAX_VALUE, Math.max(retained + len, 2L * this.markLimit));
+				}
+				this.in.mark(this.markLimit);
+				this.skipFully(retained);
+				this.count = retained;
+			}
+		}
+		
+		/**
+		 * Skips the given number of bytes of the stream.
+		 */
+		private void skipFully(long remaining) throws IOException {
+			while (remaining > 0) {
+				final long skipped = this.in.skip(remaining);
+				if (skipped > 0) {
+					remaining -= skipped;
+				} else if (this.in.read() >= 0) {
+					remaining--;
+				} else {
+					break;
+				}
+			}
+		}
+		
+		@Override
+		void unread(final int unconsumed) throws IOException {
+			if (unconsumed > 0 && this.markLimit > 0) {
+				this.in.reset();
+				this.skipFully(this.count - unconsumed);
+			}
+			this.release();
+		}
+		
+		@Override
+		void release() {
+			if (this.markLimit > 0) {
+				// lets the stream drop the bytes retained for the mark
+				this.in.mark(0);
+				this.markLimit = 0;
+				this.count = 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package de.ooch.jackson.databind;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+
+/**
+ * An {@link InputStream} view of a {@link ReadableByteChannel}, that reads
+ * the channel directly into the recycled buffer of a parser. The channel
+ * itself reads through the temporary direct buffer, that the JDK pools per
+ * thread, so that no further buffer is involved.
+ * <p>
+ * Closing this stream closes the channel, just as closing the stream of
+ * {@link java.nio.channels.Channels#newInputStream(ReadableByteChannel)} does.
+ * A {@link SelectableChannel} must be in blocking mode.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+final class ChannelInput extends InputStream {
+	private final ReadableByteChannel channel;
+	
+	ChannelInput(final ReadableByteChannel channel) {
+		if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+			throw new IllegalBlockingModeException();
+		}
+		this.channel = channel;
+	}
+	
+	@Override
+	public int read() throws IOException {
+		final byte[] b = new byte[1];
+		return this.read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+	}
+	
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		int n;
+		final ByteBuffer target = ByteBuffer.wrap(b, off, len);
+		while ((n = this.channel.read(target)) == 0) {
+			continue;
+		}
+		return n;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+}
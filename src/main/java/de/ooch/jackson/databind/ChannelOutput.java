@@ -0,0 +1,121 @@
+package de.ooch.jackson.databind;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+
+import com.fasterxml.jackson.core.util.BufferRecycler;
+
+/**
+ * An {@link OutputStream} view of a {@link WritableByteChannel}, that
+ * collects the output of a generator in a recycled byte buffer of
+ * {@value ChunkedDataOutput#CHUNK_SIZE} bytes, and hands it to the channel in
+ * large writes. If the output does not fit into the buffer, the pending
+ * output and the new output are handed to a {@link GatheringByteChannel} in a
+ * single gathered write, rather than one after the other.
+ * <p>
+ * Closing this stream closes the channel, just as closing the stream of
+ * {@link java.nio.channels.Channels#newOutputStream(WritableByteChannel)}
+ * does. Since a generator closes its target only if
+ * {@link com.fasterxml.jackson.core.JsonGenerator.Feature#AUTO_CLOSE_TARGET}
+ * is enabled, the buffer must be {@link #release() released} explicitly. A
+ * {@link SelectableChannel} must be in blocking mode.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+final class ChannelOutput extends OutputStream {
+	private final WritableByteChannel channel;
+	
+	private final BufferRecycler recycler;
+	
+	private byte[] buffer;
+	
+	private int length;
+	
+	ChannelOutput(final WritableByteChannel channel, final BufferRecycler recycler) {
+		if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+			throw new IllegalBlockingModeException();
+		}
+		this.channel = channel;
+		this.recycler = recycler;
+		this.buffer = recycler.allocByteBuffer(BufferRecycler.BYTE_WRITE_CONCAT_BUFFER, ChunkedDataOutput.CHUNK_SIZE);
+	}
+	
+	@Override
+	public void write(final int b) throws IOException {
+		if (this.length == this.buffer.length) {
+			this.drain();
+		}
+		this.buffer[this.length++] = (byte) b;
+	}
+	
+	@Override
+	public void write(final byte[] b, final int off, final int len) throws IOException {
+		if (len <= this.buffer.length - this.length) {
+			System.arraycopy(b, off, this.buffer, this.length, len);
+			this.length += len;
+		} else if (this.channel instanceof GatheringByteChannel) {
+			final ByteBuffer[] srcs = { ByteBuffer.wrap(this.buffer, 0, this.length), ByteBuffer.wrap(b, off, len) };
+			this.length = 0;
+			while (srcs[1].hasRemaining()) {
+				((GatheringByteChannel) this.channel).write(srcs);
+			}
+		} else {
+			this.drain();
+			if (len >= this.buffer.length) {
+				this.writeFully(ByteBuffer.wrap(b, off, len));
+			} else {
+				System.arraycopy(b, off, this.buffer, 0, len);
+				this.length = len;
+			}
+		}
+	}
+	
+	private void drain() throws IOException {
+		if (this.length > 0) {
+			final int len = this.length;
+			this.length = 0;
+			this.writeFully(ByteBuffer.wrap(this.buffer, 0, len));
+		}
+	}
+	
+	private void writeFully(final ByteBuffer src) throws IOException {
+		while (src.hasRemaining()) {
+			this.channel.write(src);
+		}
+	}
+	
+	@Override
+	public void flush() throws IOException {
+		if (this.buffer != null) {
+			this.drain();
+		}
+	}
+	
+	/**
+	 * Releases the buffer, discarding any pending output, without closing the
+	 * channel.
+	 */
+	void release() {
+		final byte[] buffer = this.buffer;
+		if (buffer != null) {
+			this.buffer = null;
+			this.length = 0;
+			this.recycler.releaseByteBuffer(BufferRecycler.BYTE_WRITE_CONCAT_BUFFER, buffer);
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		try {
+			this.flush();
+		} finally {
+			this.release();
+			this.channel.close();
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package de.ooch.jackson.databind;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.core.util.BufferRecycler;
+
+/**
+ * An {@link OutputStream} view of a {@link DataOutput}, that collects the
+ * output of a generator in a recycled byte buffer, and hands it to the data
+ * output in large chunks through {@link DataOutput#write(byte[], int, int)}.
+ * A generator itself only buffers up to 8000 bytes, and hands over every
+ * single value, if it is flushed after each one.
+ * <p>
+ * {@link #flush()} hands over any pending output, but cannot flush the data
+ * output itself. {@link #close()} hands over any pending output, and releases
+ * the buffer, but does not close the data output, just as closing a generator
+ * for the data output does not.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+final class ChunkedDataOutput extends OutputStream {
+	/**
+	 * The size of the chunks handed to the data output.
+	 */
+	static final int CHUNK_SIZE = 64 * 1024;
+	
+	private final DataOutput out;
+	
+	private final BufferRecycler recycler;
+	
+	private byte[] buffer;
+	
+	private int length;
+	
+	ChunkedDataOutput(final DataOutput out, final BufferRecycler recycler) {
+		this.out = out;
+		this.recycler = recycler;
+		this.buffer = recycler.allocByteBuffer(BufferRecycler.BYTE_WRITE_CONCAT_BUFFER, ChunkedDataOutput.CHUNK_SIZE);
+	}
+	
+	@Override
+	public void write(final int b) throws IOException {
+		if (this.length == this.buffer.length) {
+			this.drain();
+		}
+		this.buffer[this.length++] = (byte) b;
+	}
+	
+	@Override
+	public void write(final byte[] b, final int off, final int len) throws IOException {
+		if (len > this.buffer.length - this.length) {
+			this.drain();
+			if (len >= this.buffer.length) {
+				this.out.write(b, off, len);
+				return;
+			}
+		}
+		System.arraycopy(b, off, this.buffer, this.length, len);
+		this.length += len;
+	}
+	
+	private void drain() throws IOException {
+		if (this.length > 0) {
+			final int len = this.length;
+			this.length = 0;
+			this.out.write(this.buffer, 0, len);
+		}
+	}
+	
+	@Override
+	public void flush() throws IOException {
+		if (this.buffer != null) {
+			this.drain();
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		final byte[] buffer = this.buffer;
+		if (buffer != null) {
+			try {
+				this.drain();
+			} finally {
+				this.buffer = null;
+				this.recycler.releaseByteBuffer(BufferRecycler.BYTE_WRITE_CONCAT_BUFFER, buffer);
+			}
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package de.ooch.jackson.databind;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+
+/**
+ * The elements of an array of a {@link CompactNodeFactory}, which are kept in
+ * a {@code long[]}, as long as they are all {@link IntNode}s or
+ * {@link LongNode}s, in a {@code double[]}, as long as they are all
+ * {@link DoubleNode}s, or else in an {@code Object[]} of nodes and the texts
+ * of text nodes (see {@link CompactNodeFactory#compact(JsonNode)}).
+ * <p>
+ * A {@link LongNode}, whose value is in the range of an {@code int}, is kept
+ * as a node, so that every value of a {@code long[]} is read back as the node
+ * it has been added as: an {@link IntNode}, if it is in the range of an
+ * {@code int}, or else a {@link LongNode}.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+final class CompactList extends AbstractList<JsonNode> implements RandomAccess {
+	private static final int DEFAULT_CAPACITY = 8;
+	
+	/**
+	 * The {@code long[]}, {@code double[]} or {@code Object[]} of elements,
+	 * or {@code null}, if none has been added yet.
+	 */
+	private Object values;
+	
+	private int size;
+	
+	private final int capacity;
+	
+	CompactList() {
+		this(CompactList.DEFAULT_CAPACITY);
+	}
+	
+	CompactList(final int capacity) {
+		this.capacity = Math.max(capacity, 1);
+	}
+	
+	@Override
+	public int size() {
+		return this.size;
+	}
+	
+	@Override
+	public JsonNode get(final int index) {
+		this.checkIndex(index, this.size);
+		final Object values = this.values;
+		if (values instanceof long[]) {
+			final long value = ((long[]) values)[index];
+			return (int) value == value ? IntNode.valueOf((int) value) : LongNode.valueOf(value);
+		} else if (values instanceof double[]) {
+			return DoubleNode.valueOf(((double[]) values)[index]);
+		}
+		return CompactNodeFactory.node(((Object[]) values)[index]);
+	}
+	
+	@Override
+	public JsonNode set(final int index, final JsonNode element) {
+		final JsonNode previous = this.get(index);
+		this.fit(element);
+		this.store(index, element);
+		return previous;
+	}
+	
+	@Override
+	public void add(final int index, final JsonNode element) {
+		this.checkIndex(index, this.size + 1);
+		this.modCount++;
+		this.fit(element);
+		final int length = this.length();
+		if (this.size == length) {
+			this.grow(Math.max(this.capacity, length + (length >> 1)));
+		}
+		System.arraycopy(this.values, index, this.values, index + 1, this.size - index);
+		this.store(index, element);
+		this.size++;
+	}
+	
+	@Override
+	public JsonNode remove(final int index) {
+		final JsonNode previous = this.get(index);
+		this.modCount++;
+		System.arraycopy(this.values, index + 1, this.values, index, this.size - index - 1);
+		if (this.values instanceof Object[]) {
+			((Object[]) this.values)[this.size - 1] = null;
+		}
+		this.size--;
+		return previous;
+	}
+	
+	@Override
+	public void clear() {
+		this.modCount++;
+		this.values = null;
+		this.size = 0;
+	}
+	
+	private void checkIndex(final int index, final int bound) {
+		if (index < 0 || index >= bound) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+	}
+	
+	private int length() {
+		final Object values = this.values;
+		if (values instanceof long[]) {
+			return ((long[]) values).length;
+		} else if (values instanceof double[]) {
+			return ((double[]) values).length;
+		}
+		return values == null ? 0 : ((Object[]) values).length;
+	}
+	
+	private void grow(final int length) {
+		final Object values = this.values;
+		if (values instanceof long[]) {
+			this.values = Arrays.copyOf((long[]) values, length);
+		} else if (values instanceof double[]) {
+			this.values = Arrays.copyOf((double[]) values, length);
+		} else {
+			this.values = Arrays.copyOf((Object[]) values, length);
+		}
+	}
+	
+	/**
+	 * Chooses the primitive array for the first element, or turns a primitive
+	 * array into an {@code Object[]}, if it cannot store the given element.
+	 */
+	private void fit(final JsonNode element) {
+		final Object values = this.values;
+		if (values == null || this.size == 0) {
+			if (CompactList.isLong(element)) {
+				this.values = new long[Math.max(this.capacity, this.length())];
+			} else if (element != null && element.getClass() == DoubleNode.class) {
+				this.values = new double[Math.max(this.capacity, this.length())];
+			} else {
+				this.values = new Object[Math.max(this.capacity, this.length())];
+			}
+		} else if (values instanceof long[] && !CompactList.isLong(element)
+				|| values instanceof double[] && (element == null || element.getClass() != DoubleNode.class)) {
+			final Object[] nodes = new Object[this.length()];
+			for (int i = 0; i < this.size; i++) {
+				nodes[i] = this.get(i);
+			}
+			this.values = nodes;
+		}
+	}
+	
+	private void store(final int index, final JsonNode element) {
+		final Object values = this.values;
+		if (values instanceof long[]) {
+			((long[]) values)[index] = element.longValue();
+		} else if (values instanceof double[]) {
+			((double[]) values)[index] = element.doubleValue();
+		} else {
+			((Object[]) values)[index] = CompactNodeFactory.compact(element);
+		}
+	}
+	
+	/**
+	 * Returns whether the given node is read back from a {@code long[]} as
+	 * is.
+	 */
+	private static boolean isLong(final JsonNode element) {
+		if (element == null) {
+			return false;
+		} else if (element.getClass() == IntNode.class) {
+			return true;
+		}
+		return element.getClass() == LongNode.class && (int) element.longValue() != element.longValue();
+	}
+}
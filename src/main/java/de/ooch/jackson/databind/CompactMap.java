@@ -0,0 +1,259 @@
+package de.ooch.jackson.databind;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * The members of an object of a {@link CompactNodeFactory}, whose names and
+ * values are kept in a pair of arrays in input order, and looked up linearly,
+ * as long as there are at most {@value #MAX_ARRAY_SIZE} of them. The values
+ * are nodes, or the texts of text nodes (see
+ * {@link CompactNodeFactory#compact(JsonNode)}). A larger object keeps its
+ * members in a {@link LinkedHashMap} instead.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+final class CompactMap extends AbstractMap<String, JsonNode> {
+	/**
+	 * The maximum number of members kept in arrays.
+	 */
+	static final int MAX_ARRAY_SIZE = 16;
+	
+	private static final String[] NO_NAMES = {};
+	
+	private static final Object[] NO_VALUES = {};
+	
+	private String[] names = CompactMap.NO_NAMES;
+	
+	private Object[] values = CompactMap.NO_VALUES;
+	
+	private int size;
+	
+	/**
+	 * The members of a large object, or {@code null}.
+	 */
+	private Map<String, JsonNode> members;
+	
+	private int modCount;
+	
+	private Set<Map.Entry<String, JsonNode>> entrySet;
+	
+	@Override
+	public int size() {
+		return this.members != null ? this.members.size() : this.size;
+	}
+	
+	@Override
+	public boolean containsKey(final Object key) {
+		return this.members != null ? this.members.containsKey(key) : this.indexOf(key) >= 0;
+	}
+	
+	@Override
+	public JsonNode get(final Object key) {
+		if (this.members != null) {
+			return this.members.get(key);
+		}
+		final int i = this.indexOf(key);
+		return i < 0 ? null : CompactNodeFactory.node(this.values[i]);
+	}
+	
+	@Override
+	public JsonNode put(final String key, final JsonNode value) {
+		if (this.members != null) {
+			return this.members.put(key, value);
+		}
+		final int i = this.indexOf(key);
+		if (i >= 0) {
+			final JsonNode previous = CompactNodeFactory.node(this.values[i]);
+			this.values[i] = CompactNodeFactory.compact(value);
+			return previous;
+		}
+		this.modCount++;
+		if (this.size == CompactMap.MAX_ARRAY_SIZE) {
+			this.members = new LinkedHashMap<>();
+			for (int j = 0; j < this.size; j++) {
+				this.members.put(this.names[j], CompactNodeFactory.node(this.values[j]));
+			}
+			this.names = CompactMap.NO_NAMES;
+			this.values = CompactMap.NO_VALUES;
+			this.size = 0;
+			return this.members.put(key, value);
+		}
+		if (this.size == this.names.length) {
+			final int length = Math.min(CompactMap.MAX_ARRAY_SIZE, Math.max(4, this.size * 2));
+			this.names = Arrays.copyOf(this.names, length);
+			this.values = Arrays.copyOf(this.values, length);
+		}
+		this.names[this.size] = key;
+		this.values[this.size++] = CompactNodeFactory.compact(value);
+		return null;
+	}
+	
+	@Override
+	public JsonNode remove(final Object key) {
+		if (this.members != null) {
+			return this.members.remove(key);
+		}
+		final int i = this.indexOf(key);
+		if (i < 0) {
+			return null;
+		}
+		final JsonNode previous = CompactNodeFactory.node(this.values[i]);
+		this.removeAt(i);
+		return previous;
+	}
+	
+	@Override
+	public void clear() {
+		this.modCount++;
+		this.members = null;
+		this.names = CompactMap.NO_NAMES;
+		this.values = CompactMap.NO_VALUES;
+		this.size = 0;
+	}
+	
+	@Override
+	public Set<Map.Entry<String, JsonNode>> entrySet() {
+		if (this.entrySet == null) {
+			this.entrySet = new EntrySet();
+		}
+		return this.entrySet;
+	}
+	
+	private int indexOf(final Object key) {
+		final String[] names = this.names;
+		for (int i = 0, n = this.size; i < n; i++) {
+			if (names[i].equals(key)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	private void removeAt(final int i) {
+		this.modCount++;
+		System.arraycopy(this.names, i + 1, this.names, i, this.size - i - 1);
+		System.arraycopy(this.values, i + 1, this.values, i, this.size - i - 1);
+		this.size--;
+		this.names[this.size] = null;
+		this.values[this.size] = null;
+	}
+	
+	/**
+	 * The members in input order, which are backed by the arrays, or by the
+	 * {@link LinkedHashMap} of a large object.
+	 */
+	private final class EntrySet extends AbstractSet<Map.Entry<String, JsonNode>> {
+		@Override
+		public int size() {
+			return CompactMap.this.size();
+		}
+		
+		@Override
+		public void clear() {
+			CompactMap.this.clear();
+		}
+		
+		@Override
+		public Iterator<Map.Entry<String, JsonNode>> iterator() {
+			if (CompactMap.this.members != null) {
+				return CompactMap.this.members.entrySet().iterator();
+			}
+			return new Iterator<Map.Entry<String, JsonNode>>() {
+				private int next;
+				
+				private int last = -1;
+				
+				private int expectedModCount = CompactMap.this.modCount;
+				
+				@Override
+				public boolean hasNext() {
+					return this.next < CompactMap.this.size;
+				}
+				
+				@Override
+				public Map.Entry<String, JsonNode> next() {
+					if (CompactMap.this.modCount != this.expectedModCount) {
+						throw new ConcurrentModificationException();
+					}
+					if (this.next >= CompactMap.this.size) {
+						throw new NoSuchElementException();
+					}
+					this.last = this.next++;
+					return new Entry(this.last);
+				}
+				
+				@Override
+				public void remove() {
+					if (this.last < 0) {
+						throw new IllegalStateException();
+					}
+					if (CompactMap.this.modCount != this.expectedModCount) {
+						throw new ConcurrentModificationException();
+					}
+					CompactMap.this.removeAt(this.last);
+					this.next = this.last;
+					this.last = -1;
+					this.expectedModCount = CompactMap.this.modCount;
+				}
+			};
+		}
+	}
+	
+	/**
+	 * A member at a given position, whose value is written through.
+	 */
+	private final class Entry implements Map.Entry<String, JsonNode> {
+		private final int index;
+		
+		Entry(final int index) {
+			this.index = index;
+		}
+		
+		@Override
+		public String getKey() {
+			return CompactMap.this.names[this.index];
+		}
+		
+		@Override
+		public JsonNode getValue() {
+			return CompactNodeFactory.node(CompactMap.this.values[this.index]);
+		}
+		
+		@Override
+		public JsonNode setValue(final JsonNode value) {
+			final JsonNode previous = this.getValue();
+			CompactMap.this.values[this.index] = CompactNodeFactory.compact(value);
+			return previous;
+		}
+		
+		@Override
+		public boolean equals(final Object o) {
+			if (!(o instanceof Map.Entry)) {
+				return false;
+			}
+			final Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+			return this.getKey().equals(e.getKey()) && Objects.equals(this.getValue(), e.getValue());
+		}
+		
+		@Override
+		public int hashCode() {
+			return this.getKey().hashCode() ^ Objects.hashCode(this.getValue());
+		}
+		
+		@Override
+		public String toString() {
+			return this.getKey() + "=" + this.getValue();
+		}
+	}
+}
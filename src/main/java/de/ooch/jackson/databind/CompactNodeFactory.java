@@ -0,0 +1,96 @@
+package de.ooch.jackson.databind;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+/**
+ * A {@link JsonNodeFactory}, whose objects and arrays keep their children in
+ * a compact form, so that a tree takes a fraction of the heap of a regular
+ * tree (see {@link #install(ObjectMapper)}).
+ * <p>
+ * The nodes are the regular {@link ObjectNode}s and {@link ArrayNode}s, and
+ * support all of their methods, including
+ * {@link ObjectMapper#treeAsTokens(com.fasterxml.jackson.core.TreeNode)}, but
+ * are backed by a {@link CompactList} or a {@link CompactMap} instead of an
+ * {@link java.util.ArrayList} or a {@link java.util.LinkedHashMap}:
+ * <ul>
+ * <li>an array of {@link IntNode}s and {@link LongNode}s is kept in a
+ * {@code long[]}, and an array of {@link DoubleNode}s in a {@code double[]},
+ * until an element of another type is added,</li>
+ * <li>an object of up to {@value CompactMap#MAX_ARRAY_SIZE} members keeps its
+ * names and values in a pair of arrays,</li>
+ * <li>a {@link TextNode} is kept as its {@link String}.</li>
+ * </ul>
+ * Hence, the leaves of such a tree are created lazily, and anew whenever they
+ * are retrieved, so that two retrievals of the same leaf return equal, but
+ * not necessarily identical nodes. The members of an object are looked up
+ * linearly, which is faster than hashing for few members only.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+public class CompactNodeFactory extends JsonNodeFactory {
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Constructs a factory, whose decimal nodes are normalized (see
+	 * {@link JsonNodeFactory#JsonNodeFactory()}).
+	 */
+	public CompactNodeFactory() {
+		super();
+	}
+	
+	/**
+	 * Constructs a factory, whose decimal nodes are normalized or not (see
+	 * {@link JsonNodeFactory#JsonNodeFactory(boolean)}).
+	 */
+	public CompactNodeFactory(final boolean bigDecimalExact) {
+		super(bigDecimalExact);
+	}
+	
+	/**
+	 * Installs a new factory into the given mapper, and returns it, so that
+	 * {@link ObjectMapper#readTree(byte[])} and the like build compact trees.
+	 */
+	public static CompactNodeFactory install(final ObjectMapper mapper) {
+		final CompactNodeFactory factory = new CompactNodeFactory();
+		mapper.setNodeFactory(factory);
+		return factory;
+	}
+	
+	@Override
+	public ArrayNode arrayNode() {
+		return new ArrayNode(this, new CompactList());
+	}
+	
+	@Override
+	public ArrayNode arrayNode(final int capacity) {
+		return new ArrayNode(this, new CompactList(capacity));
+	}
+	
+	@Override
+	public ObjectNode objectNode() {
+		return new ObjectNode(this, new CompactMap());
+	}
+	
+	/**
+	 * Returns the compact form of the given node, which is its text, if it is
+	 * a {@link TextNode}, or else the node itself.
+	 */
+	static Object compact(final JsonNode node) {
+		return node != null && node.getClass() == TextNode.class ? node.textValue() : node;
+	}
+	
+	/**
+	 * Returns the node of the given compact form.
+	 */
+	static JsonNode node(final Object value) {
+		return value instanceof String ? TextNode.valueOf((String) value) : (JsonNode) value;
+	}
+}
@@ -0,0 +1,271 @@
+package de.ooch.jackson.databind;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import com.fasterxml.jackson.databind.JavaType;
+
+/**
+ * A {@link Publisher} of the root values decoded from a {@link Publisher} of
+ * byte chunks. Every subscriber gets its own subscription to the source, and
+ * its own {@link NonBlockingReader}.
+ * <p>
+ * A chunk is requested from the source only once the subscriber has demand,
+ * and all values of the previous chunk have been delivered, so that no more
+ * than one chunk's worth of values, and the bytes of the value in progress,
+ * are held at any time. A chunk is not retained beyond
+ * {@link Subscriber#onNext(Object)}, so that the source may recycle it right
+ * away. Since a publisher must not emit {@code null}, JSON {@code null} root
+ * values are skipped.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+final class DecodingPublisher<T> implements Publisher<T> {
+	private final NullPolicyObjectMapper mapper;
+	
+	private final Publisher<? extends ByteBuffer> source;
+	
+	private final JavaType valueType;
+	
+	DecodingPublisher(final NullPolicyObjectMapper mapper, final Publisher<? extends ByteBuffer> source, final JavaType valueType) {
+		this.mapper = mapper;
+		this.source = source;
+		this.valueType = valueType;
+	}
+	
+	@Override
+	public void subscribe(final Subscriber<? super T> subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException("argument \"subscriber\" is null");
+		}
+		this.source.subscribe(new Decoder<>(this.mapper, this.valueType, subscriber));
+	}
+	
+	/**
+	 * Subscribes to the source on behalf of a single subscriber. All signals
+	 * to the subscriber are emitted from {@link #drain()}, which is entered by
+	 * one thread at a time.
+	 */
+	private static final class Decoder<T> implements Subscriber<ByteBuffer>, Subscription {
+		private final NullPolicyObjectMapper mapper;
+		
+		private final JavaType valueType;
+		
+		private final Subscriber<? super T> downstream;
+		
+		private final Queue<T> values = new ConcurrentLinkedQueue<>();
+		
+		private final AtomicLong requested = new AtomicLong();
+		
+		private final AtomicInteger wip = new AtomicInteger();
+		
+		private Subscription upstream;
+		
+		private NonBlockingReader<T> reader;
+		
+		/**
+		 * Guards the reader, which is fed by the source, but closed by
+		 * {@link #cancel()}, which may be called on another thread.
+		 */
+		private final Object readerLock = new Object();
+		
+		/**
+		 * The number of values emitted, only accessed from {@link #drain()}.
+		 */
+		private long emitted;
+		
+		/**
+		 * Whether a chunk has been requested, but not yet received.
+		 */
+		private volatile boolean pending;
+		
+		private volatile boolean done;
+		
+		private volatile Throwable error;
+		
+		private volatile boolean cancelled;
+		
+		Decoder(final NullPolicyObjectMapper mapper, final JavaType valueType, final Subscriber<? super T> downstream) {
+			this.mapper = mapper;
+			this.valueType = valueType;
+			this.downstream = downstream;
+		}
+		
+		@Override
+		public void onSubscribe(final Subscription s) {
+			if (this.upstream != null) {
+				s.cancel();
+				return;
+			}
+			this.upstream = s;
+			try {
+				this.reader = this.mapper.nonBlockingReader(this.valueType);
+			} catch (final IOException | RuntimeException e) {
+				s.cancel();
+				this.error = e;
+				this.done = true;
+			}
+			this.downstream.onSubscribe(this);
+			if (this.done) {
+				this.drain();
+			}
+		}
+		
+		@Override
+		public void onNext(final ByteBuffer chunk) {
+			if (this.done) {
+				return;
+			}
+			try {
+				synchronized (this.readerLock) {
+					if (this.cancelled) {
+						// the reader has been closed already
+						return;
+					}
+					this.offer(this.reader.feed(chunk));
+				}
+			} catch (final IOException | RuntimeException e) {
+				this.upstream.cancel();
+				this.closeReader();
+				this.fail(e);
+				return;
+			}
+			this.pending = false;
+			this.drain();
+		}
+		
+		@Override
+		public void onError(final Throwable t) {
+			if (this.done) {
+				return;
+			}
+			this.closeReader();
+			this.fail(t);
+		}
+		
+		@Override
+		public void onComplete() {
+			if (this.done) {
+				return;
+			}
+			try {
+				synchronized (this.readerLock) {
+					if (this.cancelled) {
+						return;
+					}
+					this.offer(this.reader.end());
+				}
+			} catch (final IOException | RuntimeException e) {
+				this.fail(e);
+				return;
+			}
+			this.done = true;
+			this.drain();
+		}
+		
+		@Override
+		public void request(final long n) {
+			if (n <= 0) {
+				this.upstream.cancel();
+				this.closeReader();
+				this.fail(new IllegalArgumentException("non-positive request: " + n));
+				return;
+			}
+			long r;
+			do {
+				r = this.requested.get();
+			} while (r != Long.MAX_VALUE && !this.requested.compareAndSet(r, r + n < 0 ? Long.MAX_VALUE : r + n));
+			this.drain();
+		}
+		
+		@Override
+		public void cancel() {
+			if (!this.cancelled) {
+				this.cancelled = true;
+				this.upstream.cancel();
+				// the source need not deliver the pending chunk anymore
+				this.closeReader();
+			}
+		}
+		
+		private void offer(final List<T> values) {
+			for (final T value : values) {
+				if (value != null) {
+					this.values.offer(value);
+				}
+			}
+		}
+		
+		private void fail(final Throwable t) {
+			this.values.clear();
+			this.error = t;
+			this.done = true;
+			this.drain();
+		}
+		
+		private void closeReader() {
+			synchronized (this.readerLock) {
+				if (this.reader == null) {
+					return;
+				}
+				try {
+					this.reader.close();
+				} catch (final IOException e) {
+					// nothing left to report
+				}
+			}
+		}
+		
+		/**
+		 * Emits queued values as far as requested, terminates the subscriber
+		 * once all values have been emitted, or requests the next chunk.
+		 */
+		private void drain() {
+			if (this.wip.getAndIncrement() != 0) {
+				return;
+			}
+			int missed = 1;
+			do {
+				final long r = this.requested.get();
+				while (this.emitted != r && !this.cancelled) {
+					final T value = this.values.poll();
+					if (value == null) {
+						break;
+					}
+					this.downstream.onNext(value);
+					this.emitted++;
+				}
+				if (this.cancelled) {
+					this.values.clear();
+					return;
+				}
+				if (this.values.isEmpty()) {
+					if (this.done) {
+						this.cancelled = true;
+						final Throwable t = this.error;
+						if (t != null) {
+							this.downstream.onError(t);
+						} else {
+							this.downstream.onComplete();
+						}
+						return;
+					}
+					if (this.emitted != this.requested.get() && !this.pending) {
+						this.pending = true;
+						this.upstream.request(1);
+					}
+				}
+				missed = this.wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package de.ooch.jackson.databind;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+
+/**
+ * A parser, that looks up its string values, and optionally its field names,
+ * in a {@link StringCache}. A string value is looked up by the characters in
+ * the buffer of the underlying parser, so that a hit does not allocate a
+ * string. Field names are looked up, if the underlying parser does not
+ * canonicalize them already (see
+ * {@link com.fasterxml.jackson.core.JsonFactory.Feature#CANONICALIZE_FIELD_NAMES}).
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+final class DeduplicatingParser extends JsonParserDelegate {
+	private final StringCache cache;
+	
+	private final boolean names;
+	
+	DeduplicatingParser(final JsonParser p, final StringCache cache, final boolean names) {
+		super(p);
+		this.cache = cache;
+		this.names = names;
+	}
+	
+	@Override
+	public String getText() throws IOException {
+		final JsonToken t = this.delegate.getCurrentToken();
+		if (t == JsonToken.VALUE_STRING) {
+			return this.value();
+		} else if (t == JsonToken.FIELD_NAME && this.names) {
+			return this.cache.intern(this.delegate.getCurrentName());
+		}
+		return this.delegate.getText();
+	}
+	
+	@Override
+	public String getValueAsString() throws IOException {
+		return this.delegate.getCurrentToken() == JsonToken.VALUE_STRING ? this.value() : this.name(this.delegate.getValueAsString());
+	}
+	
+	@Override
+	public String getValueAsString(final String defaultValue) throws IOException {
+		return this.delegate.getCurrentToken() == JsonToken.VALUE_STRING ? this.value() : this.name(this.delegate.getValueAsString(defaultValue));
+	}
+	
+	@Override
+	public String nextTextValue() throws IOException {
+		return this.delegate.nextToken() == JsonToken.VALUE_STRING ? this.value() : null;
+	}
+	
+	@Override
+	public String getCurrentName() throws IOException {
+		return this.names ? this.cache.intern(this.delegate.getCurrentName()) : this.delegate.getCurrentName();
+	}
+	
+	@Override
+	public String currentName() throws IOException {
+		return this.getCurrentName();
+	}
+	
+	@Override
+	public String nextFieldName() throws IOException {
+		return this.names ? this.cache.intern(this.delegate.nextFieldName()) : this.delegate.nextFieldName();
+	}
+	
+	/**
+	 * Returns the cached string of the current string value.
+	 */
+	private String value() throws IOException {
+		if (!this.delegate.hasTextCharacters()) {
+			return this.cache.intern(this.delegate.getText());
+		}
+		final char[] chars = this.delegate.getTextCharacters();
+		return this.cache.intern(chars, this.delegate.getTextOffset(), this.delegate.getTextLength());
+	}
+	
+	/**
+	 * Returns the cached string of the given text, if it is the current field
+	 * name, or else the given text.
+	 */
+	private String name(final String text) {
+		return this.names && this.delegate.getCurrentToken() == JsonToken.FIELD_NAME ? this.cache.intern(text) : text;
+	}
+}
@@ -0,0 +1,132 @@
+package de.ooch.jackson.databind;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+
+/**
+ * A {@link Publisher} of byte chunks, that encodes every value of a source
+ * {@link Publisher} into a chunk of its own, terminated by a newline, so that
+ * the chunks form newline-delimited JSON. Every subscriber gets its own
+ * subscription to the source.
+ * <p>
+ * Since every value results in exactly one chunk, the demand of the
+ * subscriber is passed on to the source as is, and no more than one value is
+ * held at any time. Values are encoded into a {@link ByteArrayBuilder}, that
+ * is reused for the whole subscription, rather than the buffers recycled per
+ * thread, since the values of a subscription may arrive on different
+ * threads. The chunks themselves belong to the subscriber.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+final class EncodingPublisher implements Publisher<ByteBuffer> {
+	private final NullPolicyObjectMapper mapper;
+	
+	private final Publisher<?> source;
+	
+	EncodingPublisher(final NullPolicyObjectMapper mapper, final Publisher<?> source) {
+		this.mapper = mapper;
+		this.source = source;
+	}
+	
+	@Override
+	public void subscribe(final Subscriber<? super ByteBuffer> subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException("argument \"subscriber\" is null");
+		}
+		this.source.subscribe(new Encoder(this.mapper, subscriber));
+	}
+	
+	/**
+	 * Subscribes to the source on behalf of a single subscriber. Since the
+	 * signals of the source are serialized, and every signal results in at
+	 * most one signal to the subscriber, so are the signals to the subscriber.
+	 */
+	private static final class Encoder implements Subscriber<Object>, Subscription {
+		private final NullPolicyObjectMapper mapper;
+		
+		private final Subscriber<? super ByteBuffer> downstream;
+		
+		private final ByteArrayBuilder builder = new ByteArrayBuilder();
+		
+		private Subscription upstream;
+		
+		private volatile boolean done;
+		
+		Encoder(final NullPolicyObjectMapper mapper, final Subscriber<? super ByteBuffer> downstream) {
+			this.mapper = mapper;
+			this.downstream = downstream;
+		}
+		
+		@Override
+		public void onSubscribe(final Subscription s) {
+			if (this.upstream != null) {
+				s.cancel();
+				return;
+			}
+			this.upstream = s;
+			this.downstream.onSubscribe(this);
+		}
+		
+		@Override
+		public void onNext(final Object value) {
+			if (this.done) {
+				return;
+			}
+			final ByteBuffer chunk;
+			try {
+				this.mapper.writeValue(this.builder, value);
+				this.builder.append('\n');
+				chunk = ByteBuffer.wrap(this.builder.toByteArray());
+			} catch (final IOException | RuntimeException e) {
+				this.upstream.cancel();
+				this.onError(e);
+				return;
+			} finally {
+				this.builder.reset();
+			}
+			this.downstream.onNext(chunk);
+		}
+		
+		@Override
+		public void onError(final Throwable t) {
+			if (this.done) {
+				return;
+			}
+			this.done = true;
+			this.builder.release();
+			this.downstream.onError(t);
+		}
+		
+		@Override
+		public void onComplete() {
+			if (this.done) {
+				return;
+			}
+			this.done = true;
+			this.builder.release();
+			this.downstream.onComplete();
+		}
+		
+		@Override
+		public void request(final long n) {
+			if (n <= 0) {
+				this.upstream.cancel();
+				this.onError(new IllegalArgumentException("non-positive request: " + n));
+				return;
+			}
+			this.upstream.request(n);
+		}
+		
+		@Override
+		public void cancel() {
+			this.done = true;
+			this.upstream.cancel();
+		}
+	}
+}
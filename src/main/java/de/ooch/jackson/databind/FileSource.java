@@ -0,0 +1,172 @@
+package de.ooch.jackson.databind;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * The content of a {@link File}, read according to its size: a small file is
+ * read in one go into an array of its exact size, and parsed in place, so
+ * that the parser neither reads nor copies it through a buffer of its own,
+ * while a large file is memory-mapped, and read through the recycled buffer
+ * of the parser, without any read system calls. A file of any other size is
+ * read through a {@link FileInputStream}, as a {@link JsonFactory} does.
+ * <p>
+ * The array of a small file is not recycled: a parser reports the array as
+ * its source, and includes a snippet of it in error messages, which must not
+ * reveal anything but the file itself. Nor is it taken from the recycled
+ * read buffer, which the parser of a larger file needs.
+ * <p>
+ * A large file is mapped in windows of up to 1 GB, so that files beyond 2 GB
+ * can be read as well. A window is unmapped by the garbage collector, once
+ * the parser has moved on. Closing the source closes the file, but leaves
+ * the parser open.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+final class FileSource implements Closeable {
+	/**
+	 * The maximum size of a file, that is read in one go.
+	 */
+	static final int SMALL_SIZE = 64 * 1024;
+	
+	/**
+	 * The minimum size of a file, that is memory-mapped.
+	 */
+	static final long MAPPED_SIZE = 1024 * 1024;
+	
+	/**
+	 * The maximum size of a mapped window.
+	 */
+	static final long WINDOW_SIZE = 1L << 30;
+	
+	private final FileInputStream in;
+	
+	private final long windowSize;
+	
+	private byte[] buffer;
+	
+	private int length;
+	
+	private FileSource(final FileInputStream in, final long windowSize) {
+		this.in = in;
+		this.windowSize = windowSize;
+	}
+	
+	/**
+	 * Opens the given file, and reads it in one go, if it is small.
+	 */
+	static FileSource open(final File file) throws IOException {
+		return FileSource.open(file, FileSource.WINDOW_SIZE);
+	}
+	
+	static FileSource open(final File file, final long windowSize) throws IOException {
+		final FileSource source = new FileSource(new FileInputStream(file), windowSize);
+		try {
+			final long size = source.in.getChannel().size();
+			if (size <= FileSource.SMALL_SIZE) {
+				source.readFully((int) size);
+			}
+			return source;
+		} catch (final IOException | RuntimeException e) {
+			source.close();
+			throw e;
+		}
+	}
+	
+	private void readFully(final int size) throws IOException {
+		this.buffer = new byte[size];
+		int n;
+		while (this.length < size && (n = this.in.read(this.buffer, this.length, size - this.length)) >= 0) {
+			this.length += n;
+		}
+	}
+	
+	/**
+	 * Creates a parser for the content of the file, which must be closed
+	 * before this source.
+	 */
+	JsonParser createParser(final JsonFactory factory) throws IOException {
+		if (this.buffer != null) {
+			return factory.createParser(this.buffer, 0, this.length);
+		}
+		final long size = this.in.getChannel().size();
+		if (size >= FileSource.MAPPED_SIZE) {
+			return factory.createParser(new MappedInput(size));
+		}
+		return factory.createParser(this.in);
+	}
+	
+	@Override
+	public void close() throws IOException {
+		this.buffer = null;
+		this.in.close();
+	}
+	
+	/**
+	 * Reads the file through successive read-only mappings.
+	 */
+	private final class MappedInput extends InputStream {
+		private final long size;
+		
+		private long position;
+		
+		private ByteBuffer window;
+		
+		MappedInput(final long size) {
+			this.size = size;
+		}
+		
+		private boolean ensureRemaining() throws IOException {
+			if (this.window != null && this.window.hasRemaining()) {
+				return true;
+			}
+			this.window = null;
+			if (this.position >= this.size) {
+				return false;
+			}
+			final long length = Math.min(FileSource.this.windowSize, this.size - this.position);
+			this.window = FileSource.this.in.getChannel().map(FileChannel.MapMode.READ_ONLY, this.position, length);
+			this.position += length;
+			return true;
+		}
+		
+		@Override
+		public int read() throws IOException {
+			if (!this.ensureRemaining()) {
+				return -1;
+			}
+			return this.window.get() & 0xFF;
+		}
+		
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (!this.ensureRemaining()) {
+				return -1;
+			}
+			final int n = Math.min(len, this.window.remaining());
+			this.window.get(b, off, n);
+			return n;
+		}
+		
+		@Override
+		public int available() {
+			return this.window == null ? 0 : this.window.remaining();
+		}
+		
+		@Override
+		public void close() {
+			this.window = null;
+		}
+	}
+}
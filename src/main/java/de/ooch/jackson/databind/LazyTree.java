@@ -0,0 +1,685 @@
+package de.ooch.jackson.databind;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Reads a tree from a document lazily: the objects and arrays of the tree
+ * are the regular {@link ObjectNode}s and {@link ArrayNode}s, but are backed
+ * by the bytes of the document, and by an index of the positions of their
+ * members or elements, which is built on first access. A child node is
+ * created once it is retrieved, and kept for later retrievals, so that only
+ * the parts of the document, that are actually visited, are turned into
+ * nodes.
+ * <p>
+ * The document is validated by a {@link StructuralScanner} up front, which
+ * creates no objects, so that the lazy tree never fails later on. Whenever
+ * the document cannot be scanned, is invalid, or duplicate names must be
+ * reported, it is read by {@link NullPolicyObjectMapper#readTree(byte[])}
+ * instead, which reports failures just as usual. Numbers and escaped
+ * strings are read by a regular parser of their own bytes, so that each node
+ * equals the node of a regular tree. A duplicate name keeps the position of
+ * its first and the value of its last occurrence, just like in a regular
+ * tree.
+ * <p>
+ * An object or array, that is modified, turns into a regular
+ * {@link LinkedHashMap} or {@link ArrayList} of all of its children first.
+ * Concurrent reads are safe, and always return the same child node, since
+ * the indexes are published by compare-and-set, and the child
+ * nodes through {@link AtomicReferenceArray}s. The tree retains the whole
+ * document, which must not be modified, while the tree is in use.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+final class LazyTree {
+	private static final AtomicReferenceFieldUpdater<Members, MemberIndex> MEMBER_INDEX = AtomicReferenceFieldUpdater.newUpdater(Members.class,
+			MemberIndex.class, "index");
+	
+	private static final AtomicReferenceFieldUpdater<Elements, ElementIndex> ELEMENT_INDEX = AtomicReferenceFieldUpdater.newUpdater(Elements.class,
+			ElementIndex.class, "index");
+	
+	private final NullPolicyObjectMapper mapper;
+	
+	private final JsonNodeFactory nodeFactory;
+	
+	/**
+	 * The cache of the string values, or {@code null}.
+	 */
+	private final StringCache stringCache;
+	
+	private final byte[] content;
+	
+	private final StructuralScanner scanner;
+	
+	/**
+	 * Whether integers are read as {@code int}s or {@code long}s, as far as
+	 * they fit.
+	 */
+	private final boolean plainInts;
+	
+	/**
+	 * Whether decimals are read as {@code double}s.
+	 */
+	private final boolean plainFloats;
+	
+	/**
+	 * The names, that have been decoded recently, in slots of their hashes,
+	 * so that the same names of many objects are shared.
+	 */
+	private final String[] names = new String[LazyTree.NAMES];
+	
+	private static final int NAMES = 256;
+	
+	private LazyTree(final NullPolicyObjectMapper mapper, final byte[] content) {
+		this.mapper = mapper;
+		this.nodeFactory = mapper.getNodeFactory();
+		this.stringCache = mapper.getStringCache();
+		this.content = content;
+		this.scanner = new StructuralScanner(content, content.length);
+		this.plainInts = !mapper.isEnabled(DeserializationFeature.USE_BIG_INTEGER_FOR_INTS) && !mapper.isEnabled(DeserializationFeature.USE_LONG_FOR_INTS);
+		this.plainFloats = !mapper.isEnabled(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+	}
+	
+	/**
+	 * Reads a lazy tree from the given document, or a regular tree, if the
+	 * document cannot be read lazily.
+	 */
+	static JsonNode readTree(final NullPolicyObjectMapper mapper, final byte[] content) throws IOException {
+		if (!StructuralScanner.supports(mapper.getFactory(), content, 0, content.length) || mapper.isEnabled(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY)
+				|| !StructuralScanner.isValid(content, 0, content.length)) {
+			return mapper.readTree(content);
+		}
+		final LazyTree tree = new LazyTree(mapper, content);
+		final int start = tree.scanner.skipWhitespace(tree.scanner.skipBom(0));
+		return tree.node(start, tree.scanner.skipValue(start));
+	}
+	
+	/**
+	 * Returns the node of the value in the given range.
+	 */
+	private JsonNode node(final int start, final int end) {
+		final byte[] b = this.content;
+		switch (b[start]) {
+		case '{':
+			return new ObjectNode(this.nodeFactory, new Members(start));
+		case '[':
+			return new ArrayNode(this.nodeFactory, new Elements(start));
+		case 't':
+			return this.nodeFactory.booleanNode(true);
+		case 'f':
+			return this.nodeFactory.booleanNode(false);
+		case 'n':
+			return this.nodeFactory.nullNode();
+		case '"':
+			if (this.indexOf('\\', start + 1, end - 1) < 0) {
+				final String text = new String(b, start + 1, end - start - 2, StandardCharsets.UTF_8);
+				return this.nodeFactory.textNode(this.stringCache != null ? this.stringCache.intern(text) : text);
+			}
+			return this.parse(start, end);
+		default:
+			return this.number(start, end);
+		}
+	}
+	
+	/**
+	 * Returns the node of the number in the given range, which is created
+	 * just like {@link com.fasterxml.jackson.databind.deser.std.JsonNodeDeserializer}
+	 * creates it: an integer of up to 18 digits as an {@code int} or a
+	 * {@code long}, and a decimal as a {@code double}, unless a
+	 * {@link DeserializationFeature} asks for another type.
+	 */
+	private JsonNode number(final int start, final int end) {
+		final byte[] b = this.content;
+		boolean integral = true;
+		for (int i = start; i < end; i++) {
+			if (b[i] == '.' || b[i] == 'e' || b[i] == 'E') {
+				integral = false;
+				break;
+			}
+		}
+		if (integral && this.plainInts && end - start <= 18) {
+			long value = 0;
+			for (int i = b[start] == '-' ? start + 1 : start; i < end; i++) {
+				value = value * 10 + b[i] - '0';
+			}
+			if (b[start] == '-') {
+				value = -value;
+			}
+			return (int) value == value ? this.nodeFactory.numberNode((int) value) : this.nodeFactory.numberNode(value);
+		} else if (!integral && this.plainFloats) {
+			return this.nodeFactory.numberNode(Double.parseDouble(new String(b, start, end - start, StandardCharsets.ISO_8859_1)));
+		}
+		return this.parse(start, end);
+	}
+	
+	/**
+	 * Reads the node of the value in the given range by a regular parser.
+	 */
+	private JsonNode parse(final int start, final int end) {
+		try (JsonParser p = this.mapper.getFactory().createParser(this.content, start, end - start)) {
+			return this.mapper.readTree(p);
+		} catch (final IOException e) {
+			// the document has been validated already
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private int indexOf(final char c, final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			if (this.content[i] == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Returns the node of the given child of the given container, creating
+	 * it, if it does not exist yet.
+	 */
+	private JsonNode child(final AtomicReferenceArray<JsonNode> nodes, final int i, final int start, final int end) {
+		final JsonNode node = nodes.get(i);
+		if (node != null) {
+			return node;
+		}
+		final JsonNode created = this.node(start, end);
+		return nodes.compareAndSet(i, null, created) ? created : nodes.get(i);
+	}
+	
+	/**
+	 * Returns whether the given ASCII name equals the given range of bytes.
+	 */
+	private static boolean equals(final String name, final byte[] b, final int from, final int to) {
+		if (name.length() != to - from) {
+			return false;
+		}
+		for (int i = 0; i < to - from; i++) {
+			if (name.charAt(i) != b[from + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns the hash of the given range of bytes.
+	 */
+	private static int hash(final byte[] b, final int from, final int to) {
+		int h = 0;
+		for (int i = from; i < to; i++) {
+			h = 31 * h + b[i];
+		}
+		return h;
+	}
+	
+	/**
+	 * The members of an object, which are indexed on first access.
+	 */
+	private final class Members extends AbstractMap<String, JsonNode> {
+		private final int start;
+		
+		/**
+		 * The index, which is published by compare-and-set, so that all
+		 * threads share the same index, and thus the same child nodes.
+		 */
+		volatile MemberIndex index;
+		
+		/**
+		 * The regular members, once the object has been modified, or
+		 * {@code null}.
+		 */
+		private Map<String, JsonNode> members;
+		
+		private Set<Map.Entry<String, JsonNode>> entrySet;
+		
+		Members(final int start) {
+			this.start = start;
+		}
+		
+		private MemberIndex index() {
+			final MemberIndex index = this.index;
+			if (index != null) {
+				return index;
+			}
+			LazyTree.MEMBER_INDEX.compareAndSet(this, null, new MemberIndex(this.start));
+			return this.index;
+		}
+		
+		/**
+		 * Turns the members into regular members, unless they are already.
+		 */
+		private Map<String, JsonNode> members() {
+			if (this.members == null) {
+				final MemberIndex index = this.index();
+				final Map<String, JsonNode> members = new LinkedHashMap<>();
+				for (int i = 0; i < index.size; i++) {
+					members.put(index.name(i), index.value(i));
+				}
+				this.members = members;
+			}
+			return this.members;
+		}
+		
+		@Override
+		public int size() {
+			return this.members != null ? this.members.size() : this.index().size;
+		}
+		
+		@Override
+		public boolean containsKey(final Object key) {
+			return this.members != null ? this.members.containsKey(key) : key instanceof String && this.index().indexOf((String) key) >= 0;
+		}
+		
+		@Override
+		public JsonNode get(final Object key) {
+			if (this.members != null) {
+				return this.members.get(key);
+			}
+			final MemberIndex index = this.index();
+			final int i = key instanceof String ? index.indexOf((String) key) : -1;
+			return i < 0 ? null : index.value(i);
+		}
+		
+		@Override
+		public JsonNode put(final String key, final JsonNode value) {
+			return this.members().put(key, value);
+		}
+		
+		@Override
+		public JsonNode remove(final Object key) {
+			return this.members().remove(key);
+		}
+		
+		@Override
+		public void clear() {
+			this.members = new LinkedHashMap<>();
+		}
+		
+		@Override
+		public Set<Map.Entry<String, JsonNode>> entrySet() {
+			if (this.entrySet == null) {
+				this.entrySet = new AbstractSet<Map.Entry<String, JsonNode>>() {
+					@Override
+					public int size() {
+						return Members.this.size();
+					}
+					
+					@Override
+					public Iterator<Map.Entry<String, JsonNode>> iterator() {
+						if (Members.this.members != null) {
+							return Members.this.members.entrySet().iterator();
+						}
+						return new MemberIterator(Members.this.index());
+					}
+				};
+			}
+			return this.entrySet;
+		}
+		
+		/**
+		 * Iterates over the indexed members, which are turned into regular
+		 * members, once a member is removed or replaced.
+		 */
+		private final class MemberIterator implements Iterator<Map.Entry<String, JsonNode>> {
+			private final MemberIndex index;
+			
+			private int next;
+			
+			private String last;
+			
+			MemberIterator(final MemberIndex index) {
+				this.index = index;
+			}
+			
+			@Override
+			public boolean hasNext() {
+				return this.next < this.index.size;
+			}
+			
+			@Override
+			public Map.Entry<String, JsonNode> next() {
+				if (this.next >= this.index.size) {
+					throw new NoSuchElementException();
+				}
+				final int i = this.next++;
+				this.last = this.index.name(i);
+				return new AbstractMap.SimpleEntry<String, JsonNode>(this.last, this.index.value(i)) {
+					private static final long serialVersionUID = 1L;
+					
+					@Override
+					public JsonNode setValue(final JsonNode value) {
+						Members.this.put(this.getKey(), value);
+						return super.setValue(value);
+					}
+				};
+			}
+			
+			@Override
+			public void remove() {
+				if (this.last == null) {
+					throw new IllegalStateException();
+				}
+				Members.this.members().remove(this.last);
+				this.last = null;
+			}
+		}
+	}
+	
+	/**
+	 * The positions of the names and values of the members of an object,
+	 * along with a hash table of their names, which are compared as raw
+	 * bytes. The names with escapes are decoded, and kept as UTF-8 bytes.
+	 */
+	private final class MemberIndex {
+		/**
+		 * The start and end of the name (without quotes) and of the value of
+		 * each member.
+		 */
+		private int[] positions = new int[16];
+		
+		/**
+		 * The decoded bytes of each name with escapes, or {@code null}.
+		 */
+		private byte[][] escaped;
+		
+		/**
+		 * The positions of the members plus one, in slots of their hashes.
+		 */
+		private final int[] table;
+		
+		private int size;
+		
+		private final AtomicReferenceArray<JsonNode> nodes;
+		
+		MemberIndex(final int start) {
+			final byte[] b = LazyTree.this.content;
+			final StructuralScanner scanner = LazyTree.this.scanner;
+			int i = scanner.skipWhitespace(start + 1);
+			int count = 0;
+			while (b[i] != '}') {
+				final int nameEnd = scanner.skipString(i + 1);
+				final int valueStart = scanner.skipWhitespace(scanner.skipWhitespace(nameEnd + 1) + 1);
+				final int valueEnd = scanner.skipValue(valueStart);
+				if (4 * count == this.positions.length) {
+					this.positions = Arrays.copyOf(this.positions, 8 * count);
+				}
+				this.positions[4 * count] = i + 1;
+				this.positions[4 * count + 1] = nameEnd;
+				this.positions[4 * count + 2] = valueStart;
+				this.positions[4 * count + 3] = valueEnd;
+				count++;
+				i = scanner.skipWhitespace(valueEnd);
+				if (b[i] == ',') {
+					i = scanner.skipWhitespace(i + 1);
+				}
+			}
+			this.table = new int[Integer.highestOneBit(Math.max(count, 1) * 2) * 2];
+			for (int m = 0; m < count; m++) {
+				this.add(m);
+			}
+			this.nodes = new AtomicReferenceArray<>(this.size);
+		}
+		
+		/**
+		 * Adds the name of the given member to the table, or overwrites the
+		 * value of an earlier member of the same name.
+		 */
+		private void add(final int m) {
+			final int nameStart = this.positions[4 * m];
+			final int nameEnd = this.positions[4 * m + 1];
+			if (LazyTree.this.indexOf('\\', nameStart, nameEnd) >= 0) {
+				if (this.escaped == null) {
+					this.escaped = new byte[this.positions.length / 4][];
+				}
+				final JsonNode name = LazyTree.this.parse(nameStart - 1, nameEnd + 1);
+				this.escaped[m] = name.textValue().getBytes(StandardCharsets.UTF_8);
+			}
+			final byte[] b = this.bytes(m);
+			final int from = this.from(m);
+			final int to = this.to(m);
+			final int mask = this.table.length - 1;
+			for (int slot = LazyTree.hash(b, from, to) & mask;; slot = slot + 1 & mask) {
+				final int j = this.table[slot] - 1;
+				if (j < 0) {
+					// compact the members, skipping the overwritten ones
+					this.positions[4 * this.size] = nameStart;
+					this.positions[4 * this.size + 1] = nameEnd;
+					this.positions[4 * this.size + 2] = this.positions[4 * m + 2];
+					this.positions[4 * this.size + 3] = this.positions[4 * m + 3];
+					if (this.escaped != null) {
+						this.escaped[this.size] = this.escaped[m];
+					}
+					this.table[slot] = ++this.size;
+					return;
+				}
+				if (this.equals(j, b, from, to)) {
+					this.positions[4 * j + 2] = this.positions[4 * m + 2];
+					this.positions[4 * j + 3] = this.positions[4 * m + 3];
+					return;
+				}
+			}
+		}
+		
+		private byte[] bytes(final int m) {
+			return this.escaped != null && this.escaped[m] != null ? this.escaped[m] : LazyTree.this.content;
+		}
+		
+		private int from(final int m) {
+			return this.escaped != null && this.escaped[m] != null ? 0 : this.positions[4 * m];
+		}
+		
+		private int to(final int m) {
+			return this.escaped != null && this.escaped[m] != null ? this.escaped[m].length : this.positions[4 * m + 1];
+		}
+		
+		private boolean equals(final int m, final byte[] b, final int from, final int to) {
+			final byte[] name = this.bytes(m);
+			final int start = this.from(m);
+			if (this.to(m) - start != to - from) {
+				return false;
+			}
+			for (int i = 0; i < to - from; i++) {
+				if (name[start + i] != b[from + i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		/**
+		 * Returns the position of the member of the given name, or {@code -1}.
+		 */
+		int indexOf(final String name) {
+			int hash = 0;
+			for (int i = 0; i < name.length(); i++) {
+				final char c = name.charAt(i);
+				if (c >= 0x80) {
+					final byte[] b = name.getBytes(StandardCharsets.UTF_8);
+					return this.indexOf(b, LazyTree.hash(b, 0, b.length));
+				}
+				hash = 31 * hash + c;
+			}
+			final int mask = this.table.length - 1;
+			for (int slot = hash & mask;; slot = slot + 1 & mask) {
+				final int j = this.table[slot] - 1;
+				if (j < 0 || LazyTree.equals(name, this.bytes(j), this.from(j), this.to(j))) {
+					return j;
+				}
+			}
+		}
+		
+		private int indexOf(final byte[] b, final int hash) {
+			final int mask = this.table.length - 1;
+			for (int slot = hash & mask;; slot = slot + 1 & mask) {
+				final int j = this.table[slot] - 1;
+				if (j < 0 || this.equals(j, b, 0, b.length)) {
+					return j;
+				}
+			}
+		}
+		
+		String name(final int m) {
+			final byte[] b = this.bytes(m);
+			final int from = this.from(m);
+			final int to = this.to(m);
+			final int slot = LazyTree.hash(b, from, to) & LazyTree.NAMES - 1;
+			final String cached = LazyTree.this.names[slot];
+			if (cached != null && LazyTree.equals(cached, b, from, to)) {
+				return cached;
+			}
+			final String name = new String(b, from, to - from, StandardCharsets.UTF_8);
+			LazyTree.this.names[slot] = name;
+			return name;
+		}
+		
+		JsonNode value(final int m) {
+			return LazyTree.this.child(this.nodes, m, this.positions[4 * m + 2], this.positions[4 * m + 3]);
+		}
+	}
+	
+	/**
+	 * The elements of an array, which are indexed on first access.
+	 */
+	private final class Elements extends AbstractList<JsonNode> implements RandomAccess {
+		private final int start;
+		
+		/**
+		 * The index, which is published by compare-and-set (see
+		 * {@link Members#index}).
+		 */
+		volatile ElementIndex index;
+		
+		/**
+		 * The regular elements, once the array has been modified, or
+		 * {@code null}.
+		 */
+		private List<JsonNode> elements;
+		
+		Elements(final int start) {
+			this.start = start;
+		}
+		
+		private ElementIndex index() {
+			final ElementIndex index = this.index;
+			if (index != null) {
+				return index;
+			}
+			LazyTree.ELEMENT_INDEX.compareAndSet(this, null, new ElementIndex(this.start));
+			return this.index;
+		}
+		
+		/**
+		 * Turns the elements into regular elements, unless they are already.
+		 */
+		private List<JsonNode> elements() {
+			if (this.elements == null) {
+				final ElementIndex index = this.index();
+				final List<JsonNode> elements = new ArrayList<>(index.size);
+				for (int i = 0; i < index.size; i++) {
+					elements.add(index.value(i));
+				}
+				this.elements = elements;
+			}
+			this.modCount++;
+			return this.elements;
+		}
+		
+		@Override
+		public int size() {
+			return this.elements != null ? this.elements.size() : this.index().size;
+		}
+		
+		@Override
+		public JsonNode get(final int index) {
+			if (this.elements != null) {
+				return this.elements.get(index);
+			}
+			final ElementIndex elements = this.index();
+			if (index < 0 || index >= elements.size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + elements.size);
+			}
+			return elements.value(index);
+		}
+		
+		@Override
+		public JsonNode set(final int index, final JsonNode element) {
+			return this.elements().set(index, element);
+		}
+		
+		@Override
+		public void add(final int index, final JsonNode element) {
+			this.elements().add(index, element);
+		}
+		
+		@Override
+		public JsonNode remove(final int index) {
+			return this.elements().remove(index);
+		}
+		
+		@Override
+		public void clear() {
+			this.elements = new ArrayList<>();
+			this.modCount++;
+		}
+	}
+	
+	/**
+	 * The positions of the elements of an array.
+	 */
+	private final class ElementIndex {
+		/**
+		 * The start and end of each element.
+		 */
+		private int[] positions = new int[16];
+		
+		private int size;
+		
+		private final AtomicReferenceArray<JsonNode> nodes;
+		
+		ElementIndex(final int start) {
+			final byte[] b = LazyTree.this.content;
+			final StructuralScanner scanner = LazyTree.this.scanner;
+			int i = scanner.skipWhitespace(start + 1);
+			while (b[i] != ']') {
+				final int end = scanner.skipValue(i);
+				if (2 * this.size == this.positions.length) {
+					this.positions = Arrays.copyOf(this.positions, 4 * this.size);
+				}
+				this.positions[2 * this.size] = i;
+				this.positions[2 * this.size + 1] = end;
+				this.size++;
+				i = scanner.skipWhitespace(end);
+				if (b[i] == ',') {
+					i = scanner.skipWhitespace(i + 1);
+				}
+			}
+			this.nodes = new AtomicReferenceArray<>(this.size);
+		}
+		
+		JsonNode value(final int i) {
+			return LazyTree.this.child(this.nodes, i, this.positions[2 * i], this.positions[2 * i + 1]);
+		}
+	}
+}
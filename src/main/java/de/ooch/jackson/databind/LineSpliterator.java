@@ -0,0 +1,313 @@
+package de.ooch.jackson.databind;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+/**
+ * A {@link Spliterator} of the values of newline-delimited JSON, which splits
+ * its range of input bytes at the line break next to its middle, so that the
+ * ranges of a parallel stream are decoded independently of each other.
+ * <p>
+ * A range is traversed by a single parser and {@link MappingIterator}, so
+ * that lines need not be located up front, and the values of a range are
+ * bound just like {@link NullPolicyObjectMapper#readValues(JsonParser, JavaType)}
+ * binds them. A range of a file is memory-mapped once its traversal starts,
+ * in windows of up to 1 GB. Since the split points are only looked for at
+ * line breaks, a value must not span several lines, as pretty-printed JSON
+ * does. A range, that is being traversed, is not split any further.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+final class LineSpliterator<T> implements Spliterator<T> {
+	/**
+	 * The minimum size of a range, that is split off.
+	 */
+	static final long MIN_SPLIT = 16 * 1024;
+	
+	private final NullPolicyObjectMapper mapper;
+	
+	private final JavaType valueType;
+	
+	private final Source source;
+	
+	private final int characteristics;
+	
+	/**
+	 * The start of the range, that has not been traversed yet.
+	 */
+	private long from;
+	
+	private final long to;
+	
+	/**
+	 * The end of the window being traversed.
+	 */
+	private long end;
+	
+	private JsonParser parser;
+	
+	private MappingIterator<T> values;
+	
+	LineSpliterator(final NullPolicyObjectMapper mapper, final JavaType valueType, final Source source, final boolean ordered) {
+		this(mapper, valueType, source, ordered ? Spliterator.IMMUTABLE | Spliterator.ORDERED : Spliterator.IMMUTABLE, 0, source.size());
+	}
+	
+	private LineSpliterator(final NullPolicyObjectMapper mapper, final JavaType valueType, final Source source, final int characteristics, final long from,
+			final long to) {
+		this.mapper = mapper;
+		this.valueType = valueType;
+		this.source = source;
+		this.characteristics = characteristics;
+		this.from = from;
+		this.to = to;
+	}
+	
+	@Override
+	public boolean tryAdvance(final Consumer<? super T> action) {
+		try {
+			while (this.values != null || this.open()) {
+				if (this.values.hasNextValue()) {
+					action.accept(this.values.nextValue());
+					return true;
+				}
+				this.close();
+			}
+			return false;
+		} catch (final IOException e) {
+			this.closeQuietly();
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	@Override
+	public void forEachRemaining(final Consumer<? super T> action) {
+		try {
+			while (this.values != null || this.open()) {
+				while (this.values.hasNextValue()) {
+					action.accept(this.values.nextValue());
+				}
+				this.close();
+			}
+		} catch (final IOException e) {
+			this.closeQuietly();
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Opens the next window of the range, if any.
+	 */
+	private boolean open() throws IOException {
+		if (this.from >= this.to) {
+			return false;
+		}
+		this.end = this.to - this.from > FileSource.WINDOW_SIZE ? this.source.boundary(this.from + FileSource.WINDOW_SIZE, this.to) : this.to;
+		this.parser = this.source.createParser(this.mapper.getFactory(), this.from, this.end);
+		this.values = this.mapper.readValues(this.parser, this.valueType);
+		return true;
+	}
+	
+	private void close() throws IOException {
+		this.values = null;
+		this.from = this.end;
+		this.parser.close();
+	}
+	
+	private void closeQuietly() {
+		this.from = this.to;
+		if (this.values != null) {
+			this.values = null;
+			try {
+				this.parser.close();
+			} catch (final IOException e) {
+				// already failing
+			}
+		}
+	}
+	
+	@Override
+	public Spliterator<T> trySplit() {
+		if (this.values != null || this.to - this.from < 2 * LineSpliterator.MIN_SPLIT) {
+			return null;
+		}
+		final long mid;
+		try {
+			mid = this.source.boundary(this.from + (this.to - this.from) / 2, this.to);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (mid >= this.to) {
+			return null;
+		}
+		final Spliterator<T> prefix = new LineSpliterator<>(this.mapper, this.valueType, this.source, this.characteristics, this.from, mid);
+		this.from = mid;
+		return prefix;
+	}
+	
+	/**
+	 * Returns the number of bytes left, which exceeds the number of values.
+	 */
+	@Override
+	public long estimateSize() {
+		return this.to - this.from;
+	}
+	
+	@Override
+	public int characteristics() {
+		return this.characteristics;
+	}
+	
+	/**
+	 * The input bytes, that are split into ranges.
+	 */
+	abstract static class Source {
+		abstract long size();
+		
+		/**
+		 * Returns the position after the first line break at or after the
+		 * given position, or the given limit, if there is none before.
+		 */
+		abstract long boundary(long position, long limit) throws IOException;
+		
+		abstract JsonParser createParser(JsonFactory factory, long from, long to) throws IOException;
+	}
+	
+	/**
+	 * A range of a {@code byte[]}, that is parsed in place.
+	 */
+	static final class ArraySource extends Source {
+		private final byte[] array;
+		
+		private final int offset;
+		
+		private final int length;
+		
+		ArraySource(final byte[] array, final int offset, final int length) {
+			this.array = array;
+			this.offset = offset;
+			this.length = length;
+		}
+		
+		@Override
+		long size() {
+			return this.length;
+		}
+		
+		@Override
+		long boundary(final long position, final long limit) {
+			for (int i = this.offset + (int) position, n = this.offset + (int) limit; i < n; i++) {
+				if (this.array[i] == '\n') {
+					return i + 1 - this.offset;
+				}
+			}
+			return limit;
+		}
+		
+		@Override
+		JsonParser createParser(final JsonFactory factory, final long from, final long to) throws IOException {
+			return factory.createParser(this.array, this.offset + (int) from, (int) (to - from));
+		}
+	}
+	
+	/**
+	 * The remaining content of a {@link ByteBuffer} without an accessible
+	 * array, that is read through a view of each range. The position of the
+	 * buffer is not changed.
+	 */
+	static final class BufferSource extends Source {
+		private final ByteBuffer buffer;
+		
+		private final int base;
+		
+		BufferSource(final ByteBuffer buffer) {
+			this.buffer = buffer;
+			this.base = buffer.position();
+		}
+		
+		@Override
+		long size() {
+			return this.buffer.limit() - this.base;
+		}
+		
+		@Override
+		long boundary(final long position, final long limit) {
+			for (int i = this.base + (int) position, n = this.base + (int) limit; i < n; i++) {
+				if (this.buffer.get(i) == '\n') {
+					return i + 1 - this.base;
+				}
+			}
+			return limit;
+		}
+		
+		@Override
+		JsonParser createParser(final JsonFactory factory, final long from, final long to) throws IOException {
+			return factory.createParser(new ByteBufferBackedInputStream(BufferSource.view(this.buffer, this.base + (int) from, this.base + (int) to)));
+		}
+		
+		/**
+		 * Returns a view of the given range of the given buffer. The casts
+		 * keep the calls binary compatible with Java 8, whose
+		 * {@link ByteBuffer} does not override them covariantly.
+		 */
+		static ByteBuffer view(final ByteBuffer buffer, final int from, final int to) {
+			final ByteBuffer view = buffer.duplicate();
+			((Buffer) view).limit(to);
+			((Buffer) view).position(from);
+			return view;
+		}
+	}
+	
+	/**
+	 * The content of a file, whose ranges are mapped into memory.
+	 */
+	static final class MappedSource extends Source {
+		private final FileChannel channel;
+		
+		private final long size;
+		
+		MappedSource(final FileChannel channel) throws IOException {
+			this.channel = channel;
+			this.size = channel.size();
+		}
+		
+		@Override
+		long size() {
+			return this.size;
+		}
+		
+		@Override
+		long boundary(final long position, final long limit) throws IOException {
+			final ByteBuffer buffer = ByteBuffer.allocate(8192);
+			for (long p = position; p < limit;) {
+				((Buffer) buffer).clear();
+				final int n = this.channel.read(buffer, p);
+				if (n < 0) {
+					break;
+				}
+				for (int i = 0; i < n && p + i < limit; i++) {
+					if (buffer.get(i) == '\n') {
+						return p + i + 1;
+					}
+				}
+				p += n;
+			}
+			return limit;
+		}
+		
+		@Override
+		JsonParser createParser(final JsonFactory factory, final long from, final long to) throws IOException {
+			return factory.createParser(new ByteBufferBackedInputStream(this.channel.map(FileChannel.MapMode.READ_ONLY, from, to - from)));
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package de.ooch.jackson.databind;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JavaType;
+
+/**
+ * Reads a sequence of root values from chunks of bytes, which the caller
+ * pushes as they arrive, without ever blocking on input. Every chunk returns
+ * the values, that it completes, fully bound to the value type.
+ * <p>
+ * The non-blocking parser of the factory only finds the boundaries of the
+ * root values. Once a value is complete, its bytes are bound by a regular
+ * parser, just as {@link NullPolicyObjectMapper#readValue(byte[], JavaType)}
+ * binds them, so that numbers, features and error messages are all the same.
+ * The bytes of a value are bound from the chunk itself, unless the value
+ * spans several chunks, in which case only the bytes of that value are
+ * carried over to the next chunk.
+ * <p>
+ * A reader is not thread-safe, but it may be fed by different threads in
+ * turn, as an event loop does. Once a chunk fails, the reader is broken, and
+ * must be {@link #close() closed}. Only UTF-8 input is supported.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+public final class NonBlockingReader<T> implements Closeable {
+	private final NullPolicyObjectMapper mapper;
+	
+	private final JavaType valueType;
+	
+	private final JsonParser parser;
+	
+	private final ByteArrayFeeder feeder;
+	
+	/**
+	 * The bytes of the value in progress, carried over from previous chunks.
+	 */
+	private byte[] carry = new byte[0];
+	
+	private int carryLength;
+	
+	private byte[] scratch = new byte[0];
+	
+	/**
+	 * The input offset of the first byte, that does not belong to a value
+	 * already read.
+	 */
+	private long start;
+	
+	/**
+	 * The input offset of the chunk (or the carried bytes) being read.
+	 */
+	private long offset;
+	
+	private boolean ended;
+	
+	NonBlockingReader(final NullPolicyObjectMapper mapper, final JavaType valueType) throws IOException {
+		this.mapper = mapper;
+		this.valueType = valueType;
+		this.parser = mapper.getFactory().createNonBlockingByteArrayParser();
+		this.feeder = (ByteArrayFeeder) this.parser.getNonBlockingInputFeeder();
+	}
+	
+	/**
+	 * Returns the type of the values read.
+	 */
+	public JavaType getValueType() {
+		return this.valueType;
+	}
+	
+	/**
+	 * Feeds the given chunk, and returns the values it completes (see
+	 * {@link #feed(byte[], int, int)}).
+	 */
+	public List<T> feed(final byte[] chunk) throws IOException {
+		return this.feed(chunk, 0, chunk.length);
+	}
+	
+	/**
+	 * Feeds the given range of bytes, and returns the values it completes, in
+	 * input order, or an empty list if there are none. The bytes are not
+	 * retained beyond this call, so that the caller may reuse the array.
+	 */
+	public List<T> feed(final byte[] chunk, final int off, final int len) throws IOException {
+		if (this.ended) {
+			throw new IllegalStateException("end of input has been signalled");
+		}
+		if (len == 0) {
+			return Collections.emptyList();
+		}
+		this.feeder.feedInput(chunk, off, off + len);
+		this.offset = this.start;
+		if (this.carryLength == 0) {
+			final List<T> values = this.read(chunk, off);
+			this.carry(chunk, off, len);
+			return values;
+		}
+		final int carried = this.carryLength;
+		this.append(chunk, off, len);
+		final List<T> values = this.read(this.carry, 0);
+		this.carry(this.carry, 0, carried + len);
+		return values;
+	}
+	
+	/**
+	 * Feeds the remaining content of the given buffer, and returns the values
+	 * it completes (see {@link #feed(byte[], int, int)}), without changing
+	 * the buffer's position. The backing array of a heap buffer is read in
+	 * place, while a direct (or read-only) buffer is copied into a scratch
+	 * array, that is reused for every chunk.
+	 */
+	public List<T> feed(final ByteBuffer chunk) throws IOException {
+		final int len = chunk.remaining();
+		if (chunk.hasArray()) {
+			return this.feed(chunk.array(), chunk.arrayOffset() + chunk.position(), len);
+		}
+		if (len > this.scratch.length) {
+			this.scratch = new byte[len];
+		}
+		chunk.duplicate().get(this.scratch, 0, len);
+		return this.feed(this.scratch, 0, len);
+	}
+	
+	/**
+	 * Signals the end of input, and returns the values it completes, i.e. a
+	 * trailing scalar value, or an empty list. Fails, if the input ends
+	 * within a value. The reader is closed afterwards.
+	 */
+	public List<T> end() throws IOException {
+		if (this.ended) {
+			return Collections.emptyList();
+		}
+		this.ended = true;
+		try {
+			this.feeder.endOfInput();
+			this.offset = this.start;
+			return this.read(this.carry, 0);
+		} finally {
+			this.close();
+		}
+	}
+	
+	/**
+	 * Reads and binds all values completed by the input, whose first byte
+	 * is at the given index of the given array, and at input offset
+	 * {@link #offset}.
+	 */
+	private List<T> read(final byte[] input, final int index) throws IOException {
+		List<T> values = Collections.emptyList();
+		JsonToken t;
+		while ((t = this.parser.nextToken()) != JsonToken.NOT_AVAILABLE && t != null) {
+			if (this.parser.getParsingContext().inRoot()) {
+				final long end = this.parser.getCurrentLocation().getByteOffset();
+				final int from = index + (int) (this.start - this.offset);
+				final int len = (int) (end - this.start);
+				this.start = end;
+				@SuppressWarnings("unchecked")
+				final T value = (T) this.mapper._readMapAndClose(this.mapper.getFactory().createParser(input, from, len), this.valueType);
+				if (values.isEmpty()) {
+					values = new ArrayList<>(4);
+				}
+				values.add(value);
+			}
+		}
+		return values;
+	}
+	
+	/**
+	 * Carries over the bytes of the value in progress, i.e. the given range
+	 * of input bytes past {@link #start}, without leading whitespace.
+	 */
+	private void carry(final byte[] input, final int index, final int len) {
+		int from = index + (int) (this.start - this.offset);
+		final int to = index + len;
+		while (from < to && NonBlockingReader.isWhitespace(input[from])) {
+			from++;
+			this.start++;
+		}
+		final int length = to - from;
+		if (length > this.carry.length) {
+			this.carry = new byte[Math.max(length, this.carry.length * 2)];
+		}
+		System.arraycopy(input, from, this.carry, 0, length);
+		this.carryLength = length;
+	}
+	
+	private void append(final byte[] chunk, final int off, final int len) {
+		if (this.carryLength + len > this.carry.length) {
+			final byte[] carry = new byte[Math.max(this.carryLength + len, this.carry.length * 2)];
+			System.arraycopy(this.carry, 0, carry, 0, this.carryLength);
+			this.carry = carry;
+		}
+		System.arraycopy(chunk, off, this.carry, this.carryLength, len);
+		this.carryLength += len;
+	}
+	
+	private static boolean isWhitespace(final byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+	}
+	
+	/**
+	 * Closes the non-blocking parser, and drops any partial value.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.ended = true;
+		this.carry = new byte[0];
+		this.carryLength = 0;
+		this.parser.close();
+	}
+}
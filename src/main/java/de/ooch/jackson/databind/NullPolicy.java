@@ -0,0 +1,39 @@
+package de.ooch.jackson.databind;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Describes how a {@link NullPolicyObjectMapper} handles a {@code null} input
+ * source or output target for a {@link NullPolicyObjectMapper.Family family}
+ * of methods.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+public enum NullPolicy {
+	/**
+	 * Throw a plain {@link NullPointerException}, as most methods did in the
+	 * 2.9 code base.
+	 */
+	THROW_NPE,
+	
+	/**
+	 * Throw a checked {@link JsonProcessingException}, as some stream-based
+	 * methods did in the 2.9 code base. This policy only applies to families
+	 * of methods that declare an {@link java.io.IOException}.
+	 */
+	THROW_JPE,
+	
+	/**
+	 * Throw an {@link IllegalArgumentException}, as the eager non-null
+	 * assertions of the 2.10 code base do.
+	 */
+	THROW_IAE,
+	
+	/**
+	 * Handle the {@code null} reference silently, as some methods did in the
+	 * 2.9 code base, i.e. return {@code null} (or an empty iterator) from a
+	 * {@code null} source, ignore a {@code null} target, and accept a
+	 * {@code null} configuration.
+	 */
+	LENIENT;
+}
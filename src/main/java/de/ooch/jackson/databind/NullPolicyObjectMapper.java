@@ -0,0 +1,3526 @@
+package de.ooch.jackson.databind;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.reactivestreams.Publisher;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.PrettyPrinter;
+import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.JsonPointerBasedFilter;
+import com.fasterxml.jackson.core.type.ResolvedType;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.AbstractTypeResolver;
+import com.fasterxml.jackson.databind.AnnotationIntrospector;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.cfg.HandlerInstantiator;
+import com.fasterxml.jackson.databind.cfg.MutableConfigOverride;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.DeserializationProblemHandler;
+import com.fasterxml.jackson.databind.deser.DeserializerFactory;
+import com.fasterxml.jackson.databind.deser.Deserializers;
+import com.fasterxml.jackson.databind.deser.KeyDeserializers;
+import com.fasterxml.jackson.databind.deser.ValueInstantiators;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.introspect.ClassIntrospector;
+import com.fasterxml.jackson.databind.introspect.VisibilityChecker;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.jsontype.SubtypeResolver;
+import com.fasterxml.jackson.databind.jsontype.TypeResolverBuilder;
+import com.fasterxml.jackson.databind.jsontype.impl.StdSubtypeResolver;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.SerializerFactory;
+import com.fasterxml.jackson.databind.ser.Serializers;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.type.TypeModifier;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+/**
+ * An {@link ObjectMapper}, whose behavior for a {@code null} input source or
+ * output target is configured per {@link Family family} of methods by a
+ * {@link NullPolicy}, independent of the underlying Jackson code base. Most
+ * notably, this allows clients to retain the (somewhat inconsistent) behavior
+ * of the 2.9 code base (see {@link #legacyPolicies()}) when running on the
+ * 2.10 code base, whose eager non-null assertions throw
+ * {@link IllegalArgumentException}s instead.
+ * <p>
+ * The policies are fixed at construction time and kept in {@code final}
+ * fields. Each overridden method checks its source or target for
+ * {@code null} before delegating to the original implementation, and only
+ * consults its policy if that check fails. Hence, calls with a
+ * non-{@code null} argument pay for a single, well-predicted branch.
+ * <p>
+ * Note, that {@link #readValue(JsonParser, ResolvedType)} is {@code final} in
+ * {@link ObjectMapper}. Its {@code null} parser is subject to the
+ * {@link Family#READ_PARSER} policy on the 2.9 code base only; the 2.10 code
+ * base rejects it before this class gets a chance to intervene.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+public class NullPolicyObjectMapper extends ObjectMapper {
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * {@link MappingIterator#emptyIterator()} is not accessible.
+	 */
+	private static final MappingIterator<?> EMPTY_ITERATOR = new MappingIterator<Object>(null, null, null, null, false, null) {
+	};
+	
+	/**
+	 * The {@code Module.getDependencies()} method of the 2.10 code base, or
+	 * {@code null} on the 2.9 code base.
+	 */
+	private static final Method GET_DEPENDENCIES = NullPolicyObjectMapper.getDependenciesMethod();
+	
+	private static final OutputStream DISCARD = new OutputStream() {
+		@Override
+		public void write(final int b) {
+		}
+		
+		@Override
+		public void write(final byte[] b, final int off, final int len) {
+		}
+	};
+	
+	private static final AtomicReferenceFieldUpdater<NullPolicyObjectMapper, ConfigSnapshot> CONFIG_SNAPSHOT = AtomicReferenceFieldUpdater
+			.newUpdater(NullPolicyObjectMapper.class, ConfigSnapshot.class, "configSnapshot");
+	
+	/**
+	 * The families of methods, whose behavior for a {@code null} input source
+	 * or output target can be configured. Each family groups those methods,
+	 * that behaved the same in the 2.9 code base.
+	 */
+	public enum Family {
+		/**
+		 * {@link ObjectMapper#registerModule(Module)} and both
+		 * {@code registerModules} methods, with a {@code null} module (or
+		 * modules). {@link NullPolicy#LENIENT} ignores the {@code null}
+		 * reference.
+		 */
+		REGISTER_MODULE(NullPolicy.THROW_NPE, false),
+		
+		/**
+		 * {@link ObjectMapper#setConfig(SerializationConfig)} and
+		 * {@link ObjectMapper#setConfig(DeserializationConfig)}.
+		 * {@link NullPolicy#LENIENT} deletes the respective configuration.
+		 */
+		SET_CONFIG(NullPolicy.LENIENT, false),
+		
+		/**
+		 * {@link ObjectMapper#constructType(Type)}. {@link NullPolicy#LENIENT}
+		 * returns {@code null}.
+		 */
+		CONSTRUCT_TYPE(NullPolicy.THROW_IAE, false),
+		
+		/**
+		 * {@link ObjectMapper#treeAsTokens(TreeNode)}.
+		 * {@link NullPolicy#LENIENT} returns {@code null}.
+		 */
+		TREE_AS_TOKENS(NullPolicy.THROW_NPE, false),
+		
+		/**
+		 * All {@code readValue} methods and
+		 * {@link ObjectMapper#readTree(JsonParser)} reading from a
+		 * {@link JsonParser}.
+		 */
+		READ_PARSER(NullPolicy.THROW_NPE, true),
+		
+		/**
+		 * All {@code readValues} methods reading from a {@link JsonParser}, and
+		 * all {@code readValuesParallel} methods. {@link NullPolicy#LENIENT}
+		 * returns an empty {@link MappingIterator} or {@link Stream}.
+		 */
+		READ_VALUES(NullPolicy.LENIENT, true),
+		
+		/**
+		 * All {@code readValue} methods reading from a {@link String}, a
+		 * complete {@code byte[]}, a {@link File}, an {@link URL}, a
+		 * {@link DataInput} or a {@link ByteBuffer}.
+		 */
+		READ_VALUE(NullPolicy.THROW_NPE, true),
+		
+		/**
+		 * All {@code readValue} methods reading from an {@link InputStream}, a
+		 * {@link Reader}, a {@code byte[]} range or a
+		 * {@link ReadableByteChannel}.
+		 */
+		READ_VALUE_STREAM(NullPolicy.THROW_JPE, true),
+		
+		/**
+		 * All {@code readTree} methods reading from a {@link String}, a
+		 * {@code byte[]}, a {@link File}, an {@link URL} or a
+		 * {@link ByteBuffer}.
+		 */
+		READ_TREE(NullPolicy.THROW_NPE, true),
+		
+		/**
+		 * All {@code readTree} methods reading from an {@link InputStream}, a
+		 * {@link Reader} or a {@link ReadableByteChannel}.
+		 */
+		READ_TREE_STREAM(NullPolicy.LENIENT, true),
+		
+		/**
+		 * All {@code writeValue} methods writing to a {@link File}, an
+		 * {@link OutputStream}, a {@link DataOutput}, a {@link Writer} or a
+		 * {@link WritableByteChannel}, and
+		 * {@link NullPolicyObjectMapper#writeValues(DataOutput)}.
+		 * {@link NullPolicy#LENIENT} writes nothing.
+		 */
+		WRITE_VALUE(NullPolicy.THROW_NPE, true),
+		
+		/**
+		 * {@link ObjectMapper#writeValue(JsonGenerator, Object)} and both
+		 * {@code writeTree} methods. {@link NullPolicy#LENIENT} writes
+		 * nothing.
+		 */
+		WRITE_GENERATOR(NullPolicy.THROW_JPE, true);
+		
+		private final NullPolicy legacy;
+		
+		private final boolean checked;
+		
+		private Family(final NullPolicy legacy, final boolean checked) {
+			this.legacy = legacy;
+			this.checked = checked;
+		}
+		
+		/**
+		 * Returns the policy, that reflects the behavior of this family in
+		 * the 2.9 code base.
+		 */
+		public NullPolicy getLegacyPolicy() {
+			return this.legacy;
+		}
+		
+		/**
+		 * Returns whether the methods of this family declare an
+		 * {@link IOException}, and may thus apply
+		 * {@link NullPolicy#THROW_JPE}.
+		 */
+		public boolean isChecked() {
+			return this.checked;
+		}
+	}
+	
+	private final Map<Family, NullPolicy> policies;
+	
+	private final NullPolicy registerModulePolicy;
+	
+	private final NullPolicy setConfigPolicy;
+	
+	private final NullPolicy constructTypePolicy;
+	
+	private final NullPolicy treeAsTokensPolicy;
+	
+	private final NullPolicy readParserPolicy;
+	
+	private final NullPolicy readValuesPolicy;
+	
+	private final NullPolicy readValuePolicy;
+	
+	private final NullPolicy readValueStreamPolicy;
+	
+	private final NullPolicy readTreePolicy;
+	
+	private final NullPolicy readTreeStreamPolicy;
+	
+	private final NullPolicy writeValuePolicy;
+	
+	private final NullPolicy writeGeneratorPolicy;
+	
+	private boolean lightweightExceptions;
+	
+	/**
+	 * The executor of asynchronous reads and writes, or {@code null} for the
+	 * {@link AsyncFiles#defaultExecutor() default}.
+	 */
+	private ExecutorService asyncExecutor;
+	
+	/**
+	 * The cache of the strings read by this mapper, or {@code null}.
+	 */
+	private StringCache stringCache;
+	
+	/**
+	 * The resolved types of {@link TypeReference} subclasses, which are
+	 * discarded along with the {@link TypeFactory} they were resolved by.
+	 */
+	private transient TypeReferenceTypes typeReferenceTypes;
+	
+	/**
+	 * Whether the blueprints of the {@link #_serializerProvider} and the
+	 * {@link #_deserializationContext}, and hence their caches, may be shared
+	 * with another mapper (see {@link #derive()}).
+	 */
+	private boolean sharedCaches;
+	
+	/**
+	 * The configurations of this mapper in {@link #setAtomicConfig(boolean)
+	 * atomic mode}, or {@code null}. The {@link #_serializationConfig} and
+	 * {@link #_deserializationConfig} mirror this snapshot for the benefit of
+	 * the base class.
+	 */
+	private volatile ConfigSnapshot configSnapshot;
+	
+	/**
+	 * Constructs an instance with the {@link #legacyPolicies() legacy
+	 * policies} of the 2.9 code base.
+	 */
+	public NullPolicyObjectMapper() {
+		this(null, NullPolicyObjectMapper.legacyPolicies());
+	}
+	
+	/**
+	 * Constructs an instance with the given policies. Families missing from
+	 * the given map apply {@link NullPolicy#THROW_IAE}, i.e. the behavior of
+	 * the 2.10 code base.
+	 * 
+	 * @throws IllegalArgumentException if {@link NullPolicy#THROW_JPE} is
+	 *             given for a family, that is not {@link Family#isChecked()
+	 *             checked}
+	 */
+	public NullPolicyObjectMapper(final Map<Family, NullPolicy> policies) {
+		this(null, policies);
+	}
+	
+	/**
+	 * Constructs an instance with the given {@link JsonFactory} (see
+	 * {@link ObjectMapper#ObjectMapper(JsonFactory)}) and the given policies
+	 * (see {@link #NullPolicyObjectMapper(Map)}).
+	 */
+	public NullPolicyObjectMapper(final JsonFactory factory, final Map<Family, NullPolicy> policies) {
+		super(factory);
+		this._subtypeResolver = new CopyableSubtypeResolver();
+		this._serializationConfig = this._serializationConfig.with(this._subtypeResolver);
+		this._deserializationConfig = this._deserializationConfig.with(this._subtypeResolver);
+		final EnumMap<Family, NullPolicy> effective = new EnumMap<>(Family.class);
+		for (final Family family : Family.values()) {
+			final NullPolicy policy = policies.getOrDefault(family, NullPolicy.THROW_IAE);
+			if (policy == null || policy == NullPolicy.THROW_JPE && !family.isChecked()) {
+				throw new IllegalArgumentException("illegal policy " + policy + " for family " + family);
+			}
+			effective.put(family, policy);
+		}
+		this.policies = Collections.unmodifiableMap(effective);
+		this.registerModulePolicy = effective.get(Family.REGISTER_MODULE);
+		this.setConfigPolicy = effective.get(Family.SET_CONFIG);
+		this.constructTypePolicy = effective.get(Family.CONSTRUCT_TYPE);
+		this.treeAsTokensPolicy = effective.get(Family.TREE_AS_TOKENS);
+		this.readParserPolicy = effective.get(Family.READ_PARSER);
+		this.readValuesPolicy = effective.get(Family.READ_VALUES);
+		this.readValuePolicy = effective.get(Family.READ_VALUE);
+		this.readValueStreamPolicy = effective.get(Family.READ_VALUE_STREAM);
+		this.readTreePolicy = effective.get(Family.READ_TREE);
+		this.readTreeStreamPolicy = effective.get(Family.READ_TREE_STREAM);
+		this.writeValuePolicy = effective.get(Family.WRITE_VALUE);
+		this.writeGeneratorPolicy = effective.get(Family.WRITE_GENERATOR);
+	}
+	
+	/**
+	 * Copy-constructor, used to support {@link #copy()}.
+	 */
+	protected NullPolicyObjectMapper(final NullPolicyObjectMapper src) {
+		super(src);
+		this.policies = src.policies;
+		this.registerModulePolicy = src.registerModulePolicy;
+		this.setConfigPolicy = src.setConfigPolicy;
+		this.constructTypePolicy = src.constructTypePolicy;
+		this.treeAsTokensPolicy = src.treeAsTokensPolicy;
+		this.readParserPolicy = src.readParserPolicy;
+		this.readValuesPolicy = src.readValuesPolicy;
+		this.readValuePolicy = src.readValuePolicy;
+		this.readValueStreamPolicy = src.readValueStreamPolicy;
+		this.readTreePolicy = src.readTreePolicy;
+		this.readTreeStreamPolicy = src.readTreeStreamPolicy;
+		this.writeValuePolicy = src.writeValuePolicy;
+		this.writeGeneratorPolicy = src.writeGeneratorPolicy;
+		this.lightweightExceptions = src.lightweightExceptions;
+		this.asyncExecutor = src.asyncExecutor;
+		this.stringCache = src.stringCache;
+		this.typeReferenceTypes = src.typeReferenceTypes;
+		if (src.configSnapshot != null) {
+			this.configSnapshot = new ConfigSnapshot(this._serializationConfig, this._deserializationConfig);
+		}
+	}
+	
+	/**
+	 * Copy-constructor, used to support {@link #derive()}, that optionally
+	 * shares the caches of (de)serializers with the given mapper. Its
+	 * registered subtypes are copied, unless a custom
+	 * {@link SubtypeResolver} has been set.
+	 */
+	protected NullPolicyObjectMapper(final NullPolicyObjectMapper src, final boolean shareCaches) {
+		this(src);
+		if (shareCaches) {
+			this._serializerProvider = src._serializerProvider;
+			this._deserializationContext = src._deserializationContext;
+			this.sharedCaches = true;
+		}
+		if (src._subtypeResolver instanceof CopyableSubtypeResolver) {
+			this._subtypeResolver = ((CopyableSubtypeResolver) src._subtypeResolver).copy();
+			this._serializationConfig = this._serializationConfig.with(this._subtypeResolver);
+			this._deserializationConfig = this._deserializationConfig.with(this._subtypeResolver);
+			if (this.configSnapshot != null) {
+				this.configSnapshot = new ConfigSnapshot(this._serializationConfig, this._deserializationConfig);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the policies, that reflect the behavior of the 2.9 code base,
+	 * as documented by {@code ObjectMapperNullabilityTest}.
+	 */
+	public static Map<Family, NullPolicy> legacyPolicies() {
+		final Map<Family, NullPolicy> policies = new EnumMap<>(Family.class);
+		for (final Family family : Family.values()) {
+			policies.put(family, family.getLegacyPolicy());
+		}
+		return policies;
+	}
+	
+	/**
+	 * Returns the (unmodifiable) effective policies of this instance.
+	 */
+	public Map<Family, NullPolicy> getPolicies() {
+		return this.policies;
+	}
+	
+	/**
+	 * Returns whether absent input is reported by an
+	 * {@link AbsentInputException} (see
+	 * {@link #setLightweightExceptions(boolean)}).
+	 */
+	public boolean isLightweightExceptions() {
+		return this.lightweightExceptions;
+	}
+	
+	/**
+	 * Sets whether absent input, i.e. a {@code null} input source subject to
+	 * {@link NullPolicy#THROW_JPE} or an input without any content, is
+	 * reported by a lightweight {@link AbsentInputException}, which neither
+	 * fills in its stack trace nor formats its message eagerly, rather than
+	 * by a regular {@link MismatchedInputException}. Disabled by default.
+	 */
+	public NullPolicyObjectMapper setLightweightExceptions(final boolean state) {
+		this.lightweightExceptions = state;
+		return this;
+	}
+	
+	/**
+	 * Returns the executor of the {@code readValueAsync(..)},
+	 * {@code readTreeAsync(..)} and {@code writeValueAsync(..)} methods (see
+	 * {@link #setAsyncExecutor(ExecutorService)}).
+	 */
+	public ExecutorService getAsyncExecutor() {
+		final ExecutorService executor = this.asyncExecutor;
+		return executor != null ? executor : AsyncFiles.defaultExecutor();
+	}
+	
+	/**
+	 * Sets the executor of the {@code readValueAsync(..)},
+	 * {@code readTreeAsync(..)} and {@code writeValueAsync(..)} methods,
+	 * which runs their file I/O, parsing and serialization, or {@code null}
+	 * for the default executor, i.e. a virtual thread per task, if the
+	 * runtime supports virtual threads, or else a bounded pool of daemon
+	 * threads, shared by all mappers.
+	 */
+	public NullPolicyObjectMapper setAsyncExecutor(final ExecutorService executor) {
+		this.asyncExecutor = executor;
+		return this;
+	}
+	
+	/**
+	 * Returns the cache of the strings read by this mapper, or {@code null}
+	 * (see {@link #setStringCache(StringCache)}).
+	 */
+	public StringCache getStringCache() {
+		return this.stringCache;
+	}
+	
+	/**
+	 * Sets the cache of the strings read by this mapper, or {@code null} for
+	 * none, which is the default. The string values read by the methods of
+	 * this mapper, e.g. the texts of
+	 * {@link com.fasterxml.jackson.databind.node.TextNode}s and the
+	 * {@link String} values of an untyped {@link Map}, are looked up in the
+	 * cache, so that equal strings are shared. So are the names of objects,
+	 * e.g. the keys of an untyped {@link Map}, unless the {@link JsonFactory}
+	 * canonicalizes them already (see
+	 * {@link JsonFactory.Feature#CANONICALIZE_FIELD_NAMES}), which it does
+	 * by default.
+	 * <p>
+	 * This covers all {@code readValue(..)}, {@code readTree(..)} and
+	 * {@code readValues(JsonParser, ..)} methods, including those reading
+	 * from a given {@link JsonParser}, as well as {@code readValueAt(..)},
+	 * {@code readTreeAt(..)}, {@code readTreeLazy(..)} (whose names are
+	 * shared by the lazy tree itself), {@code readTreeParallel(..)} and the
+	 * asynchronous, non-blocking and reactive reads. It does not cover
+	 * {@link com.fasterxml.jackson.databind.ObjectReader}s of this mapper,
+	 * nor {@code convertValue(..)}, which reads no JSON text. A copy of this
+	 * mapper shares its cache.
+	 */
+	public NullPolicyObjectMapper setStringCache(final StringCache cache) {
+		this.stringCache = cache;
+		return this;
+	}
+	
+	/**
+	 * Returns a parser, that looks up the strings of the given parser in the
+	 * {@link #setStringCache(StringCache) string cache}, or the given parser,
+	 * if there is no string cache.
+	 */
+	private JsonParser deduplicating(final JsonParser p) {
+		final StringCache cache = this.stringCache;
+		if (cache == null || p instanceof DeduplicatingParser) {
+			return p;
+		}
+		return new DeduplicatingParser(p, cache, !this._jsonFactory.isEnabled(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES));
+	}
+	
+	@Override
+	public NullPolicyObjectMapper copy() {
+		this._checkInvalidCopy(NullPolicyObjectMapper.class);
+		this.checkoutConfig();
+		return new NullPolicyObjectMapper(this);
+	}
+	
+	/**
+	 * Returns a new mapper, that is configured like this one, and shares the
+	 * caches of (de)serializers with it. Unlike a {@link #copy()}, a derived
+	 * mapper thus does not build any (de)serializer, that this mapper (or any
+	 * other mapper derived from it) has built already, which makes it cheap
+	 * to derive short-lived or per-tenant mappers from a fully configured and
+	 * warmed-up template.
+	 * <p>
+	 * The caches are shared copy-on-write: as soon as either mapper is
+	 * reconfigured in a way, that affects how (de)serializers are built (e.g.
+	 * by registering a module or a subtype, adding a mix-in, changing a
+	 * {@link MapperFeature}, or accessing a {@link #configOverride(Class)}),
+	 * or hands out its {@link #getSerializerProvider() serializer provider}
+	 * or {@link #getDeserializationContext() deserialization context}, that
+	 * mapper switches to caches of its own. The derived mapper starts with a
+	 * copy of the registered subtypes, so that registering a subtype with
+	 * either mapper does not affect the other one, unless a custom
+	 * {@link SubtypeResolver} has been set, which is shared. Changing a
+	 * {@link com.fasterxml.jackson.databind.SerializationFeature}, a
+	 * {@link com.fasterxml.jackson.databind.DeserializationFeature}, or a
+	 * parser or generator feature keeps the caches shared, just as the
+	 * {@link com.fasterxml.jackson.databind.ObjectReader}s and
+	 * {@link com.fasterxml.jackson.databind.ObjectWriter}s of a mapper share
+	 * its caches. Note, that 2.10's
+	 * {@code setPolymorphicTypeValidator(PolymorphicTypeValidator)} is not
+	 * covered, since it does not exist in the 2.9 code base.
+	 */
+	public NullPolicyObjectMapper derive() {
+		this._checkInvalidCopy(NullPolicyObjectMapper.class);
+		this.sharedCaches = true;
+		this.checkoutConfig();
+		return new NullPolicyObjectMapper(this, true);
+	}
+	
+	/**
+	 * Returns whether this mapper (still) shares the caches of
+	 * (de)serializers with another mapper (see {@link #derive()}).
+	 */
+	public boolean isSharingCaches() {
+		return this.sharedCaches;
+	}
+	
+	/**
+	 * Switches this mapper to caches of its own, if it shares them with
+	 * another mapper. Root deserializers, that have been cached while sharing,
+	 * are dropped as well.
+	 */
+	private void unshareCaches() {
+		if (this.sharedCaches) {
+			this.sharedCaches = false;
+			this._serializerProvider = this._serializerProvider.copy();
+			this._deserializationContext = this._deserializationContext.copy();
+			this._rootDeserializers.clear();
+		}
+	}
+	
+	/*
+	 * Atomic configuration
+	 */
+	
+	/**
+	 * Returns whether the serialization and deserialization configurations of
+	 * this mapper are held in a single snapshot, that is replaced atomically
+	 * (see {@link #setAtomicConfig(boolean)}).
+	 */
+	public boolean isAtomicConfig() {
+		return this.configSnapshot != null;
+	}
+	
+	/**
+	 * Sets whether the serialization and deserialization configurations of
+	 * this mapper are held in a single immutable {@link ConfigSnapshot}, that
+	 * is replaced by compare-and-set, rather than in two plain fields.
+	 * <p>
+	 * In atomic mode, a reconfiguration is safely published to all threads at
+	 * once, and each call to {@code readValue(..)} or {@code writeValue(..)}
+	 * uses the snapshot, that was current when it started, until it
+	 * completes. Changing a {@link SerializationFeature} or a
+	 * {@link DeserializationFeature} (see also
+	 * {@link #updateConfig(UnaryOperator, UnaryOperator)}) neither flushes
+	 * nor unshares any caches, which allows to flip such features of a mapper
+	 * under load. Any other reconfiguration is published atomically as well,
+	 * but should not race with another reconfiguration. Note, that
+	 * reconfiguration methods of the 2.10 code base, that do not exist in the
+	 * 2.9 code base, are not published until the next reconfiguration.
+	 * <p>
+	 * Accepting a {@code null} configuration (see
+	 * {@link NullPolicy#LENIENT}) leaves atomic mode.
+	 */
+	public NullPolicyObjectMapper setAtomicConfig(final boolean state) {
+		if (state) {
+			NullPolicyObjectMapper.CONFIG_SNAPSHOT.compareAndSet(this, null, new ConfigSnapshot(this._serializationConfig, this._deserializationConfig));
+		} else {
+			this.checkoutConfig();
+			this.configSnapshot = null;
+		}
+		return this;
+	}
+	
+	/**
+	 * Returns the current configurations of this mapper. In atomic mode, the
+	 * returned snapshot may be passed to
+	 * {@link #compareAndSetConfig(ConfigSnapshot, SerializationConfig, DeserializationConfig)}.
+	 */
+	public ConfigSnapshot getConfigSnapshot() {
+		final ConfigSnapshot snapshot = this.configSnapshot;
+		return snapshot != null ? snapshot : new ConfigSnapshot(this._serializationConfig, this._deserializationConfig);
+	}
+	
+	/**
+	 * Replaces the configurations of this mapper by the given ones, if (and
+	 * only if) the current snapshot is the expected one.
+	 * 
+	 * @return whether the configurations have been replaced
+	 * @throws IllegalStateException if this mapper is not in
+	 *             {@link #setAtomicConfig(boolean) atomic mode}
+	 */
+	public boolean compareAndSetConfig(final ConfigSnapshot expected, final SerializationConfig serializationConfig,
+			final DeserializationConfig deserializationConfig) {
+		if (serializationConfig == null || deserializationConfig == null) {
+			throw new IllegalArgumentException("config is null");
+		}
+		if (this.configSnapshot == null) {
+			throw new IllegalStateException("atomic configuration is disabled");
+		}
+		if (!NullPolicyObjectMapper.CONFIG_SNAPSHOT.compareAndSet(this, expected, new ConfigSnapshot(serializationConfig, deserializationConfig))) {
+			return false;
+		}
+		this.checkoutConfig();
+		return true;
+	}
+	
+	/**
+	 * Applies the given functions to the current configurations of this
+	 * mapper, and returns the resulting snapshot. In
+	 * {@link #setAtomicConfig(boolean) atomic mode}, the functions are
+	 * re-applied until the resulting snapshot replaces the current one
+	 * without interference, and thus must be free of side effects.
+	 * 
+	 * @param serializationUpdate the function to apply to the serialization
+	 *            configuration, or {@code null} to retain it
+	 * @param deserializationUpdate the function to apply to the
+	 *            deserialization configuration, or {@code null} to retain it
+	 */
+	public ConfigSnapshot updateConfig(final UnaryOperator<SerializationConfig> serializationUpdate,
+			final UnaryOperator<DeserializationConfig> deserializationUpdate) {
+		ConfigSnapshot current = this.configSnapshot;
+		if (current == null) {
+			if (serializationUpdate != null) {
+				this._serializationConfig = serializationUpdate.apply(this._serializationConfig);
+			}
+			if (deserializationUpdate != null) {
+				this._deserializationConfig = deserializationUpdate.apply(this._deserializationConfig);
+			}
+			return new ConfigSnapshot(this._serializationConfig, this._deserializationConfig);
+		}
+		while (true) {
+			final ConfigSnapshot next = new ConfigSnapshot(
+					serializationUpdate != null ? serializationUpdate.apply(current.serializationConfig) : current.serializationConfig,
+					deserializationUpdate != null ? deserializationUpdate.apply(current.deserializationConfig) : current.deserializationConfig);
+			if (NullPolicyObjectMapper.CONFIG_SNAPSHOT.compareAndSet(this, current, next)) {
+				this.checkoutConfig();
+				return next;
+			}
+			current = this.configSnapshot;
+			if (current == null) {
+				return this.updateConfig(serializationUpdate, deserializationUpdate);
+			}
+		}
+	}
+	
+	/**
+	 * Mirrors the current snapshot (if any) into the fields of the base class,
+	 * before they are read or reconfigured.
+	 */
+	private void checkoutConfig() {
+		final ConfigSnapshot snapshot = this.configSnapshot;
+		if (snapshot != null) {
+			this._serializationConfig = snapshot.serializationConfig;
+			this._deserializationConfig = snapshot.deserializationConfig;
+		}
+	}
+	
+	/**
+	 * Publishes the (reconfigured) fields of the base class as the current
+	 * snapshot in atomic mode.
+	 */
+	private ObjectMapper commitConfig() {
+		if (this.configSnapshot != null) {
+			this.configSnapshot = new ConfigSnapshot(this._serializationConfig, this._deserializationConfig);
+		}
+		return this;
+	}
+	
+	@Override
+	public SerializationConfig getSerializationConfig() {
+		final ConfigSnapshot snapshot = this.configSnapshot;
+		return snapshot != null ? snapshot.serializationConfig : this._serializationConfig;
+	}
+	
+	@Override
+	public DeserializationConfig getDeserializationConfig() {
+		final ConfigSnapshot snapshot = this.configSnapshot;
+		return snapshot != null ? snapshot.deserializationConfig : this._deserializationConfig;
+	}
+	
+	@Override
+	public boolean isEnabled(final MapperFeature f) {
+		return this.getSerializationConfig().isEnabled(f);
+	}
+	
+	@Override
+	public boolean isEnabled(final SerializationFeature f) {
+		return this.getSerializationConfig().isEnabled(f);
+	}
+	
+	@Override
+	public boolean isEnabled(final DeserializationFeature f) {
+		return this.getDeserializationConfig().isEnabled(f);
+	}
+	
+	@Override
+	public boolean isEnabled(final JsonParser.Feature f) {
+		return this.getDeserializationConfig().isEnabled(f, this._jsonFactory);
+	}
+	
+	@Override
+	public boolean isEnabled(final JsonGenerator.Feature f) {
+		return this.getSerializationConfig().isEnabled(f, this._jsonFactory);
+	}
+	
+	@Override
+	public JsonNodeFactory getNodeFactory() {
+		return this.getDeserializationConfig().getNodeFactory();
+	}
+	
+	@Override
+	public DateFormat getDateFormat() {
+		return this.getSerializationConfig().getDateFormat();
+	}
+	
+	@Override
+	public ObjectMapper configure(final SerializationFeature f, final boolean state) {
+		this.updateConfig(cfg -> state ? cfg.with(f) : cfg.without(f), null);
+		return this;
+	}
+	
+	@Override
+	public ObjectMapper enable(final SerializationFeature f) {
+		this.updateConfig(cfg -> cfg.with(f), null);
+		return this;
+	}
+	
+	@Override
+	public ObjectMapper enable(final SerializationFeature first, final SerializationFeature... f) {
+		this.updateConfig(cfg -> cfg.with(first, f), null);
+		return this;
+	}
+	
+	@Override
+	public ObjectMapper disable(final SerializationFeature f) {
+		this.updateConfig(cfg -> cfg.without(f), null);
+		return this;
+	}
+	
+	@Override
+	public ObjectMapper disable(final SerializationFeature first, final SerializationFeature... f) {
+		this.updateConfig(cfg -> cfg.without(first, f), null);
+		return this;
+	}
+	
+	@Override
+	public ObjectMapper configure(final DeserializationFeature f, final boolean state) {
+		this.updateConfig(null, cfg -> state ? cfg.with(f) : cfg.without(f));
+		return this;
+	}
+	
+	@Override
+	public ObjectMapper enable(final DeserializationFeature feature) {
+		this.updateConfig(null, cfg -> cfg.with(feature));
+		return this;
+	}
+	
+	@Override
+	public ObjectMapper enable(final DeserializationFeature first, final DeserializationFeature... f) {
+		this.updateConfig(null, cfg -> cfg.with(first, f));
+		return this;
+	}
+	
+	@Override
+	public ObjectMapper disable(final DeserializationFeature feature) {
+		this.updateConfig(null, cfg -> cfg.without(feature));
+		return this;
+	}
+	
+	@Override
+	public ObjectMapper disable(final DeserializationFeature first, final DeserializationFeature... f) {
+		this.updateConfig(null, cfg -> cfg.without(first, f));
+		return this;
+	}
+	
+	@Override
+	public ObjectMapper setDateFormat(final DateFormat dateFormat) {
+		this.checkoutConfig();
+		super.setDateFormat(dateFormat);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setLocale(final Locale l) {
+		this.checkoutConfig();
+		super.setLocale(l);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setTimeZone(final TimeZone tz) {
+		this.checkoutConfig();
+		super.setTimeZone(tz);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setBase64Variant(final Base64Variant v) {
+		this.checkoutConfig();
+		super.setBase64Variant(v);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setNodeFactory(final JsonNodeFactory f) {
+		this.checkoutConfig();
+		super.setNodeFactory(f);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper addHandler(final DeserializationProblemHandler h) {
+		this.checkoutConfig();
+		super.addHandler(h);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper clearProblemHandlers() {
+		this.checkoutConfig();
+		super.clearProblemHandlers();
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setFilterProvider(final FilterProvider filterProvider) {
+		this.checkoutConfig();
+		super.setFilterProvider(filterProvider);
+		return this.commitConfig();
+	}
+	
+	@Override
+	@Deprecated
+	public void setFilters(final FilterProvider filterProvider) {
+		this.setFilterProvider(filterProvider);
+	}
+	
+	@Override
+	public ObjectMapper setDefaultPrettyPrinter(final PrettyPrinter pp) {
+		this.checkoutConfig();
+		super.setDefaultPrettyPrinter(pp);
+		return this.commitConfig();
+	}
+	
+	/*
+	 * Handling of null references, off the hot path
+	 */
+	
+	/**
+	 * Applies the given policy to a {@code null} argument of a method, that
+	 * may throw a {@link JsonProcessingException}, and returns the lenient
+	 * result, i.e. {@code null}.
+	 */
+	private <T> T nullArgument(final NullPolicy policy, final String name, final boolean write) throws JsonMappingException {
+		switch (policy) {
+		case THROW_JPE:
+			if (write) {
+				throw JsonMappingException.from((JsonGenerator) null, "No target to write to: argument \"" + name + "\" is null");
+			}
+			if (this.lightweightExceptions) {
+				throw new AbsentInputException(null, null, name);
+			}
+			throw MismatchedInputException.from((JsonParser) null, (JavaType) null, "No content to map: argument \"" + name + "\" is null");
+		default:
+			return NullPolicyObjectMapper.nullArgument(policy, name);
+		}
+	}
+	
+	/**
+	 * Applies the given policy to a {@code null} argument of a method, that
+	 * must not throw a checked exception, and returns the lenient result, i.e.
+	 * {@code null}.
+	 */
+	private static <T> T nullArgument(final NullPolicy policy, final String name) {
+		switch (policy) {
+		case THROW_NPE:
+			throw new NullPointerException("argument \"" + name + "\" is null");
+		case THROW_IAE:
+			throw new IllegalArgumentException("argument \"" + name + "\" is null");
+		default:
+			return null;
+		}
+	}
+	
+	/**
+	 * Replaces the end-of-input {@link MismatchedInputException} by an
+	 * {@link AbsentInputException} in lightweight mode.
+	 */
+	@Override
+	protected JsonToken _initForReading(final JsonParser p, final JavaType targetType) throws IOException {
+		return this.initForReading(this.getDeserializationConfig(), p, targetType);
+	}
+	
+	/**
+	 * Like {@link #_initForReading(JsonParser, JavaType)}, but initializes the
+	 * parser with the given configuration.
+	 */
+	private JsonToken initForReading(final DeserializationConfig cfg, final JsonParser p, final JavaType targetType) throws IOException {
+		cfg.initialize(p);
+		JsonToken t = p.getCurrentToken();
+		if (t == null) {
+			t = p.nextToken();
+			if (t == null) {
+				if (this.lightweightExceptions) {
+					throw new AbsentInputException(p, targetType);
+				}
+				throw MismatchedInputException.from(p, targetType, "No content to map due to end-of-input");
+			}
+		}
+		return t;
+	}
+	
+	/**
+	 * Reads a value with a single configuration snapshot in atomic mode, which
+	 * the base class would look up twice.
+	 */
+	@Override
+	protected Object _readMapAndClose(final JsonParser p0, final JavaType valueType) throws IOException {
+		if (this.configSnapshot == null) {
+			return super._readMapAndClose(this.deduplicating(p0), valueType);
+		}
+		try (JsonParser p = this.deduplicating(p0)) {
+			return this.readMap(this.getDeserializationConfig(), p, valueType);
+		}
+	}
+	
+	/**
+	 * Reads a tree, whose strings are looked up in the
+	 * {@link #setStringCache(StringCache) string cache}, if there is one.
+	 */
+	@Override
+	protected JsonNode _readTreeAndClose(final JsonParser p0) throws IOException {
+		return super._readTreeAndClose(this.deduplicating(p0));
+	}
+	
+	/**
+	 * Reads a value like {@link #_readMapAndClose(JsonParser, JavaType)}, but
+	 * with the given configuration, and without closing the parser.
+	 */
+	private Object readMap(final DeserializationConfig cfg, final JsonParser p, final JavaType valueType) throws IOException {
+		final JsonToken t = this.initForReading(cfg, p, valueType);
+		final DeserializationContext ctxt = this.createDeserializationContext(p, cfg);
+		final Object result;
+		if (t == JsonToken.VALUE_NULL) {
+			result = this._findRootDeserializer(ctxt, valueType).getNullValue(ctxt);
+		} else if (t == JsonToken.END_ARRAY || t == JsonToken.END_OBJECT) {
+			result = null;
+		} else {
+			final JsonDeserializer<Object> deser = this._findRootDeserializer(ctxt, valueType);
+			if (cfg.useRootWrapping()) {
+				result = this._unwrapAndDeserialize(p, ctxt, cfg, valueType, deser);
+			} else {
+				result = deser.deserialize(p, ctxt);
+			}
+			ctxt.checkUnresolvedObjectId();
+		}
+		if (cfg.isEnabled(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)) {
+			this._verifyNoTrailingTokens(p, ctxt, valueType);
+		}
+		return result;
+	}
+	
+	/*
+	 * Module registration
+	 */
+	
+	@Override
+	public ObjectMapper registerModule(final Module module) {
+		if (module == null) {
+			NullPolicyObjectMapper.nullArgument(this.registerModulePolicy, "module");
+			return this;
+		}
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.registerModule(module);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper registerModules(final Module... modules) {
+		if (modules == null) {
+			NullPolicyObjectMapper.nullArgument(this.registerModulePolicy, "modules");
+			return this;
+		}
+		return this.registerModuleBatch(Arrays.asList(modules));
+	}
+	
+	@Override
+	public ObjectMapper registerModules(final Iterable<? extends Module> modules) {
+		if (modules == null) {
+			NullPolicyObjectMapper.nullArgument(this.registerModulePolicy, "modules");
+			return this;
+		}
+		return this.registerModuleBatch(modules);
+	}
+	
+	/**
+	 * Registers the given modules in a single batch (see {@link ModuleBatch}),
+	 * with the same outcome as registering them one after another, but with
+	 * a single replacement of the {@link TypeFactory}.
+	 */
+	private ObjectMapper registerModuleBatch(final Iterable<? extends Module> modules) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		final ModuleBatch batch = new ModuleBatch();
+		try {
+			for (final Module module : modules) {
+				batch.register(module);
+			}
+		} finally {
+			batch.apply();
+			this.commitConfig();
+		}
+		return this;
+	}
+	
+	private static Method getDependenciesMethod() {
+		try {
+			return Module.class.getMethod("getDependencies");
+		} catch (final NoSuchMethodException exception) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Returns the dependencies of the given module on the 2.10 code base, or
+	 * none on the 2.9 code base.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Iterable<? extends Module> dependencies(final Module module) {
+		if (NullPolicyObjectMapper.GET_DEPENDENCIES == null) {
+			return Collections.emptyList();
+		}
+		try {
+			return (Iterable<? extends Module>) NullPolicyObjectMapper.GET_DEPENDENCIES.invoke(module);
+		} catch (final InvocationTargetException exception) {
+			if (exception.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) exception.getCause();
+			}
+			if (exception.getCause() instanceof Error) {
+				throw (Error) exception.getCause();
+			}
+			throw new IllegalStateException(exception.getCause());
+		} catch (final IllegalAccessException exception) {
+			throw new IllegalStateException(exception);
+		}
+	}
+	
+	/*
+	 * Configuration and types
+	 */
+	
+	@Override
+	public ObjectMapper setConfig(final DeserializationConfig config) {
+		if (config == null) {
+			NullPolicyObjectMapper.nullArgument(this.setConfigPolicy, "config");
+			this.setAtomicConfig(false);
+			this._deserializationConfig = null;
+			return this;
+		}
+		this.unshareCaches();
+		if (this.configSnapshot == null) {
+			return super.setConfig(config);
+		}
+		this.updateConfig(null, cfg -> config);
+		return this;
+	}
+	
+	@Override
+	public ObjectMapper setConfig(final SerializationConfig config) {
+		if (config == null) {
+			NullPolicyObjectMapper.nullArgument(this.setConfigPolicy, "config");
+			this.setAtomicConfig(false);
+			this._serializationConfig = null;
+			return this;
+		}
+		this.unshareCaches();
+		if (this.configSnapshot == null) {
+			return super.setConfig(config);
+		}
+		this.updateConfig(cfg -> config, null);
+		return this;
+	}
+	
+	@Override
+	public JavaType constructType(final Type type) {
+		if (type == null) {
+			return NullPolicyObjectMapper.nullArgument(this.constructTypePolicy, "t");
+		}
+		return super.constructType(type);
+	}
+	
+	/**
+	 * Returns the {@link JavaType} of the given type reference. The type is
+	 * resolved only once per anonymous {@link TypeReference} subclass (see
+	 * {@link #resolveType(TypeReference)}).
+	 */
+	public JavaType constructType(final TypeReference<?> typeRef) {
+		if (typeRef == null) {
+			return NullPolicyObjectMapper.nullArgument(this.constructTypePolicy, "typeRef");
+		}
+		return this.resolveType(typeRef);
+	}
+	
+	/**
+	 * Resolves the given type reference, which is used by all methods taking a
+	 * {@link TypeReference}. A type reference is almost always an instance of
+	 * an anonymous, direct subclass of {@link TypeReference}, whose type
+	 * argument (and hence its type) is fixed by its class. The resolved type of
+	 * such a subclass is memoized in a {@link ClassValue}, so that repeated
+	 * calls skip both the reflection over its generic superclass and the cache
+	 * lookup in the {@link TypeFactory}. Any other type reference is resolved
+	 * by the {@link TypeFactory} as usual.
+	 */
+	private JavaType resolveType(final TypeReference<?> typeRef) {
+		final Class<?> type = typeRef.getClass();
+		if (type.getSuperclass() != TypeReference.class) {
+			return this._typeFactory.constructType(typeRef);
+		}
+		TypeReferenceTypes types = this.typeReferenceTypes;
+		if (types == null || types.typeFactory != this._typeFactory) {
+			types = new TypeReferenceTypes(this._typeFactory);
+			this.typeReferenceTypes = types;
+		}
+		return types.get(type);
+	}
+	
+	@Override
+	public JsonParser treeAsTokens(final TreeNode n) {
+		if (n == null) {
+			return NullPolicyObjectMapper.nullArgument(this.treeAsTokensPolicy, "n");
+		}
+		return super.treeAsTokens(n);
+	}
+	
+	/*
+	 * Configuration affecting the construction of (de)serializers
+	 */
+	
+	@Override
+	public ObjectMapper setSerializerFactory(final SerializerFactory f) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setSerializerFactory(f);
+		return this.commitConfig();
+	}
+	
+	/**
+	 * Returns the serializer provider, after switching to caches of its own,
+	 * if this mapper shares them with another mapper (see {@link #derive()}),
+	 * since the provider may be reconfigured in place.
+	 */
+	@Override
+	public SerializerProvider getSerializerProvider() {
+		this.unshareCaches();
+		return super.getSerializerProvider();
+	}
+	
+	/**
+	 * Returns the deserialization context, after switching to caches of its
+	 * own, if this mapper shares them with another mapper (see
+	 * {@link #derive()}).
+	 */
+	@Override
+	public DeserializationContext getDeserializationContext() {
+		this.unshareCaches();
+		return super.getDeserializationContext();
+	}
+	
+	@Override
+	public ObjectMapper setSerializerProvider(final DefaultSerializerProvider p) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setSerializerProvider(p);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setMixIns(final Map<Class<?>, Class<?>> sourceMixins) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setMixIns(sourceMixins);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper addMixIn(final Class<?> target, final Class<?> mixinSource) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.addMixIn(target, mixinSource);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setMixInResolver(final ClassIntrospector.MixInResolver resolver) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setMixInResolver(resolver);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setVisibility(final VisibilityChecker<?> vc) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setVisibility(vc);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setVisibility(final PropertyAccessor forMethod, final JsonAutoDetect.Visibility visibility) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setVisibility(forMethod, visibility);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setSubtypeResolver(final SubtypeResolver str) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setSubtypeResolver(str);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public void registerSubtypes(final Class<?>... classes) {
+		this.unshareCaches();
+		super.registerSubtypes(classes);
+	}
+	
+	@Override
+	public void registerSubtypes(final NamedType... types) {
+		this.unshareCaches();
+		super.registerSubtypes(types);
+	}
+	
+	@Override
+	public void registerSubtypes(final Collection<Class<?>> subtypes) {
+		this.unshareCaches();
+		super.registerSubtypes(subtypes);
+	}
+	
+	@Override
+	public MutableConfigOverride configOverride(final Class<?> type) {
+		this.unshareCaches();
+		return super.configOverride(type);
+	}
+	
+	@Override
+	public ObjectMapper setAnnotationIntrospector(final AnnotationIntrospector ai) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setAnnotationIntrospector(ai);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setAnnotationIntrospectors(final AnnotationIntrospector serializerAI, final AnnotationIntrospector deserializerAI) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setAnnotationIntrospectors(serializerAI, deserializerAI);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setPropertyNamingStrategy(final PropertyNamingStrategy s) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setPropertyNamingStrategy(s);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setSerializationInclusion(final JsonInclude.Include incl) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setSerializationInclusion(incl);
+		return this.commitConfig();
+	}
+	
+	@Override
+	@Deprecated
+	public ObjectMapper setPropertyInclusion(final JsonInclude.Value incl) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setPropertyInclusion(incl);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setDefaultPropertyInclusion(final JsonInclude.Value incl) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setDefaultPropertyInclusion(incl);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setDefaultPropertyInclusion(final JsonInclude.Include incl) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setDefaultPropertyInclusion(incl);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setDefaultSetterInfo(final JsonSetter.Value v) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setDefaultSetterInfo(v);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setDefaultVisibility(final JsonAutoDetect.Value vis) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setDefaultVisibility(vis);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setDefaultMergeable(final Boolean b) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setDefaultMergeable(b);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setDefaultTyping(final TypeResolverBuilder<?> typer) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setDefaultTyping(typer);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper setTypeFactory(final TypeFactory f) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setTypeFactory(f);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public Object setHandlerInstantiator(final HandlerInstantiator hi) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.setHandlerInstantiator(hi);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper configure(final MapperFeature f, final boolean state) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.configure(f, state);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper enable(final MapperFeature... f) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.enable(f);
+		return this.commitConfig();
+	}
+	
+	@Override
+	public ObjectMapper disable(final MapperFeature... f) {
+		this.unshareCaches();
+		this.checkoutConfig();
+		super.disable(f);
+		return this.commitConfig();
+	}
+	
+	/*
+	 * Reading from a JsonParser
+	 */
+	
+	@Override
+	public <T> T readValue(final JsonParser p, final Class<T> valueType) throws IOException {
+		if (p == null) {
+			return this.nullArgument(this.readParserPolicy, "p", false);
+		}
+		return super.readValue(p, valueType);
+	}
+	
+	@Override
+	public <T> T readValue(final JsonParser p, final TypeReference<?> valueTypeRef) throws IOException {
+		if (p == null) {
+			return this.nullArgument(this.readParserPolicy, "p", false);
+		}
+		return super.readValue(p, this.resolveType(valueTypeRef));
+	}
+	
+	@Override
+	public <T> T readValue(final JsonParser p, final JavaType valueType) throws IOException {
+		if (p == null) {
+			return this.nullArgument(this.readParserPolicy, "p", false);
+		}
+		return super.readValue(p, valueType);
+	}
+	
+	/**
+	 * Reads a value from the given parser, whose strings are looked up in the
+	 * {@link #setStringCache(StringCache) string cache}, if there is one.
+	 */
+	@Override
+	protected Object _readValue(final DeserializationConfig cfg, final JsonParser p0, final JavaType valueType) throws IOException {
+		if (p0 == null) {
+			// only reached through the final readValue(JsonParser, ResolvedType)
+			return this.nullArgument(this.readParserPolicy, "p", false);
+		}
+		final JsonParser p = this.deduplicating(p0);
+		if (this.configSnapshot == null) {
+			return super._readValue(cfg, p, valueType);
+		}
+		// the base class would initialize the parser with the current snapshot
+		final JsonToken t = this.initForReading(cfg, p, valueType);
+		final DeserializationContext ctxt = this.createDeserializationContext(p, cfg);
+		final Object result;
+		if (t == JsonToken.VALUE_NULL) {
+			result = this._findRootDeserializer(ctxt, valueType).getNullValue(ctxt);
+		} else if (t == JsonToken.END_ARRAY || t == JsonToken.END_OBJECT) {
+			result = null;
+		} else {
+			final JsonDeserializer<Object> deser = this._findRootDeserializer(ctxt, valueType);
+			if (cfg.useRootWrapping()) {
+				result = this._unwrapAndDeserialize(p, ctxt, cfg, valueType, deser);
+			} else {
+				result = deser.deserialize(p, ctxt);
+			}
+		}
+		p.clearCurrentToken();
+		if (cfg.isEnabled(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)) {
+			this._verifyNoTrailingTokens(p, ctxt, valueType);
+		}
+		return result;
+	}
+	
+	@Override
+	public <T extends TreeNode> T readTree(final JsonParser p) throws IOException {
+		if (p == null) {
+			return this.nullArgument(this.readParserPolicy, "p", false);
+		}
+		return super.readTree(p);
+	}
+	
+	@Override
+	public <T> MappingIterator<T> readValues(final JsonParser p, final ResolvedType valueType) throws IOException {
+		if (p == null) {
+			return this.nullValues();
+		}
+		return super.readValues(this.deduplicating(p), valueType);
+	}
+	
+	@Override
+	public <T> MappingIterator<T> readValues(final JsonParser p, final JavaType valueType) throws IOException {
+		if (p == null) {
+			return this.nullValues();
+		}
+		return super.readValues(this.deduplicating(p), valueType);
+	}
+	
+	@Override
+	public <T> MappingIterator<T> readValues(final JsonParser p, final Class<T> valueType) throws IOException {
+		if (p == null) {
+			return this.nullValues();
+		}
+		return super.readValues(this.deduplicating(p), valueType);
+	}
+	
+	@Override
+	public <T> MappingIterator<T> readValues(final JsonParser p, final TypeReference<?> valueTypeRef) throws IOException {
+		if (p == null) {
+			return this.nullValues();
+		}
+		return super.readValues(this.deduplicating(p), this.resolveType(valueTypeRef));
+	}
+	
+	@SuppressWarnings("unchecked")
+	private <T> MappingIterator<T> nullValues() throws JsonMappingException {
+		this.nullArgument(this.readValuesPolicy, "p", false);
+		return (MappingIterator<T>) NullPolicyObjectMapper.EMPTY_ITERATOR;
+	}
+	
+	/*
+	 * Reading trees
+	 */
+	
+	@Override
+	public JsonNode readTree(final InputStream in) throws IOException {
+		if (in == null) {
+			return this.nullArgument(this.readTreeStreamPolicy, "in", false);
+		}
+		return super.readTree(in);
+	}
+	
+	@Override
+	public JsonNode readTree(final Reader r) throws IOException {
+		if (r == null) {
+			return this.nullArgument(this.readTreeStreamPolicy, "r", false);
+		}
+		return super.readTree(r);
+	}
+	
+	@Override
+	public JsonNode readTree(final String content) throws IOException {
+		if (content == null) {
+			return this.nullArgument(this.readTreePolicy, "content", false);
+		}
+		return super.readTree(content);
+	}
+	
+	@Override
+	public JsonNode readTree(final byte[] content) throws IOException {
+		if (content == null) {
+			return this.nullArgument(this.readTreePolicy, "content", false);
+		}
+		return super.readTree(content);
+	}
+	
+	/**
+	 * Reads a tree from the given file, reading a small file in one go, and
+	 * mapping a large file into memory (see {@link FileSource}).
+	 */
+	@Override
+	public JsonNode readTree(final File file) throws IOException {
+		if (file == null) {
+			return this.nullArgument(this.readTreePolicy, "file", false);
+		}
+		try (FileSource source = FileSource.open(file)) {
+			return this._readTreeAndClose(source.createParser(this._jsonFactory));
+		}
+	}
+	
+	/**
+	 * Reads a tree from the given URL, reading a {@code file:} URL like a
+	 * {@link File}, and a {@code jar:file:} URL from a cached zip file (see
+	 * {@link UrlSource}).
+	 */
+	@Override
+	public JsonNode readTree(final URL source) throws IOException {
+		if (source == null) {
+			return this.nullArgument(this.readTreePolicy, "source", false);
+		}
+		final File file = UrlSource.file(source);
+		if (file != null) {
+			return this.readTree(file);
+		}
+		return this._readTreeAndClose(UrlSource.createParser(this._jsonFactory, source));
+	}
+	
+	/**
+	 * Reads a tree from the remaining content of the given buffer, like
+	 * {@link #readTree(byte[])}, without changing the buffer's position (see
+	 * {@link #createParser(ByteBuffer)}).
+	 */
+	public JsonNode readTree(final ByteBuffer content) throws IOException {
+		if (content == null) {
+			return this.nullArgument(this.readTreePolicy, "content", false);
+		}
+		return this._readTreeAndClose(this.createParser(content));
+	}
+	
+	/**
+	 * Reads a tree from the given channel, like {@link #readTree(InputStream)}
+	 * (see {@link ChannelInput}).
+	 */
+	public JsonNode readTree(final ReadableByteChannel in) throws IOException {
+		if (in == null) {
+			return this.nullArgument(this.readTreeStreamPolicy, "in", false);
+		}
+		return this._readTreeAndClose(this._jsonFactory.createParser(new ChannelInput(in)));
+	}
+	
+	/*
+	 * Writing to a JsonGenerator
+	 */
+	
+	@Override
+	public void writeValue(final JsonGenerator g, final Object value) throws IOException {
+		if (g == null) {
+			this.nullArgument(this.writeGeneratorPolicy, "g", true);
+			return;
+		}
+		super.writeValue(g, value);
+	}
+	
+	@Override
+	public void writeTree(final JsonGenerator g, final TreeNode rootNode) throws IOException {
+		if (g == null) {
+			this.nullArgument(this.writeGeneratorPolicy, "g", true);
+			return;
+		}
+		super.writeTree(g, rootNode);
+	}
+	
+	@Override
+	public void writeTree(final JsonGenerator g, final JsonNode rootNode) throws IOException {
+		if (g == null) {
+			this.nullArgument(this.writeGeneratorPolicy, "g", true);
+			return;
+		}
+		super.writeTree(g, rootNode);
+	}
+	
+	/*
+	 * Reading values
+	 */
+	
+	@Override
+	public <T> T readValue(final File src, final Class<T> valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValuePolicy, "src", false);
+		}
+		return this.readValue(src, this._typeFactory.constructType(valueType));
+	}
+	
+	@Override
+	@SuppressWarnings("rawtypes")
+	public <T> T readValue(final File src, final TypeReference valueTypeRef) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValuePolicy, "src", false);
+		}
+		return this.readValue(src, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Reads a value from the given file, reading a small file in one go, and
+	 * mapping a large file into memory (see {@link FileSource}).
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T readValue(final File src, final JavaType valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValuePolicy, "src", false);
+		}
+		try (FileSource source = FileSource.open(src)) {
+			return (T) this._readMapAndClose(source.createParser(this._jsonFactory), valueType);
+		}
+	}
+	
+	@Override
+	public <T> T readValue(final URL src, final Class<T> valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValuePolicy, "src", false);
+		}
+		return this.readValue(src, this._typeFactory.constructType(valueType));
+	}
+	
+	@Override
+	@SuppressWarnings("rawtypes")
+	public <T> T readValue(final URL src, final TypeReference valueTypeRef) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValuePolicy, "src", false);
+		}
+		return this.readValue(src, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Reads a value from the given URL, reading a {@code file:} URL like a
+	 * {@link File}, and a {@code jar:file:} URL from a cached zip file (see
+	 * {@link UrlSource}).
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T readValue(final URL src, final JavaType valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValuePolicy, "src", false);
+		}
+		final File file = UrlSource.file(src);
+		if (file != null) {
+			return this.readValue(file, valueType);
+		}
+		return (T) this._readMapAndClose(UrlSource.createParser(this._jsonFactory, src), valueType);
+	}
+	
+	@Override
+	public <T> T readValue(final String content, final Class<T> valueType) throws IOException {
+		if (content == null) {
+			return this.nullArgument(this.readValuePolicy, "content", false);
+		}
+		return super.readValue(content, valueType);
+	}
+	
+	@Override
+	@SuppressWarnings("rawtypes")
+	public <T> T readValue(final String content, final TypeReference valueTypeRef) throws IOException {
+		if (content == null) {
+			return this.nullArgument(this.readValuePolicy, "content", false);
+		}
+		return super.readValue(content, this.resolveType(valueTypeRef));
+	}
+	
+	@Override
+	public <T> T readValue(final String content, final JavaType valueType) throws IOException {
+		if (content == null) {
+			return this.nullArgument(this.readValuePolicy, "content", false);
+		}
+		return super.readValue(content, valueType);
+	}
+	
+	@Override
+	public <T> T readValue(final Reader src, final Class<T> valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValueStreamPolicy, "src", false);
+		}
+		return super.readValue(src, valueType);
+	}
+	
+	@Override
+	@SuppressWarnings("rawtypes")
+	public <T> T readValue(final Reader src, final TypeReference valueTypeRef) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValueStreamPolicy, "src", false);
+		}
+		return super.readValue(src, this.resolveType(valueTypeRef));
+	}
+	
+	@Override
+	public <T> T readValue(final Reader src, final JavaType valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValueStreamPolicy, "src", false);
+		}
+		return super.readValue(src, valueType);
+	}
+	
+	@Override
+	public <T> T readValue(final InputStream src, final Class<T> valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValueStreamPolicy, "src", false);
+		}
+		return super.readValue(src, valueType);
+	}
+	
+	@Override
+	@SuppressWarnings("rawtypes")
+	public <T> T readValue(final InputStream src, final TypeReference valueTypeRef) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValueStreamPolicy, "src", false);
+		}
+		return super.readValue(src, this.resolveType(valueTypeRef));
+	}
+	
+	@Override
+	public <T> T readValue(final InputStream src, final JavaType valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValueStreamPolicy, "src", false);
+		}
+		return super.readValue(src, valueType);
+	}
+	
+	@Override
+	public <T> T readValue(final byte[] src, final Class<T> valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValuePolicy, "src", false);
+		}
+		return super.readValue(src, valueType);
+	}
+	
+	@Override
+	public <T> T readValue(final byte[] src, final int offset, final int len, final Class<T> valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValueStreamPolicy, "src", false);
+		}
+		return super.readValue(src, offset, len, valueType);
+	}
+	
+	@Override
+	@SuppressWarnings("rawtypes")
+	public <T> T readValue(final byte[] src, final TypeReference valueTypeRef) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValuePolicy, "src", false);
+		}
+		return super.readValue(src, this.resolveType(valueTypeRef));
+	}
+	
+	@Override
+	@SuppressWarnings("rawtypes")
+	public <T> T readValue(final byte[] src, final int offset, final int len, final TypeReference valueTypeRef) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValueStreamPolicy, "src", false);
+		}
+		return super.readValue(src, offset, len, this.resolveType(valueTypeRef));
+	}
+	
+	@Override
+	public <T> T readValue(final byte[] src, final JavaType valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValuePolicy, "src", false);
+		}
+		return super.readValue(src, valueType);
+	}
+	
+	@Override
+	public <T> T readValue(final byte[] src, final int offset, final int len, final JavaType valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValueStreamPolicy, "src", false);
+		}
+		return super.readValue(src, offset, len, valueType);
+	}
+	
+	@Override
+	public <T> T readValue(final DataInput src, final Class<T> valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValuePolicy, "src", false);
+		}
+		final BulkDataInput in = this.bulkDataInput(src);
+		if (in == null) {
+			return super.readValue(src, valueType);
+		}
+		return this.readValue(in, this._typeFactory.constructType(valueType), false);
+	}
+	
+	/**
+	 * Reads a value from the given data input, like
+	 * {@link #readValue(DataInput, JavaType)}. This overload is missing from
+	 * the 2.9 and the 2.10 code base.
+	 */
+	public <T> T readValue(final DataInput src, final TypeReference<T> valueTypeRef) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValuePolicy, "src", false);
+		}
+		return this.readValue(src, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Reads a value from the given data input. If the data input is a
+	 * {@link java.io.RandomAccessFile}, or an {@link InputStream}, that
+	 * supports marks (e.g. a {@link java.io.DataInputStream} of a
+	 * {@link java.io.BufferedInputStream}), it is read in bulk, rather than
+	 * one byte at a time, and repositioned to the end of the value afterwards
+	 * (see {@link BulkDataInput}).
+	 */
+	@Override
+	public <T> T readValue(final DataInput src, final JavaType valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValuePolicy, "src", false);
+		}
+		final BulkDataInput in = this.bulkDataInput(src);
+		if (in == null) {
+			return super.readValue(src, valueType);
+		}
+		return this.readValue(in, valueType, false);
+	}
+	
+	/**
+	 * Returns a bulk-capable view of the given data input, or {@code null} if
+	 * there is none, or if the factory does not parse plain JSON.
+	 */
+	private BulkDataInput bulkDataInput(final DataInput src) {
+		if (this._jsonFactory.getInputDecorator() != null || !JsonFactory.FORMAT_NAME_JSON.equals(this._jsonFactory.getFormatName())) {
+			return null;
+		}
+		return BulkDataInput.of(src);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private <T> T readValue(final BulkDataInput in, final JavaType valueType, final boolean orNull) throws IOException {
+		try (JsonParser p = this._jsonFactory.createParser(in)) {
+			final DeserializationConfig cfg = this.getDeserializationConfig();
+			if (orNull && !this.hasContent(p)) {
+				return null;
+			}
+			final Object result = this.readMap(cfg, this.deduplicating(p), valueType);
+			in.reposition(p);
+			return (T) result;
+		} finally {
+			in.release();
+		}
+	}
+	
+	/**
+	 * Reads a value from the remaining content of the given buffer (see
+	 * {@link #readValue(ByteBuffer, JavaType)}).
+	 */
+	public <T> T readValue(final ByteBuffer src, final Class<T> valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValuePolicy, "src", false);
+		}
+		return this.readValue(src, this._typeFactory.constructType(valueType));
+	}
+	
+	/**
+	 * Reads a value from the remaining content of the given buffer (see
+	 * {@link #readValue(ByteBuffer, JavaType)}).
+	 */
+	public <T> T readValue(final ByteBuffer src, final TypeReference<T> valueTypeRef) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValuePolicy, "src", false);
+		}
+		return this.readValue(src, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Reads a value from the remaining content of the given buffer, like
+	 * {@link #readValue(byte[], JavaType)}, without changing the buffer's
+	 * position (see {@link #createParser(ByteBuffer)}).
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T readValue(final ByteBuffer src, final JavaType valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValuePolicy, "src", false);
+		}
+		return (T) this._readMapAndClose(this.createParser(src), valueType);
+	}
+	
+	/**
+	 * Creates a parser for the remaining content of the given buffer, without
+	 * copying it: the backing array of a heap buffer is parsed in place, while
+	 * a direct (or read-only) buffer is read through the recycled buffer of
+	 * the parser. The position of the given buffer remains unchanged.
+	 */
+	private JsonParser createParser(final ByteBuffer src) throws IOException {
+		if (src.hasArray()) {
+			return this._jsonFactory.createParser(src.array(), src.arrayOffset() + src.position(), src.remaining());
+		}
+		return this._jsonFactory.createParser(new ByteBufferBackedInputStream(src.duplicate()));
+	}
+	
+	/**
+	 * Reads a value from the given channel (see
+	 * {@link #readValue(ReadableByteChannel, JavaType)}).
+	 */
+	public <T> T readValue(final ReadableByteChannel src, final Class<T> valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValueStreamPolicy, "src", false);
+		}
+		return this.readValue(src, this._typeFactory.constructType(valueType));
+	}
+	
+	/**
+	 * Reads a value from the given channel (see
+	 * {@link #readValue(ReadableByteChannel, JavaType)}).
+	 */
+	public <T> T readValue(final ReadableByteChannel src, final TypeReference<T> valueTypeRef) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValueStreamPolicy, "src", false);
+		}
+		return this.readValue(src, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Reads a value from the given channel, like
+	 * {@link #readValue(InputStream, JavaType)}, reading the channel directly
+	 * into the recycled buffer of the parser (see {@link ChannelInput}). The
+	 * channel is closed afterwards, if
+	 * {@link JsonParser.Feature#AUTO_CLOSE_SOURCE} is enabled.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T readValue(final ReadableByteChannel src, final JavaType valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValueStreamPolicy, "src", false);
+		}
+		return (T) this._readMapAndClose(this._jsonFactory.createParser(new ChannelInput(src)), valueType);
+	}
+	
+	/*
+	 * Reading values without blocking
+	 */
+	
+	/**
+	 * Returns a reader for root values of the given type (see
+	 * {@link #nonBlockingReader(JavaType)}).
+	 */
+	public <T> NonBlockingReader<T> nonBlockingReader(final Class<T> valueType) throws IOException {
+		return this.nonBlockingReader(this._typeFactory.constructType(valueType));
+	}
+	
+	/**
+	 * Returns a reader for root values of the given type (see
+	 * {@link #nonBlockingReader(JavaType)}).
+	 */
+	public <T> NonBlockingReader<T> nonBlockingReader(final TypeReference<T> valueTypeRef) throws IOException {
+		return this.nonBlockingReader(this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Returns a reader, that reads root values of the given type from chunks
+	 * of bytes, which the caller pushes as they arrive, e.g. from an event
+	 * loop, rather than from an {@link InputStream}, that a thread blocks on.
+	 * Requires a factory, that supports
+	 * {@link JsonFactory#canParseAsync() non-blocking parsing}.
+	 */
+	public <T> NonBlockingReader<T> nonBlockingReader(final JavaType valueType) throws IOException {
+		return new NonBlockingReader<>(this, valueType);
+	}
+	
+	/*
+	 * Reading newline-delimited values in parallel
+	 */
+	
+	/**
+	 * Returns a parallel stream of the values of the given type in the given
+	 * newline-delimited JSON (see
+	 * {@link #readValuesParallel(byte[], JavaType, boolean)}).
+	 */
+	public <T> Stream<T> readValuesParallel(final byte[] src, final Class<T> valueType, final boolean ordered) throws IOException {
+		return this.readValuesParallel(src, this._typeFactory.constructType(valueType), ordered);
+	}
+	
+	/**
+	 * Returns a parallel stream of the values of the given type in the given
+	 * newline-delimited JSON (see
+	 * {@link #readValuesParallel(byte[], JavaType, boolean)}).
+	 */
+	public <T> Stream<T> readValuesParallel(final byte[] src, final TypeReference<T> valueTypeRef, final boolean ordered) throws IOException {
+		return this.readValuesParallel(src, this.resolveType(valueTypeRef), ordered);
+	}
+	
+	/**
+	 * Returns a parallel stream of the values of the given type in the given
+	 * newline-delimited JSON. The stream splits the input at the line breaks
+	 * next to the middle of its ranges, and decodes the ranges independently
+	 * of each other, like {@link #readValues(JsonParser, JavaType)} does, on
+	 * the {@link java.util.concurrent.ForkJoinPool}, that runs the terminal
+	 * operation, i.e. the common pool, unless the operation is submitted to
+	 * another pool (see {@link LineSpliterator}). Failures are thrown as
+	 * {@link java.io.UncheckedIOException}s.
+	 * <p>
+	 * An ordered stream encounters the values in input order, while an
+	 * unordered stream may pass them on as soon as they are decoded. A
+	 * {@code null} source is subject to the {@link Family#READ_VALUES} policy,
+	 * which returns an empty stream, if lenient.
+	 */
+	public <T> Stream<T> readValuesParallel(final byte[] src, final JavaType valueType, final boolean ordered) throws IOException {
+		if (src == null) {
+			return this.nullStream();
+		}
+		return StreamSupport.stream(new LineSpliterator<T>(this, valueType, new LineSpliterator.ArraySource(src, 0, src.length), ordered), true);
+	}
+	
+	/**
+	 * Returns a parallel stream of the values of the given type in the
+	 * remaining content of the given buffer (see
+	 * {@link #readValuesParallel(ByteBuffer, JavaType, boolean)}).
+	 */
+	public <T> Stream<T> readValuesParallel(final ByteBuffer src, final Class<T> valueType, final boolean ordered) throws IOException {
+		return this.readValuesParallel(src, this._typeFactory.constructType(valueType), ordered);
+	}
+	
+	/**
+	 * Returns a parallel stream of the values of the given type in the
+	 * remaining content of the given buffer (see
+	 * {@link #readValuesParallel(ByteBuffer, JavaType, boolean)}).
+	 */
+	public <T> Stream<T> readValuesParallel(final ByteBuffer src, final TypeReference<T> valueTypeRef, final boolean ordered) throws IOException {
+		return this.readValuesParallel(src, this.resolveType(valueTypeRef), ordered);
+	}
+	
+	/**
+	 * Returns a parallel stream of the values of the given type in the
+	 * remaining content of the given buffer, like
+	 * {@link #readValuesParallel(byte[], JavaType, boolean)}, without changing
+	 * the buffer's position. The backing array of a heap buffer is parsed in
+	 * place, while the ranges of a direct buffer are read through views.
+	 */
+	public <T> Stream<T> readValuesParallel(final ByteBuffer src, final JavaType valueType, final boolean ordered) throws IOException {
+		if (src == null) {
+			return this.nullStream();
+		}
+		final LineSpliterator.Source source = src.hasArray() ? new LineSpliterator.ArraySource(src.array(), src.arrayOffset() + src.position(), src.remaining())
+				: new LineSpliterator.BufferSource(src.duplicate());
+		return StreamSupport.stream(new LineSpliterator<T>(this, valueType, source, ordered), true);
+	}
+	
+	/**
+	 * Returns a parallel stream of the values of the given type in the given
+	 * file (see {@link #readValuesParallel(File, JavaType, boolean)}).
+	 */
+	public <T> Stream<T> readValuesParallel(final File src, final Class<T> valueType, final boolean ordered) throws IOException {
+		return this.readValuesParallel(src, this._typeFactory.constructType(valueType), ordered);
+	}
+	
+	/**
+	 * Returns a parallel stream of the values of the given type in the given
+	 * file (see {@link #readValuesParallel(File, JavaType, boolean)}).
+	 */
+	public <T> Stream<T> readValuesParallel(final File src, final TypeReference<T> valueTypeRef, final boolean ordered) throws IOException {
+		return this.readValuesParallel(src, this.resolveType(valueTypeRef), ordered);
+	}
+	
+	/**
+	 * Returns a parallel stream of the values of the given type in the given
+	 * file, like {@link #readValuesParallel(byte[], JavaType, boolean)}. Each
+	 * range of the file is memory-mapped, once its decoding starts. The
+	 * stream holds the file open, until it is {@link Stream#close() closed}.
+	 */
+	public <T> Stream<T> readValuesParallel(final File src, final JavaType valueType, final boolean ordered) throws IOException {
+		if (src == null) {
+			return this.nullStream();
+		}
+		final FileChannel channel = new FileInputStream(src).getChannel();
+		try {
+			return StreamSupport.stream(new LineSpliterator<T>(this, valueType, new LineSpliterator.MappedSource(channel), ordered), true).onClose(() -> {
+				try {
+					channel.close();
+				} catch (final IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (final IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+	
+	private <T> Stream<T> nullStream() throws JsonMappingException {
+		this.nullArgument(this.readValuesPolicy, "src", false);
+		return Stream.empty();
+	}
+	
+	/*
+	 * Reading large trees in parallel
+	 */
+	
+	/**
+	 * Reads a tree from the given content, like {@link #readTree(byte[])},
+	 * but builds the subtrees of its large objects and arrays in parallel,
+	 * after locating their elements in a single pass over the content (see
+	 * {@link ParallelTree}). The subtrees are built on the
+	 * {@link java.util.concurrent.ForkJoinPool} of the calling thread, or on
+	 * the common pool. Small documents, documents whose root value is not an
+	 * object or an array, and factories allowing comments or single quotes
+	 * are read by a single parser. A failure is always reported by a single
+	 * parser, with its exact location.
+	 */
+	public JsonNode readTreeParallel(final byte[] content) throws IOException {
+		if (content == null) {
+			return this.readTree(content);
+		}
+		return ParallelTree.readTree(this, content);
+	}
+	
+	/**
+	 * Reads a tree from the given file in parallel (see
+	 * {@link #readTreeParallel(byte[])}), after reading the file into a
+	 * {@code byte[]} in full, which is held on the heap until the tree has
+	 * been built. Hence, the heap must hold the file as well as its tree.
+	 * <p>
+	 * Since the index of a document holds {@code int} offsets, a file of
+	 * more than {@code Integer.MAX_VALUE - 8} bytes (just below 2 GiB), which
+	 * does not fit into a {@code byte[]}, is read like
+	 * {@link #readTree(File)} instead, by a single (memory-mapped) parser,
+	 * and thus without any speed-up. A file of 2 GB (i.e. 2,000,000,000
+	 * bytes) still fits.
+	 */
+	public JsonNode readTreeParallel(final File file) throws IOException {
+		if (file == null) {
+			return this.readTree(file);
+		}
+		final byte[] content;
+		try (FileInputStream in = new FileInputStream(file)) {
+			final long size = in.getChannel().size();
+			if (size > Integer.MAX_VALUE - 8) {
+				// beyond the maximum size of a byte[]
+				return this.readTree(file);
+			}
+			content = ParallelTree.readFully(in, (int) size);
+		}
+		return ParallelTree.readTree(this, content);
+	}
+	
+	/**
+	 * Reads a tree from the given stream in parallel (see
+	 * {@link #readTreeParallel(byte[])}), after reading the stream to its end.
+	 * The stream is closed, if {@link JsonParser.Feature#AUTO_CLOSE_SOURCE}
+	 * is enabled, just as {@link #readTree(InputStream)} closes it.
+	 */
+	public JsonNode readTreeParallel(final InputStream in) throws IOException {
+		if (in == null) {
+			return this.readTree(in);
+		}
+		final byte[] content;
+		try {
+			content = ParallelTree.readFully(in, ParallelTree.RUN_SIZE);
+		} finally {
+			if (this._jsonFactory.isEnabled(JsonParser.Feature.AUTO_CLOSE_SOURCE)) {
+				in.close();
+			}
+		}
+		return ParallelTree.readTree(this, content);
+	}
+	
+	/*
+	 * Validating and skipping structurally
+	 */
+	
+	/**
+	 * Returns whether the given content holds exactly one JSON value, which
+	 * conforms to RFC 8259, optionally surrounded by whitespace. The content
+	 * is checked by a {@link StructuralScanner} a word at a time, without
+	 * creating any tokens or values, and must be valid UTF-8 (after an
+	 * optional byte order mark). A factory, that accepts non-standard JSON
+	 * (such as comments or single quotes), or content in UTF-16 or UTF-32,
+	 * is checked by skipping over the tokens of a regular parser instead, so
+	 * that the content is valid, if and only if the parser accepts it.
+	 */
+	public boolean isValidJson(final byte[] content) throws IOException {
+		if (content == null) {
+			throw new NullPointerException("argument \"content\" is null");
+		}
+		return this.isValidJson(content, 0, content.length);
+	}
+	
+	/**
+	 * Returns whether the remaining content of the given buffer holds exactly
+	 * one JSON value (see {@link #isValidJson(byte[])}), without changing the
+	 * buffer's position. The content of a buffer without an accessible array
+	 * is copied first.
+	 */
+	public boolean isValidJson(final ByteBuffer content) throws IOException {
+		if (content == null) {
+			throw new NullPointerException("argument \"content\" is null");
+		}
+		if (content.hasArray()) {
+			return this.isValidJson(content.array(), content.arrayOffset() + content.position(), content.remaining());
+		}
+		final byte[] copy = new byte[content.remaining()];
+		content.duplicate().get(copy);
+		return this.isValidJson(copy, 0, copy.length);
+	}
+	
+	private boolean isValidJson(final byte[] b, final int off, final int len) throws IOException {
+		if (StructuralScanner.supports(this._jsonFactory, b, off, len)) {
+			return StructuralScanner.isValid(b, off, len);
+		}
+		try (JsonParser p = this._jsonFactory.createParser(b, off, len)) {
+			if (p.nextToken() == null) {
+				return false;
+			}
+			p.skipChildren();
+			return p.nextToken() == null;
+		} catch (final JsonProcessingException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Reads the tree of the value, that the given pointer refers to, from the
+	 * given content (see {@link #createParserAt(byte[], JsonPointer)}), or
+	 * returns a {@link MissingNode}, if there is none. The pointer refers to
+	 * the first member of a given name, if an object has several.
+	 */
+	public JsonNode readTreeAt(final byte[] content, final JsonPointer pointer) throws IOException {
+		if (content == null) {
+			return this.nullArgument(this.readTreePolicy, "content", false);
+		}
+		try (JsonParser p = this.createParserAt(content, pointer)) {
+			if (p == null || p.nextToken() == null) {
+				return MissingNode.getInstance();
+			}
+			return this.readTree(p);
+		}
+	}
+	
+	/**
+	 * Reads the value of the given type, that the given pointer refers to,
+	 * from the given content (see {@link #readValueAt(byte[], JsonPointer, JavaType)}).
+	 */
+	public <T> T readValueAt(final byte[] src, final JsonPointer pointer, final Class<T> valueType) throws IOException {
+		return this.readValueAt(src, pointer, this._typeFactory.constructType(valueType));
+	}
+	
+	/**
+	 * Reads the value of the given type, that the given pointer refers to,
+	 * from the given content (see {@link #readValueAt(byte[], JsonPointer, JavaType)}).
+	 */
+	public <T> T readValueAt(final byte[] src, final JsonPointer pointer, final TypeReference<T> valueTypeRef) throws IOException {
+		return this.readValueAt(src, pointer, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Reads the value of the given type, that the given pointer refers to,
+	 * from the given content (see {@link #createParserAt(byte[], JsonPointer)}),
+	 * or returns {@code null}, if there is none. The pointer refers to the
+	 * first member of a given name, if an object has several.
+	 */
+	public <T> T readValueAt(final byte[] src, final JsonPointer pointer, final JavaType valueType) throws IOException {
+		if (src == null) {
+			return this.nullArgument(this.readValuePolicy, "src", false);
+		}
+		try (JsonParser p = this.createParserAt(src, pointer)) {
+			if (p == null || p.nextToken() == null) {
+				return null;
+			}
+			return this.readValue(p, valueType);
+		}
+	}
+	
+	/**
+	 * Returns a parser of the value, that the given pointer refers to, or
+	 * {@code null}, if the value is known to be missing. The value is located
+	 * by a {@link StructuralScanner}, which skips everything before it by its
+	 * structure only, without validating the skipped content, and compares
+	 * names as raw bytes, so that only the value itself is parsed. A factory,
+	 * that accepts non-standard JSON, content in UTF-16 or UTF-32, a name with
+	 * escapes on the way to the value, or content the scanner cannot make
+	 * sense of, are left to a {@link FilteringParserDelegate}, which parses
+	 * the content up to the value, and reports failures with their exact
+	 * location.
+	 */
+	private JsonParser createParserAt(final byte[] content, final JsonPointer pointer) throws IOException {
+		if (pointer == null) {
+			throw new NullPointerException("argument \"pointer\" is null");
+		}
+		if (StructuralScanner.supports(this._jsonFactory, content, 0, content.length)) {
+			final long range = StructuralScanner.locate(content, 0, content.length, pointer);
+			if (range == StructuralScanner.MISSING) {
+				return null;
+			}
+			if (range >= 0) {
+				final int start = (int) (range >>> 32);
+				return this._jsonFactory.createParser(content, start, (int) range - start);
+			}
+		}
+		if (pointer.matches()) {
+			// the filter does not match the root value
+			return this._jsonFactory.createParser(content);
+		}
+		return new FilteringParserDelegate(this._jsonFactory.createParser(content), new JsonPointerBasedFilter(pointer), false, false);
+	}
+	
+	/*
+	 * Reading trees lazily
+	 */
+	
+	/**
+	 * Reads a tree from the given content, like {@link #readTree(byte[])},
+	 * but creates the nodes of its objects and arrays only once they are
+	 * retrieved (see {@link LazyTree}). The content is validated up front,
+	 * without creating any objects, and is retained by the tree, which must
+	 * not outlive changes to it. Hence, a caller, that visits only a few
+	 * nodes of a large document, creates only a few nodes. Content, that
+	 * cannot be read lazily, such as invalid content, is read like
+	 * {@link #readTree(byte[])}, which reports failures just as usual.
+	 */
+	public JsonNode readTreeLazy(final byte[] content) throws IOException {
+		if (content == null) {
+			return this.nullArgument(this.readTreePolicy, "content", false);
+		}
+		return LazyTree.readTree(this, content);
+	}
+	
+	/*
+	 * Reading and writing reactive streams
+	 */
+	
+	/**
+	 * Returns a publisher of the root values of the given type, decoded from
+	 * the given publisher of byte chunks (see
+	 * {@link #decodeValues(Publisher, JavaType)}).
+	 */
+	public <T> Publisher<T> decodeValues(final Publisher<? extends ByteBuffer> src, final Class<T> valueType) {
+		return this.decodeValues(src, this._typeFactory.constructType(valueType));
+	}
+	
+	/**
+	 * Returns a publisher of the root values of the given type, decoded from
+	 * the given publisher of byte chunks (see
+	 * {@link #decodeValues(Publisher, JavaType)}).
+	 */
+	public <T> Publisher<T> decodeValues(final Publisher<? extends ByteBuffer> src, final TypeReference<T> valueTypeRef) {
+		return this.decodeValues(src, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Returns a publisher of the root values of the given type, decoded from
+	 * the given publisher of UTF-8 byte chunks through a
+	 * {@link #nonBlockingReader(JavaType) non-blocking reader} per subscriber.
+	 * The next chunk is requested only once the values of the previous chunk
+	 * have been requested downstream, so that memory stays bounded, however
+	 * long the stream. A chunk is not retained, once it has been handed over,
+	 * so that the source may recycle it. JSON {@code null} root values are
+	 * skipped.
+	 */
+	public <T> Publisher<T> decodeValues(final Publisher<? extends ByteBuffer> src, final JavaType valueType) {
+		if (src == null) {
+			throw new NullPointerException("argument \"src\" is null");
+		}
+		return new DecodingPublisher<>(this, src, valueType);
+	}
+	
+	/**
+	 * Returns a publisher of byte chunks, each of which holds a value of the
+	 * given publisher, encoded as a line of newline-delimited JSON. The demand
+	 * for chunks is passed on to the given publisher as is, so that memory
+	 * stays bounded, however long the stream.
+	 */
+	public Publisher<ByteBuffer> encodeValues(final Publisher<?> values) {
+		if (values == null) {
+			throw new NullPointerException("argument \"values\" is null");
+		}
+		return new EncodingPublisher(this, values);
+	}
+	
+	/*
+	 * Reading and writing files asynchronously
+	 */
+	
+	/**
+	 * Reads a tree from the given file asynchronously (see
+	 * {@link #readValueAsync(File, JavaType)}).
+	 */
+	public CompletableFuture<JsonNode> readTreeAsync(final File file) {
+		if (file == null) {
+			return AsyncFiles.now(() -> this.readTree(file));
+		}
+		return AsyncFiles.read(file, this.getAsyncExecutor(), (content, length) -> this._readTreeAndClose(this._jsonFactory.createParser(content, 0, length)),
+				() -> this.readTree(file));
+	}
+	
+	/**
+	 * Reads a tree from the given URL asynchronously (see
+	 * {@link #readValueAsync(URL, JavaType)}).
+	 */
+	public CompletableFuture<JsonNode> readTreeAsync(final URL source) {
+		if (source == null) {
+			return AsyncFiles.now(() -> this.readTree(source));
+		}
+		final File file = UrlSource.file(source);
+		if (file != null) {
+			return this.readTreeAsync(file);
+		}
+		return AsyncFiles.call(this.getAsyncExecutor(), () -> this.readTree(source));
+	}
+	
+	/**
+	 * Reads a value of the given type from the given file asynchronously (see
+	 * {@link #readValueAsync(File, JavaType)}).
+	 */
+	public <T> CompletableFuture<T> readValueAsync(final File src, final Class<T> valueType) {
+		return this.readValueAsync(src, this._typeFactory.constructType(valueType));
+	}
+	
+	/**
+	 * Reads a value of the given type from the given file asynchronously (see
+	 * {@link #readValueAsync(File, JavaType)}).
+	 */
+	public <T> CompletableFuture<T> readValueAsync(final File src, final TypeReference<T> valueTypeRef) {
+		return this.readValueAsync(src, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Reads a value of the given type from the given file, like
+	 * {@link #readValue(File, JavaType)}, but without blocking the calling
+	 * thread: the file is read through an
+	 * {@link java.nio.channels.AsynchronousFileChannel}, and parsed on the
+	 * {@link #getAsyncExecutor() executor}, unless it is large, in which case
+	 * it is read by a blocking task on the executor (see {@link AsyncFiles}).
+	 * <p>
+	 * The returned future completes with the value, or with the exception,
+	 * that {@link #readValue(File, JavaType)} would return or throw, which
+	 * includes the outcome of the {@link Family#READ_VALUE} policy for a
+	 * {@code null} file.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> CompletableFuture<T> readValueAsync(final File src, final JavaType valueType) {
+		if (src == null) {
+			return AsyncFiles.now(() -> this.readValue(src, valueType));
+		}
+		return AsyncFiles.read(src, this.getAsyncExecutor(),
+				(content, length) -> (T) this._readMapAndClose(this._jsonFactory.createParser(content, 0, length), valueType),
+				() -> this.readValue(src, valueType));
+	}
+	
+	/**
+	 * Reads a value of the given type from the given URL asynchronously (see
+	 * {@link #readValueAsync(URL, JavaType)}).
+	 */
+	public <T> CompletableFuture<T> readValueAsync(final URL src, final Class<T> valueType) {
+		return this.readValueAsync(src, this._typeFactory.constructType(valueType));
+	}
+	
+	/**
+	 * Reads a value of the given type from the given URL asynchronously (see
+	 * {@link #readValueAsync(URL, JavaType)}).
+	 */
+	public <T> CompletableFuture<T> readValueAsync(final URL src, final TypeReference<T> valueTypeRef) {
+		return this.readValueAsync(src, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Reads a value of the given type from the given URL, like
+	 * {@link #readValue(URL, JavaType)}, but without blocking the calling
+	 * thread. A {@code file:} URL is read like a {@link File} (see
+	 * {@link #readValueAsync(File, JavaType)}), while any other URL is read by
+	 * a blocking task on the {@link #getAsyncExecutor() executor}.
+	 */
+	public <T> CompletableFuture<T> readValueAsync(final URL src, final JavaType valueType) {
+		if (src == null) {
+			return AsyncFiles.now(() -> this.readValue(src, valueType));
+		}
+		final File file = UrlSource.file(src);
+		if (file != null) {
+			return this.readValueAsync(file, valueType);
+		}
+		return AsyncFiles.call(this.getAsyncExecutor(), () -> this.readValue(src, valueType));
+	}
+	
+	/**
+	 * Writes the given value to the given file, like
+	 * {@link #writeValue(File, Object)}, but without blocking the calling
+	 * thread: the value is serialized on the {@link #getAsyncExecutor()
+	 * executor}, and written through an
+	 * {@link java.nio.channels.AsynchronousFileChannel}. The returned future
+	 * completes exceptionally, whenever {@link #writeValue(File, Object)}
+	 * would throw, which includes the outcome of the {@link Family#WRITE_VALUE}
+	 * policy for a {@code null} file.
+	 */
+	public CompletableFuture<Void> writeValueAsync(final File resultFile, final Object value) {
+		if (resultFile == null) {
+			return AsyncFiles.now(() -> {
+				this.writeValue(resultFile, value);
+				return null;
+			});
+		}
+		return AsyncFiles.write(resultFile, this.getAsyncExecutor(), () -> this.writeValueAsBytes(value));
+	}
+	
+	/*
+	 * Reading values without failing on absent input
+	 */
+	
+	/**
+	 * Reads a value from the given parser, or returns {@code null} if the
+	 * parser is {@code null} or has no more content, without constructing an
+	 * exception. Unlike {@link #readValue(JsonParser, JavaType)}, this method
+	 * does not consult the {@link Family#READ_PARSER} policy. Note, that a
+	 * JSON {@code null} value may map to {@code null} as well.
+	 */
+	public <T> T readValueOrNull(final JsonParser p, final JavaType valueType) throws IOException {
+		if (p == null || !this.hasContent(p)) {
+			return null;
+		}
+		return this.readValue(p, valueType);
+	}
+	
+	/**
+	 * Reads a value from the given parser, unless the parser is {@code null}
+	 * or has no more content (see
+	 * {@link #readValueOrNull(JsonParser, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final JsonParser p, final JavaType valueType) throws IOException {
+		return Optional.ofNullable(this.<T> readValueOrNull(p, valueType));
+	}
+	
+	/**
+	 * Reads a value from a parser (see
+	 * {@link #readValueOrNull(JsonParser, JavaType)}).
+	 */
+	public <T> T readValueOrNull(final JsonParser p, final Class<T> valueType) throws IOException {
+		return this.readValueOrNull(p, this._typeFactory.constructType(valueType));
+	}
+	
+	/**
+	 * Reads a value from a parser (see
+	 * {@link #readValueOptional(JsonParser, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final JsonParser p, final Class<T> valueType) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(p, this._typeFactory.constructType(valueType)));
+	}
+	
+	/**
+	 * Reads a value from a parser (see
+	 * {@link #readValueOrNull(JsonParser, JavaType)}).
+	 */
+	public <T> T readValueOrNull(final JsonParser p, final TypeReference<T> valueTypeRef) throws IOException {
+		return this.readValueOrNull(p, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Reads a value from a parser (see
+	 * {@link #readValueOptional(JsonParser, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final JsonParser p, final TypeReference<T> valueTypeRef) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(p, this.resolveType(valueTypeRef)));
+	}
+	
+	/**
+	 * Reads a value from a file (see
+	 * {@link #readValueOrNull(File, JavaType)}).
+	 */
+	public <T> T readValueOrNull(final File src, final Class<T> valueType) throws IOException {
+		return this.readValueOrNull(src, this._typeFactory.constructType(valueType));
+	}
+	
+	/**
+	 * Reads a value from a file (see
+	 * {@link #readValueOptional(File, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final File src, final Class<T> valueType) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(src, this._typeFactory.constructType(valueType)));
+	}
+	
+	/**
+	 * Reads a value from a file (see
+	 * {@link #readValueOrNull(File, JavaType)}).
+	 */
+	public <T> T readValueOrNull(final File src, final TypeReference<T> valueTypeRef) throws IOException {
+		return this.readValueOrNull(src, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Reads a value from a file (see
+	 * {@link #readValueOptional(File, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final File src, final TypeReference<T> valueTypeRef) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(src, this.resolveType(valueTypeRef)));
+	}
+	
+	/**
+	 * Reads a value from a file, or returns {@code null} if the file is
+	 * {@code null} or empty, without constructing an exception. Unlike
+	 * {@code readValue}, this method does not consult any policy. Note, that a
+	 * JSON {@code null} value may map to {@code null} as well.
+	 */
+	public <T> T readValueOrNull(final File src, final JavaType valueType) throws IOException {
+		if (src == null) {
+			return null;
+		}
+		try (FileSource source = FileSource.open(src)) {
+			return this.readValueOrNullAndClose(source.createParser(this._jsonFactory), valueType);
+		}
+	}
+	
+	/**
+	 * Reads a value from a file, unless the file is {@code null} or empty (see
+	 * {@link #readValueOrNull(File, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final File src, final JavaType valueType) throws IOException {
+		return Optional.ofNullable(this.<T> readValueOrNull(src, valueType));
+	}
+	
+	/**
+	 * Reads a value from a URL (see
+	 * {@link #readValueOrNull(URL, JavaType)}).
+	 */
+	public <T> T readValueOrNull(final URL src, final Class<T> valueType) throws IOException {
+		return this.readValueOrNull(src, this._typeFactory.constructType(valueType));
+	}
+	
+	/**
+	 * Reads a value from a URL (see
+	 * {@link #readValueOptional(URL, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final URL src, final Class<T> valueType) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(src, this._typeFactory.constructType(valueType)));
+	}
+	
+	/**
+	 * Reads a value from a URL (see
+	 * {@link #readValueOrNull(URL, JavaType)}).
+	 */
+	public <T> T readValueOrNull(final URL src, final TypeReference<T> valueTypeRef) throws IOException {
+		return this.readValueOrNull(src, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Reads a value from a URL (see
+	 * {@link #readValueOptional(URL, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final URL src, final TypeReference<T> valueTypeRef) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(src, this.resolveType(valueTypeRef)));
+	}
+	
+	/**
+	 * Reads a value from a URL, or returns {@code null} if the URL is
+	 * {@code null} or empty, without constructing an exception. Unlike
+	 * {@code readValue}, this method does not consult any policy. Note, that a
+	 * JSON {@code null} value may map to {@code null} as well.
+	 */
+	public <T> T readValueOrNull(final URL src, final JavaType valueType) throws IOException {
+		if (src == null) {
+			return null;
+		}
+		final File file = UrlSource.file(src);
+		if (file != null) {
+			return this.readValueOrNull(file, valueType);
+		}
+		return this.readValueOrNullAndClose(UrlSource.createParser(this._jsonFactory, src), valueType);
+	}
+	
+	/**
+	 * Reads a value from a URL, unless the URL is {@code null} or empty (see
+	 * {@link #readValueOrNull(URL, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final URL src, final JavaType valueType) throws IOException {
+		return Optional.ofNullable(this.<T> readValueOrNull(src, valueType));
+	}
+	
+	/**
+	 * Reads a value from a string (see
+	 * {@link #readValueOrNull(String, JavaType)}).
+	 */
+	public <T> T readValueOrNull(final String content, final Class<T> valueType) throws IOException {
+		return this.readValueOrNull(content, this._typeFactory.constructType(valueType));
+	}
+	
+	/**
+	 * Reads a value from a string (see
+	 * {@link #readValueOptional(String, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final String content, final Class<T> valueType) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(content, this._typeFactory.constructType(valueType)));
+	}
+	
+	/**
+	 * Reads a value from a string (see
+	 * {@link #readValueOrNull(String, JavaType)}).
+	 */
+	public <T> T readValueOrNull(final String content, final TypeReference<T> valueTypeRef) throws IOException {
+		return this.readValueOrNull(content, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Reads a value from a string (see
+	 * {@link #readValueOptional(String, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final String content, final TypeReference<T> valueTypeRef) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(content, this.resolveType(valueTypeRef)));
+	}
+	
+	/**
+	 * Reads a value from a string, or returns {@code null} if the string is
+	 * {@code null} or empty, without constructing an exception. Unlike
+	 * {@code readValue}, this method does not consult any policy. Note, that a
+	 * JSON {@code null} value may map to {@code null} as well.
+	 */
+	public <T> T readValueOrNull(final String content, final JavaType valueType) throws IOException {
+		if (content == null) {
+			return null;
+		}
+		return this.readValueOrNullAndClose(this._jsonFactory.createParser(content), valueType);
+	}
+	
+	/**
+	 * Reads a value from a string, unless the string is {@code null} or empty (see
+	 * {@link #readValueOrNull(String, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final String content, final JavaType valueType) throws IOException {
+		return Optional.ofNullable(this.<T> readValueOrNull(content, valueType));
+	}
+	
+	/**
+	 * Reads a value from a reader (see
+	 * {@link #readValueOrNull(Reader, JavaType)}).
+	 */
+	public <T> T readValueOrNull(final Reader src, final Class<T> valueType) throws IOException {
+		return this.readValueOrNull(src, this._typeFactory.constructType(valueType));
+	}
+	
+	/**
+	 * Reads a value from a reader (see
+	 * {@link #readValueOptional(Reader, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final Reader src, final Class<T> valueType) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(src, this._typeFactory.constructType(valueType)));
+	}
+	
+	/**
+	 * Reads a value from a reader (see
+	 * {@link #readValueOrNull(Reader, JavaType)}).
+	 */
+	public <T> T readValueOrNull(final Reader src, final TypeReference<T> valueTypeRef) throws IOException {
+		return this.readValueOrNull(src, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Reads a value from a reader (see
+	 * {@link #readValueOptional(Reader, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final Reader src, final TypeReference<T> valueTypeRef) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(src, this.resolveType(valueTypeRef)));
+	}
+	
+	/**
+	 * Reads a value from a reader, or returns {@code null} if the reader is
+	 * {@code null} or empty, without constructing an exception. Unlike
+	 * {@code readValue}, this method does not consult any policy. Note, that a
+	 * JSON {@code null} value may map to {@code null} as well.
+	 */
+	public <T> T readValueOrNull(final Reader src, final JavaType valueType) throws IOException {
+		if (src == null) {
+			return null;
+		}
+		return this.readValueOrNullAndClose(this._jsonFactory.createParser(src), valueType);
+	}
+	
+	/**
+	 * Reads a value from a reader, unless the reader is {@code null} or empty (see
+	 * {@link #readValueOrNull(Reader, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final Reader src, final JavaType valueType) throws IOException {
+		return Optional.ofNullable(this.<T> readValueOrNull(src, valueType));
+	}
+	
+	/**
+	 * Reads a value from a stream (see
+	 * {@link #readValueOrNull(InputStream, JavaType)}).
+	 */
+	public <T> T readValueOrNull(final InputStream src, final Class<T> valueType) throws IOException {
+		return this.readValueOrNull(src, this._typeFactory.constructType(valueType));
+	}
+	
+	/**
+	 * Reads a value from a stream (see
+	 * {@link #readValueOptional(InputStream, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final InputStream src, final Class<T> valueType) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(src, this._typeFactory.constructType(valueType)));
+	}
+	
+	/**
+	 * Reads a value from a stream (see
+	 * {@link #readValueOrNull(InputStream, JavaType)}).
+	 */
+	public <T> T readValueOrNull(final InputStream src, final TypeReference<T> valueTypeRef) throws IOException {
+		return this.readValueOrNull(src, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Reads a value from a stream (see
+	 * {@link #readValueOptional(InputStream, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final InputStream src, final TypeReference<T> valueTypeRef) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(src, this.resolveType(valueTypeRef)));
+	}
+	
+	/**
+	 * Reads a value from a stream, or returns {@code null} if the stream is
+	 * {@code null} or empty, without constructing an exception. Unlike
+	 * {@code readValue}, this method does not consult any policy. Note, that a
+	 * JSON {@code null} value may map to {@code null} as well.
+	 */
+	public <T> T readValueOrNull(final InputStream src, final JavaType valueType) throws IOException {
+		if (src == null) {
+			return null;
+		}
+		return this.readValueOrNullAndClose(this._jsonFactory.createParser(src), valueType);
+	}
+	
+	/**
+	 * Reads a value from a stream, unless the stream is {@code null} or empty (see
+	 * {@link #readValueOrNull(InputStream, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final InputStream src, final JavaType valueType) throws IOException {
+		return Optional.ofNullable(this.<T> readValueOrNull(src, valueType));
+	}
+	
+	/**
+	 * Reads a value from a byte array (see
+	 * {@link #readValueOrNull(byte[], JavaType)}).
+	 */
+	public <T> T readValueOrNull(final byte[] src, final Class<T> valueType) throws IOException {
+		return this.readValueOrNull(src, this._typeFactory.constructType(valueType));
+	}
+	
+	/**
+	 * Reads a value from a byte array (see
+	 * {@link #readValueOptional(byte[], JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final byte[] src, final Class<T> valueType) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(src, this._typeFactory.constructType(valueType)));
+	}
+	
+	/**
+	 * Reads a value from a byte array (see
+	 * {@link #readValueOrNull(byte[], JavaType)}).
+	 */
+	public <T> T readValueOrNull(final byte[] src, final TypeReference<T> valueTypeRef) throws IOException {
+		return this.readValueOrNull(src, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Reads a value from a byte array (see
+	 * {@link #readValueOptional(byte[], JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final byte[] src, final TypeReference<T> valueTypeRef) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(src, this.resolveType(valueTypeRef)));
+	}
+	
+	/**
+	 * Reads a value from a byte array, or returns {@code null} if the byte array is
+	 * {@code null} or empty, without constructing an exception. Unlike
+	 * {@code readValue}, this method does not consult any policy. Note, that a
+	 * JSON {@code null} value may map to {@code null} as well.
+	 */
+	public <T> T readValueOrNull(final byte[] src, final JavaType valueType) throws IOException {
+		if (src == null) {
+			return null;
+		}
+		return this.readValueOrNullAndClose(this._jsonFactory.createParser(src), valueType);
+	}
+	
+	/**
+	 * Reads a value from a byte array, unless the byte array is {@code null} or empty (see
+	 * {@link #readValueOrNull(byte[], JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final byte[] src, final JavaType valueType) throws IOException {
+		return Optional.ofNullable(this.<T> readValueOrNull(src, valueType));
+	}
+	
+	/**
+	 * Reads a value from a byte array range (see
+	 * {@link #readValueOrNull(byte[], int, int, JavaType)}).
+	 */
+	public <T> T readValueOrNull(final byte[] src, final int offset, final int len, final Class<T> valueType) throws IOException {
+		return this.readValueOrNull(src, offset, len, this._typeFactory.constructType(valueType));
+	}
+	
+	/**
+	 * Reads a value from a byte array range (see
+	 * {@link #readValueOptional(byte[], int, int, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final byte[] src, final int offset, final int len, final Class<T> valueType) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(src, offset, len, this._typeFactory.constructType(valueType)));
+	}
+	
+	/**
+	 * Reads a value from a byte array range (see
+	 * {@link #readValueOrNull(byte[], int, int, JavaType)}).
+	 */
+	public <T> T readValueOrNull(final byte[] src, final int offset, final int len, final TypeReference<T> valueTypeRef) throws IOException {
+		return this.readValueOrNull(src, offset, len, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Reads a value from a byte array range (see
+	 * {@link #readValueOptional(byte[], int, int, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final byte[] src, final int offset, final int len, final TypeReference<T> valueTypeRef) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(src, offset, len, this.resolveType(valueTypeRef)));
+	}
+	
+	/**
+	 * Reads a value from a byte array range, or returns {@code null} if the
+	 * source is {@code null} or empty, without constructing an exception. Unlike
+	 * {@code readValue}, this method does not consult any policy. Note, that a
+	 * JSON {@code null} value may map to {@code null} as well.
+	 */
+	public <T> T readValueOrNull(final byte[] src, final int offset, final int len, final JavaType valueType) throws IOException {
+		if (src == null) {
+			return null;
+		}
+		return this.readValueOrNullAndClose(this._jsonFactory.createParser(src, offset, len), valueType);
+	}
+	
+	/**
+	 * Reads a value from a byte array range, unless the source is {@code null} or empty (see
+	 * {@link #readValueOrNull(byte[], int, int, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final byte[] src, final int offset, final int len, final JavaType valueType) throws IOException {
+		return Optional.ofNullable(this.<T> readValueOrNull(src, offset, len, valueType));
+	}
+	
+	/**
+	 * Reads a value from a data input (see
+	 * {@link #readValueOrNull(DataInput, JavaType)}).
+	 */
+	public <T> T readValueOrNull(final DataInput src, final Class<T> valueType) throws IOException {
+		return this.readValueOrNull(src, this._typeFactory.constructType(valueType));
+	}
+	
+	/**
+	 * Reads a value from a data input (see
+	 * {@link #readValueOptional(DataInput, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final DataInput src, final Class<T> valueType) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(src, this._typeFactory.constructType(valueType)));
+	}
+	
+	/**
+	 * Reads a value from a data input (see
+	 * {@link #readValueOrNull(DataInput, JavaType)}).
+	 */
+	public <T> T readValueOrNull(final DataInput src, final TypeReference<T> valueTypeRef) throws IOException {
+		return this.readValueOrNull(src, this.resolveType(valueTypeRef));
+	}
+	
+	/**
+	 * Reads a value from a data input (see
+	 * {@link #readValueOptional(DataInput, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final DataInput src, final TypeReference<T> valueTypeRef) throws IOException {
+		return Optional.ofNullable(this.readValueOrNull(src, this.resolveType(valueTypeRef)));
+	}
+	
+	/**
+	 * Reads a value from a data input, or returns {@code null} if the data input is
+	 * {@code null} or empty, without constructing an exception. Unlike
+	 * {@code readValue}, this method does not consult any policy. Note, that a
+	 * JSON {@code null} value may map to {@code null} as well.
+	 */
+	public <T> T readValueOrNull(final DataInput src, final JavaType valueType) throws IOException {
+		if (src == null) {
+			return null;
+		}
+		final BulkDataInput in = this.bulkDataInput(src);
+		if (in == null) {
+			return this.readValueOrNullAndClose(this._jsonFactory.createParser(src), valueType);
+		}
+		return this.readValue(in, valueType, true);
+	}
+	
+	/**
+	 * Reads a value from a data input, unless the data input is {@code null} or empty (see
+	 * {@link #readValueOrNull(DataInput, JavaType)}).
+	 */
+	public <T> Optional<T> readValueOptional(final DataInput src, final JavaType valueType) throws IOException {
+		return Optional.ofNullable(this.<T> readValueOrNull(src, valueType));
+	}
+	
+	/**
+	 * Advances the given parser to its first token, if necessary, and returns
+	 * whether there is any.
+	 */
+	private boolean hasContent(final JsonParser p) throws IOException {
+		this.getDeserializationConfig().initialize(p);
+		return p.getCurrentToken() != null || p.nextToken() != null;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private <T> T readValueOrNullAndClose(final JsonParser p, final JavaType valueType) throws IOException {
+		try (JsonParser parser = p) {
+			if (!this.hasContent(parser)) {
+				return null;
+			}
+			return (T) this._readMapAndClose(parser, valueType);
+		}
+	}
+	
+	/*
+	 * Writing values
+	 */
+	
+	@Override
+	public void writeValue(final File resultFile, final Object value) throws IOException {
+		if (resultFile == null) {
+			this.nullArgument(this.writeValuePolicy, "resultFile", true);
+			return;
+		}
+		super.writeValue(resultFile, value);
+	}
+	
+	@Override
+	public void writeValue(final OutputStream out, final Object value) throws IOException {
+		if (out == null) {
+			this.nullArgument(this.writeValuePolicy, "out", true);
+			return;
+		}
+		super.writeValue(out, value);
+	}
+	
+	/**
+	 * Writes the given value to the given data output, which receives the
+	 * value in chunks of up to {@value ChunkedDataOutput#CHUNK_SIZE} bytes
+	 * (see {@link ChunkedDataOutput}), rather than in chunks of the
+	 * generator's buffer size.
+	 */
+	@Override
+	public void writeValue(final DataOutput out, final Object value) throws IOException {
+		if (out == null) {
+			this.nullArgument(this.writeValuePolicy, "out", true);
+			return;
+		}
+		try (ChunkedDataOutput chunked = new ChunkedDataOutput(out, this._jsonFactory._getBufferRecycler())) {
+			super.writeValue(chunked, value);
+		}
+	}
+	
+	/**
+	 * Returns a {@link SequenceWriter} for writing a sequence of root values
+	 * to the given data output, like {@link ObjectWriter#writeValues(DataOutput)}
+	 * with the configuration of this mapper. Unlike the latter, the values are
+	 * not handed to the data output one by one, but in chunks of up to
+	 * {@value ChunkedDataOutput#CHUNK_SIZE} bytes (see
+	 * {@link ChunkedDataOutput}), i.e. regardless of
+	 * {@link SerializationFeature#FLUSH_AFTER_WRITE_VALUE}. Any pending values
+	 * are handed over by {@link SequenceWriter#flush()} and
+	 * {@link SequenceWriter#close()}, which must be called eventually.
+	 */
+	public SequenceWriter writeValues(final DataOutput out) throws IOException {
+		if (out == null) {
+			this.nullArgument(this.writeValuePolicy, "out", true);
+			return this.writer().writeValues(NullPolicyObjectMapper.DISCARD);
+		}
+		return this.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE).with(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+				.writeValues(new ChunkedDataOutput(out, this._jsonFactory._getBufferRecycler()));
+	}
+	
+	/**
+	 * Writes the given value to the given channel, like
+	 * {@link #writeValue(OutputStream, Object)}, which receives the value in
+	 * large, gathered writes (see {@link ChannelOutput}), rather than in
+	 * chunks of the generator's buffer size. The channel is closed
+	 * afterwards, if {@link JsonGenerator.Feature#AUTO_CLOSE_TARGET} is
+	 * enabled.
+	 */
+	public void writeValue(final WritableByteChannel out, final Object value) throws IOException {
+		if (out == null) {
+			this.nullArgument(this.writeValuePolicy, "out", true);
+			return;
+		}
+		final ChannelOutput channel = new ChannelOutput(out, this._jsonFactory._getBufferRecycler());
+		try {
+			super.writeValue(channel, value);
+			channel.flush();
+		} finally {
+			channel.release();
+		}
+	}
+	
+	@Override
+	public void writeValue(final Writer w, final Object value) throws IOException {
+		if (w == null) {
+			this.nullArgument(this.writeValuePolicy, "w", true);
+			return;
+		}
+		super.writeValue(w, value);
+	}
+	
+	/**
+	 * An immutable pair of a serialization and a deserialization
+	 * configuration, which is replaced as a whole in
+	 * {@link NullPolicyObjectMapper#setAtomicConfig(boolean) atomic mode}.
+	 */
+	public static final class ConfigSnapshot implements Serializable {
+		private static final long serialVersionUID = 1L;
+		
+		final SerializationConfig serializationConfig;
+		
+		final DeserializationConfig deserializationConfig;
+		
+		ConfigSnapshot(final SerializationConfig serializationConfig, final DeserializationConfig deserializationConfig) {
+			this.serializationConfig = serializationConfig;
+			this.deserializationConfig = deserializationConfig;
+		}
+		
+		public SerializationConfig getSerializationConfig() {
+			return this.serializationConfig;
+		}
+		
+		public DeserializationConfig getDeserializationConfig() {
+			return this.deserializationConfig;
+		}
+	}
+	
+	/**
+	 * A {@link StdSubtypeResolver}, whose registered subtypes can be copied,
+	 * which the 2.9 and 2.10 code bases do not support.
+	 */
+	private static final class CopyableSubtypeResolver extends StdSubtypeResolver {
+		private static final long serialVersionUID = 1L;
+		
+		CopyableSubtypeResolver copy() {
+			final CopyableSubtypeResolver copy = new CopyableSubtypeResolver();
+			if (this._registeredSubtypes != null) {
+				copy._registeredSubtypes = new LinkedHashSet<>(this._registeredSubtypes);
+			}
+			return copy;
+		}
+	}
+	
+	/**
+	 * Memoizes the type argument of direct {@link TypeReference} subclasses, as
+	 * resolved by a specific {@link TypeFactory}. Instances are immutable, and
+	 * may thus be published without synchronization.
+	 */
+	private static final class TypeReferenceTypes extends ClassValue<JavaType> {
+		final TypeFactory typeFactory;
+		
+		TypeReferenceTypes(final TypeFactory typeFactory) {
+			this.typeFactory = typeFactory;
+		}
+		
+		@Override
+		protected JavaType computeValue(final Class<?> type) {
+			final Type superType = type.getGenericSuperclass();
+			if (!(superType instanceof ParameterizedType)) {
+				throw new IllegalArgumentException("Internal error: TypeReference constructed without actual type information");
+			}
+			return this.typeFactory.constructType(((ParameterizedType) superType).getActualTypeArguments()[0]);
+		}
+	}
+	
+	/**
+	 * A {@link Module.SetupContext}, that applies the contributions of several
+	 * modules to the mapper, but replaces its {@link TypeFactory} only once.
+	 * <p>
+	 * Registering a single module replaces the {@link TypeFactory} whenever a
+	 * module contributes a {@link TypeModifier}, and each replaced
+	 * {@link TypeFactory} starts with an empty type cache. A batch collects
+	 * the type modifiers of all modules instead, in registration order, and
+	 * only replaces the mapper's {@link TypeFactory} once, when it is
+	 * {@link #apply() applied}. All other contributions are applied to the
+	 * mapper's (de)serializer factories and configurations immediately, just
+	 * like {@link ObjectMapper#registerModule(Module)} does, so that a module
+	 * sees, and keeps, whatever an earlier module, or it itself, has done to
+	 * the {@link #getOwner() owner}.
+	 * <p>
+	 * Only the replacement of the {@link TypeFactory} is batched. The
+	 * configurations are rebuilt, and published in atomic mode, once per
+	 * contribution, as many times as registering the modules one after
+	 * another would.
+	 */
+	private final class ModuleBatch implements Module.SetupContext {
+		private final List<TypeModifier> typeModifiers = new ArrayList<>();
+		
+		private TypeFactory baseTypeFactory = NullPolicyObjectMapper.this._typeFactory;
+		
+		private TypeFactory typeFactory = this.baseTypeFactory;
+		
+		/**
+		 * Sets up the given module (and, on the 2.10 code base, its
+		 * dependencies first), unless it has been registered before.
+		 */
+		void register(final Module module) {
+			if (module == null) {
+				NullPolicyObjectMapper.nullArgument(NullPolicyObjectMapper.this.registerModulePolicy, "module");
+				return;
+			}
+			if (module.getModuleName() == null) {
+				throw new IllegalArgumentException("Module without defined name");
+			}
+			if (module.version() == null) {
+				throw new IllegalArgumentException("Module without defined version");
+			}
+			for (final Module dependency : NullPolicyObjectMapper.dependencies(module)) {
+				this.register(dependency);
+			}
+			if (this.isEnabled(MapperFeature.IGNORE_DUPLICATE_MODULE_REGISTRATIONS)) {
+				final Object typeId = module.getTypeId();
+				if (typeId != null) {
+					if (NullPolicyObjectMapper.this._registeredModuleTypes == null) {
+						NullPolicyObjectMapper.this._registeredModuleTypes = new LinkedHashSet<>();
+					}
+					if (!NullPolicyObjectMapper.this._registeredModuleTypes.add(typeId)) {
+						return;
+					}
+				}
+			}
+			module.setupModule(this);
+		}
+		
+		/**
+		 * Applies the collected type modifiers to the mapper.
+		 */
+		void apply() {
+			final NullPolicyObjectMapper mapper = NullPolicyObjectMapper.this;
+			final TypeFactory typeFactory = this.getTypeFactory();
+			if (typeFactory != mapper._typeFactory) {
+				mapper._typeFactory = typeFactory;
+				mapper._serializationConfig = mapper._serializationConfig.with(typeFactory);
+				mapper._deserializationConfig = mapper._deserializationConfig.with(typeFactory);
+			}
+		}
+		
+		/**
+		 * Updates the serialization configuration of the mapper, and publishes
+		 * it in atomic mode, so that a module, that reconfigures its owner
+		 * afterwards, does not check out a stale configuration.
+		 */
+		private void updateSerializationConfig(final UnaryOperator<SerializationConfig> update) {
+			final NullPolicyObjectMapper mapper = NullPolicyObjectMapper.this;
+			mapper._serializationConfig = update.apply(mapper._serializationConfig);
+			mapper.commitConfig();
+		}
+		
+		/**
+		 * Updates the deserialization configuration of the mapper, and
+		 * publishes it in atomic mode.
+		 */
+		private void updateDeserializationConfig(final UnaryOperator<DeserializationConfig> update) {
+			final NullPolicyObjectMapper mapper = NullPolicyObjectMapper.this;
+			mapper._deserializationConfig = update.apply(mapper._deserializationConfig);
+			mapper.commitConfig();
+		}
+		
+		private void updateDeserializerFactory(final UnaryOperator<DeserializerFactory> update) {
+			final NullPolicyObjectMapper mapper = NullPolicyObjectMapper.this;
+			mapper._deserializationContext = mapper._deserializationContext.with(update.apply(mapper._deserializationContext.getFactory()));
+		}
+		
+		@Override
+		public Version getMapperVersion() {
+			return NullPolicyObjectMapper.this.version();
+		}
+		
+		@Override
+		@SuppressWarnings("unchecked")
+		public <C extends ObjectCodec> C getOwner() {
+			return (C) NullPolicyObjectMapper.this;
+		}
+		
+		@Override
+		public TypeFactory getTypeFactory() {
+			final TypeFactory current = NullPolicyObjectMapper.this._typeFactory;
+			if (current != this.baseTypeFactory) {
+				// the owner has been given another type factory meanwhile
+				this.baseTypeFactory = current;
+				this.typeFactory = current;
+				for (final TypeModifier modifier : this.typeModifiers) {
+					this.typeFactory = this.typeFactory.withModifier(modifier);
+				}
+			}
+			return this.typeFactory;
+		}
+		
+		@Override
+		public boolean isEnabled(final MapperFeature f) {
+			return NullPolicyObjectMapper.this._serializationConfig.isEnabled(f);
+		}
+		
+		@Override
+		public boolean isEnabled(final DeserializationFeature f) {
+			return NullPolicyObjectMapper.this._deserializationConfig.isEnabled(f);
+		}
+		
+		@Override
+		public boolean isEnabled(final SerializationFeature f) {
+			return NullPolicyObjectMapper.this._serializationConfig.isEnabled(f);
+		}
+		
+		@Override
+		public boolean isEnabled(final JsonFactory.Feature f) {
+			return NullPolicyObjectMapper.this.isEnabled(f);
+		}
+		
+		@Override
+		public boolean isEnabled(final JsonParser.Feature f) {
+			return NullPolicyObjectMapper.this.isEnabled(f);
+		}
+		
+		@Override
+		public boolean isEnabled(final JsonGenerator.Feature f) {
+			return NullPolicyObjectMapper.this.isEnabled(f);
+		}
+		
+		@Override
+		public MutableConfigOverride configOverride(final Class<?> type) {
+			return NullPolicyObjectMapper.this.configOverride(type);
+		}
+		
+		@Override
+		public void addDeserializers(final Deserializers d) {
+			this.updateDeserializerFactory(f -> f.withAdditionalDeserializers(d));
+		}
+		
+		@Override
+		public void addKeyDeserializers(final KeyDeserializers s) {
+			this.updateDeserializerFactory(f -> f.withAdditionalKeyDeserializers(s));
+		}
+		
+		@Override
+		public void addBeanDeserializerModifier(final BeanDeserializerModifier mod) {
+			this.updateDeserializerFactory(f -> f.withDeserializerModifier(mod));
+		}
+		
+		@Override
+		public void addAbstractTypeResolver(final AbstractTypeResolver resolver) {
+			this.updateDeserializerFactory(f -> f.withAbstractTypeResolver(resolver));
+		}
+		
+		@Override
+		public void addValueInstantiators(final ValueInstantiators instantiators) {
+			this.updateDeserializerFactory(f -> f.withValueInstantiators(instantiators));
+		}
+		
+		@Override
+		public void addSerializers(final Serializers s) {
+			NullPolicyObjectMapper.this._serializerFactory = NullPolicyObjectMapper.this._serializerFactory.withAdditionalSerializers(s);
+		}
+		
+		@Override
+		public void addKeySerializers(final Serializers s) {
+			NullPolicyObjectMapper.this._serializerFactory = NullPolicyObjectMapper.this._serializerFactory.withAdditionalKeySerializers(s);
+		}
+		
+		@Override
+		public void addBeanSerializerModifier(final BeanSerializerModifier mod) {
+			NullPolicyObjectMapper.this._serializerFactory = NullPolicyObjectMapper.this._serializerFactory.withSerializerModifier(mod);
+		}
+		
+		@Override
+		public void addTypeModifier(final TypeModifier modifier) {
+			this.typeFactory = this.getTypeFactory().withModifier(modifier);
+			this.typeModifiers.add(modifier);
+		}
+		
+		@Override
+		public void setClassIntrospector(final ClassIntrospector ci) {
+			this.updateDeserializationConfig(c -> c.with(ci));
+			this.updateSerializationConfig(c -> c.with(ci));
+		}
+		
+		@Override
+		public void insertAnnotationIntrospector(final AnnotationIntrospector ai) {
+			this.updateDeserializationConfig(c -> c.withInsertedAnnotationIntrospector(ai));
+			this.updateSerializationConfig(c -> c.withInsertedAnnotationIntrospector(ai));
+		}
+		
+		@Override
+		public void appendAnnotationIntrospector(final AnnotationIntrospector ai) {
+			this.updateDeserializationConfig(c -> c.withAppendedAnnotationIntrospector(ai));
+			this.updateSerializationConfig(c -> c.withAppendedAnnotationIntrospector(ai));
+		}
+		
+		@Override
+		public void registerSubtypes(final Class<?>... subtypes) {
+			NullPolicyObjectMapper.this.registerSubtypes(subtypes);
+		}
+		
+		@Override
+		public void registerSubtypes(final NamedType... subtypes) {
+			NullPolicyObjectMapper.this.registerSubtypes(subtypes);
+		}
+		
+		@Override
+		public void registerSubtypes(final Collection<Class<?>> subtypes) {
+			NullPolicyObjectMapper.this.registerSubtypes(subtypes);
+		}
+		
+		@Override
+		public void setMixInAnnotations(final Class<?> target, final Class<?> mixinSource) {
+			NullPolicyObjectMapper.this.addMixIn(target, mixinSource);
+		}
+		
+		@Override
+		public void addDeserializationProblemHandler(final DeserializationProblemHandler handler) {
+			this.updateDeserializationConfig(c -> c.withHandler(handler));
+		}
+		
+		@Override
+		public void setNamingStrategy(final PropertyNamingStrategy naming) {
+			this.updateSerializationConfig(c -> c.with(naming));
+			this.updateDeserializationConfig(c -> c.with(naming));
+		}
+	}
+}
@@ -0,0 +1,359 @@
+package de.ooch.jackson.databind;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ContainerNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Reads a tree from a large document in parallel: a
+ * {@link StructuralIndex} of the document locates the elements of its large
+ * objects and arrays, whose runs of small elements are then read by regular
+ * parsers in {@link RecursiveTask}s, and stitched together in input order.
+ * The tasks run on the {@link java.util.concurrent.ForkJoinPool} of the
+ * calling thread, or on the common pool.
+ * <p>
+ * A run of elements is read as an object or array of its own, by wrapping
+ * its bytes in a pair of brackets, so that each element is read exactly as
+ * {@link NullPolicyObjectMapper#readTree(byte[])} would read it. Whenever the
+ * document cannot be indexed, or any part of it fails to read, the whole
+ * document is read again by a single parser, which reports the failure with
+ * its exact location.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+final class ParallelTree {
+	/**
+	 * The maximum size of a run of elements, that is read by a single task.
+	 */
+	static final int RUN_SIZE = 64 * 1024;
+	
+	private final NullPolicyObjectMapper mapper;
+	
+	private final byte[] content;
+	
+	private ParallelTree(final NullPolicyObjectMapper mapper, final byte[] content) {
+		this.mapper = mapper;
+		this.content = content;
+	}
+	
+	/**
+	 * Reads a tree from the given document, in parallel, if it is large.
+	 */
+	static JsonNode readTree(final NullPolicyObjectMapper mapper, final byte[] content) throws IOException {
+		final JsonFactory factory = mapper.getFactory();
+		if (content.length < 2 * ParallelTree.RUN_SIZE || factory.isEnabled(JsonParser.Feature.ALLOW_COMMENTS)
+				|| factory.isEnabled(JsonParser.Feature.ALLOW_YAML_COMMENTS) || factory.isEnabled(JsonParser.Feature.ALLOW_SINGLE_QUOTES)
+				|| factory.isEnabled(JsonParser.Feature.ALLOW_MISSING_VALUES) || factory.isEnabled(JsonParser.Feature.ALLOW_TRAILING_COMMA)) {
+			return mapper.readTree(content);
+		}
+		final StructuralIndex.Container root = StructuralIndex.index(content, 0, content.length, 2 * ParallelTree.RUN_SIZE);
+		if (root == null || !ParallelTree.isWhitespace(content, root.end + 1, content.length)) {
+			return mapper.readTree(content);
+		}
+		try {
+			return new ParallelTree(mapper, content).new Build(root, 0, root.size(content)).invoke().get(0);
+		} catch (final UncheckedIOException | Malformed e) {
+			return mapper.readTree(content);
+		}
+	}
+	
+	/**
+	 * Reads the given stream to its end, expecting the given number of bytes.
+	 */
+	static byte[] readFully(final InputStream in, final int expected) throws IOException {
+		byte[] content = new byte[Math.max(expected, 1)];
+		int length = 0;
+		int n;
+		while ((n = in.read(content, length, content.length - length)) >= 0) {
+			length += n;
+			if (length == content.length) {
+				final int next = in.read();
+				if (next < 0) {
+					break;
+				}
+				if (length > Integer.MAX_VALUE - 9) {
+					throw new IOException("content exceeds the maximum size of a byte[]");
+				}
+				content = Arrays.copyOf(content, (int) Math.min(Integer.MAX_VALUE - 8L, 2L * length));
+				content[length++] = (byte) next;
+			}
+		}
+		return length == content.length ? content : Arrays.copyOf(content, length);
+	}
+	
+	private static boolean isWhitespace(final byte[] b, final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			if (!StructuralIndex.isWhitespace(b[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Reads the given elements of the given container.
+	 */
+	private final class Build extends RecursiveTask<List<JsonNode>> {
+		private static final long serialVersionUID = 1L;
+		
+		private final StructuralIndex.Container container;
+		
+		private final int from;
+		
+		private final int to;
+		
+		Build(final StructuralIndex.Container container, final int from, final int to) {
+			this.container = container;
+			this.from = from;
+			this.to = to;
+		}
+		
+		/**
+		 * Returns the whole container, if this task reads all of its elements,
+		 * or else the parts of the container, that hold the elements in
+		 * order.
+		 */
+		@Override
+		protected List<JsonNode> compute() {
+			final List<JsonNode> parts = this.parts();
+			if (this.from == 0 && this.to == this.container.size(ParallelTree.this.content)) {
+				return Collections.singletonList(this.stitch(parts));
+			}
+			return parts;
+		}
+		
+		private List<JsonNode> parts() {
+			if (this.to <= this.from) {
+				return Collections.singletonList(this.read(this.from, this.to));
+			}
+			final StructuralIndex.Container child = this.child();
+			if (child == null && (this.to - this.from == 1
+					|| this.container.elementEnd(this.to - 1) - this.container.elementStart(this.from) <= ParallelTree.RUN_SIZE)) {
+				return Collections.singletonList(this.read(this.from, this.to));
+			}
+			if (child != null && this.to - this.from == 1) {
+				return Collections.singletonList(this.member(child));
+			}
+			final int mid = (this.from + this.to) >>> 1;
+			final Build left = new Build(this.container, this.from, mid);
+			left.fork();
+			final List<JsonNode> right = new Build(this.container, mid, this.to).parts();
+			final List<JsonNode> parts = new ArrayList<>(left.join());
+			parts.addAll(right);
+			return parts;
+		}
+		
+		/**
+		 * Returns the first indexed child within the elements of this task,
+		 * or {@code null}.
+		 */
+		private StructuralIndex.Container child() {
+			final List<StructuralIndex.Container> children = this.container.children;
+			if (children == null) {
+				return null;
+			}
+			final int start = this.container.elementStart(this.from);
+			final int end = this.container.elementEnd(this.to - 1);
+			int low = 0;
+			int high = children.size();
+			while (low < high) {
+				final int mid = (low + high) >>> 1;
+				if (children.get(mid).start < start) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low < children.size() && children.get(low).start < end ? children.get(low) : null;
+		}
+		
+		/**
+		 * Reads the given run of elements, which contains no indexed child, as
+		 * a container of its own. A blank element would be read as an empty
+		 * run, and thus be dropped, rather than rejected.
+		 */
+		private JsonNode read(final int first, final int last) {
+			final byte[] b = ParallelTree.this.content;
+			for (int i = first; i < last; i++) {
+				if (ParallelTree.isWhitespace(b, this.container.elementStart(i), this.container.elementEnd(i))) {
+					throw new Malformed();
+				}
+			}
+			final int start = first < last ? this.container.elementStart(first) : this.container.start + 1;
+			final int end = first < last ? this.container.elementEnd(last - 1) : this.container.end;
+			try {
+				return ParallelTree.this.mapper.readTree(new Run(this.container.object, ParallelTree.this.content, start, end));
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		
+		/**
+		 * Reads the single element of this task, whose value is the given
+		 * indexed child.
+		 */
+		private JsonNode member(final StructuralIndex.Container child) {
+			final byte[] b = ParallelTree.this.content;
+			final int start = this.container.elementStart(this.from);
+			final int end = this.container.elementEnd(this.from);
+			int valueStart = start;
+			String name = null;
+			if (this.container.object) {
+				final int i = Arrays.binarySearch(this.container.colons, child.start);
+				final int colon = i >= 0 ? -1 : -i - 2 >= 0 ? this.container.colons[-i - 2] : -1;
+				if (colon < start) {
+					throw new Malformed();
+				}
+				name = this.name(start, colon);
+				valueStart = colon + 1;
+			}
+			if (!ParallelTree.isWhitespace(b, valueStart, child.start) || !ParallelTree.isWhitespace(b, child.end + 1, end)) {
+				throw new Malformed();
+			}
+			final JsonNode value = new Build(child, 0, child.size(b)).compute().get(0);
+			if (name == null) {
+				return ParallelTree.this.mapper.getNodeFactory().arrayNode().add(value);
+			}
+			final ObjectNode node = ParallelTree.this.mapper.getNodeFactory().objectNode();
+			node.replace(name, value);
+			return node;
+		}
+		
+		/**
+		 * Reads the name of a member, which must be the only token of the
+		 * given range.
+		 */
+		private String name(final int start, final int end) {
+			try (JsonParser p = ParallelTree.this.mapper.getFactory().createParser(ParallelTree.this.content, start, end - start)) {
+				if (p.nextToken() != JsonToken.VALUE_STRING) {
+					throw new Malformed();
+				}
+				final String name = p.getText();
+				if (p.nextToken() != null) {
+					throw new Malformed();
+				}
+				return name;
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		
+		/**
+		 * Stitches the given parts of this container together.
+		 */
+		private JsonNode stitch(final List<JsonNode> parts) {
+			if (parts.size() == 1) {
+				return parts.get(0);
+			}
+			final ContainerNode<?> node;
+			if (this.container.object) {
+				final boolean failOnDuplicates = ParallelTree.this.mapper.isEnabled(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
+				final ObjectNode object = ParallelTree.this.mapper.getNodeFactory().objectNode();
+				for (final JsonNode part : parts) {
+					for (final Iterator<Map.Entry<String, JsonNode>> fields = part.fields(); fields.hasNext();) {
+						final Map.Entry<String, JsonNode> field = fields.next();
+						if (object.replace(field.getKey(), field.getValue()) != null && failOnDuplicates) {
+							throw new Malformed();
+						}
+					}
+				}
+				node = object;
+			} else {
+				final ArrayNode array = ParallelTree.this.mapper.getNodeFactory().arrayNode();
+				for (final JsonNode part : parts) {
+					array.addAll((ArrayNode) part);
+				}
+				node = array;
+			}
+			return node;
+		}
+	}
+	
+	/**
+	 * The bytes of a run of elements, wrapped in a pair of brackets.
+	 */
+	private static final class Run extends InputStream {
+		private final byte open;
+		
+		private final byte close;
+		
+		private final byte[] content;
+		
+		private int position;
+		
+		private final int end;
+		
+		private int state;
+		
+		Run(final boolean object, final byte[] content, final int start, final int end) {
+			this.open = (byte) (object ? '{' : '[');
+			this.close = (byte) (object ? '}' : ']');
+			this.content = content;
+			this.position = start;
+			this.end = end;
+		}
+		
+		@Override
+		public int read() {
+			if (this.state == 0) {
+				this.state = 1;
+				return this.open;
+			}
+			if (this.position < this.end) {
+				return this.content[this.position++] & 0xFF;
+			}
+			if (this.state == 1) {
+				this.state = 2;
+				return this.close;
+			}
+			return -1;
+		}
+		
+		@Override
+		public int read(final byte[] b, final int off, final int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (this.state == 0 || this.position == this.end) {
+				final int c = this.read();
+				if (c < 0) {
+					return -1;
+				}
+				b[off] = (byte) c;
+				return 1;
+			}
+			final int n = Math.min(len, this.end - this.position);
+			System.arraycopy(this.content, this.position, b, off, n);
+			this.position += n;
+			return n;
+		}
+	}
+	
+	/**
+	 * Signals a document, that is malformed in a way, that only a regular
+	 * parser can report properly.
+	 */
+	private static final class Malformed extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		
+		Malformed() {
+			super(null, null, false, false);
+		}
+	}
+}
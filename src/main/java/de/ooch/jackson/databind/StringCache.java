@@ -0,0 +1,192 @@
+package de.ooch.jackson.databind;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A size-bounded cache of short strings, which a
+ * {@link NullPolicyObjectMapper} shares between the string values it reads,
+ * and exposes its hit and miss counts (see
+ * {@link NullPolicyObjectMapper#setStringCache(StringCache)}).
+ * <p>
+ * Every occurrence of a string value is read as a new {@link String}, even if
+ * the same few values (e.g. status codes) occur over and over again. This
+ * cache keeps the most recent string per slot of its table, and returns it
+ * for a string of the same characters, so that a tree or a map of many equal
+ * strings retains only one of them, and a hit does not allocate a string at
+ * all. The cache never blocks: a string is looked up by a plain read of its
+ * slot, and replaces the string of another hash in that slot, which is safe,
+ * since strings are immutable. Hence, two threads may miss the same string at
+ * the same time, and store their own copies of it, one after the other.
+ * Strings of more than {@link #getMaxLength()} characters are neither cached
+ * nor counted.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+public class StringCache implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * The default maximum number of entries.
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 4096;
+	
+	/**
+	 * The default maximum length of a cached string.
+	 */
+	public static final int DEFAULT_MAX_LENGTH = 32;
+	
+	private final int maxEntries;
+	
+	private final int maxLength;
+	
+	private final transient String[] entries;
+	
+	private final transient LongAdder hits = new LongAdder();
+	
+	private final transient LongAdder misses = new LongAdder();
+	
+	/**
+	 * Constructs a cache of at most {@link #DEFAULT_MAX_ENTRIES} strings of
+	 * at most {@link #DEFAULT_MAX_LENGTH} characters.
+	 */
+	public StringCache() {
+		this(StringCache.DEFAULT_MAX_ENTRIES, StringCache.DEFAULT_MAX_LENGTH);
+	}
+	
+	/**
+	 * Constructs a cache of at most the given number of strings, rounded down
+	 * to a power of two, of at most the given number of characters.
+	 */
+	public StringCache(final int maxEntries, final int maxLength) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+		} else if (maxLength < 0) {
+			throw new IllegalArgumentException("maxLength must not be negative: " + maxLength);
+		}
+		this.maxEntries = Integer.highestOneBit(maxEntries);
+		this.maxLength = maxLength;
+		this.entries = new String[this.maxEntries];
+	}
+	
+	/**
+	 * Returns the cached string of the given characters, or a new one, which
+	 * is cached in turn, if it is not too long.
+	 */
+	public String intern(final char[] chars, final int offset, final int length) {
+		if (length > this.maxLength) {
+			return new String(chars, offset, length);
+		}
+		int hash = 0;
+		for (int i = offset; i < offset + length; i++) {
+			hash = 31 * hash + chars[i];
+		}
+		final int slot = StringCache.slot(hash, this.entries.length);
+		final String cached = this.entries[slot];
+		if (cached != null && StringCache.equals(cached, chars, offset, length)) {
+			this.hits.increment();
+			return cached;
+		}
+		this.misses.increment();
+		final String s = new String(chars, offset, length);
+		this.entries[slot] = s;
+		return s;
+	}
+	
+	/**
+	 * Returns the cached string, that equals the given one, or else the given
+	 * string, which is cached in turn, if it is not too long.
+	 */
+	public String intern(final String s) {
+		if (s == null || s.length() > this.maxLength) {
+			return s;
+		}
+		final int slot = StringCache.slot(s.hashCode(), this.entries.length);
+		final String cached = this.entries[slot];
+		if (s.equals(cached)) {
+			this.hits.increment();
+			return cached;
+		}
+		this.misses.increment();
+		this.entries[slot] = s;
+		return s;
+	}
+	
+	/**
+	 * Returns the slot of the given {@link String#hashCode() hash}.
+	 */
+	private static int slot(final int hash, final int length) {
+		return (hash ^ hash >>> 16) & length - 1;
+	}
+	
+	private static boolean equals(final String s, final char[] chars, final int offset, final int length) {
+		if (s.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (s.charAt(i) != chars[offset + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Removes all strings. The counts are kept.
+	 */
+	public void clear() {
+		Arrays.fill(this.entries, null);
+	}
+	
+	/**
+	 * Returns the maximum number of entries.
+	 */
+	public int getMaxEntries() {
+		return this.maxEntries;
+	}
+	
+	/**
+	 * Returns the maximum length of a cached string.
+	 */
+	public int getMaxLength() {
+		return this.maxLength;
+	}
+	
+	/**
+	 * Returns the number of lookups, that found the string.
+	 */
+	public long getHitCount() {
+		return this.hits.sum();
+	}
+	
+	/**
+	 * Returns the number of lookups, that did not find the string.
+	 */
+	public long getMissCount() {
+		return this.misses.sum();
+	}
+	
+	/**
+	 * Returns the ratio of lookups, that found the string, or {@code NaN} if
+	 * there were no lookups yet.
+	 */
+	public double getHitRate() {
+		final long found = this.hits.sum();
+		final long lookups = found + this.misses.sum();
+		return lookups == 0 ? Double.NaN : (double) found / lookups;
+	}
+	
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + "[maxEntries=" + this.maxEntries + ", maxLength=" + this.maxLength + ", hits="
+				+ this.getHitCount() + ", misses=" + this.getMissCount() + "]";
+	}
+	
+	/**
+	 * Replaces a deserialized cache by an empty one of the same bounds.
+	 */
+	protected Object readResolve() {
+		return new StringCache(this.maxEntries, this.maxLength);
+	}
+}
@@ -0,0 +1,202 @@
+package de.ooch.jackson.databind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An index of the structure of a JSON document in a {@code byte[]}, built in
+ * a single pass, which only tells strings apart from the structural
+ * characters {@code {}[]:,} outside strings, without parsing any value.
+ * Strings are skipped a word at a time by a {@link StructuralScanner}.
+ * <p>
+ * The index holds a {@link Container} for the root value, and for every
+ * nested object or array of at least a given size, along with the positions
+ * of the commas and colons directly inside it, so that its elements can be
+ * located without scanning it again. The separators of smaller containers
+ * are discarded, once they are closed, so that the index stays small
+ * compared to the document. Only UTF-8 (or ASCII) input without comments or
+ * single quotes is supported. A malformed document is not indexed, but left
+ * to a regular parser to report.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+final class StructuralIndex {
+	private StructuralIndex() {
+		// no instances
+	}
+	
+	/**
+	 * Indexes the root value of the given range, which must be an object or
+	 * an array, and returns its container, or {@code null}, if the root value
+	 * is not a container, or is malformed. Content after the root value is not
+	 * examined.
+	 */
+	static Container index(final byte[] b, final int off, final int len, final int minSize) {
+		final int to = off + len;
+		int i = off;
+		while (i < to && StructuralIndex.isWhitespace(b[i])) {
+			i++;
+		}
+		if (i == to || b[i] != '{' && b[i] != '[') {
+			return null;
+		}
+		final StructuralScanner scanner = new StructuralScanner(b, to);
+		Container[] stack = new Container[16];
+		IntList[] commas = new IntList[16];
+		IntList[] colons = new IntList[16];
+		int depth = -1;
+		for (; i < to; i++) {
+			switch (b[i]) {
+			case '"':
+				i = scanner.skipString(i + 1);
+				if (i < 0) {
+					return null;
+				}
+				break;
+			case '{':
+			case '[':
+				if (++depth == stack.length) {
+					stack = Arrays.copyOf(stack, depth * 2);
+					commas = Arrays.copyOf(commas, depth * 2);
+					colons = Arrays.copyOf(colons, depth * 2);
+				}
+				if (commas[depth] == null) {
+					commas[depth] = new IntList();
+					colons[depth] = new IntList();
+				}
+				stack[depth] = new Container(i, b[i] == '{');
+				break;
+			case '}':
+			case ']':
+				if (depth < 0 || stack[depth].object != (b[i] == '}')) {
+					return null;
+				}
+				final Container container = stack[depth];
+				container.end = i;
+				if (depth == 0 || i + 1 - container.start >= minSize) {
+					container.commas = commas[depth].toArray();
+					container.colons = container.object ? colons[depth].toArray() : null;
+					if (depth > 0) {
+						stack[depth - 1].add(container);
+					}
+				}
+				commas[depth].clear();
+				colons[depth].clear();
+				stack[depth--] = null;
+				if (depth < 0) {
+					return container;
+				}
+				break;
+			case ',':
+				commas[depth].add(i);
+				break;
+			case ':':
+				colons[depth].add(i);
+				break;
+			default:
+				break;
+			}
+		}
+		return null;
+	}
+	
+	static boolean isWhitespace(final byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+	}
+	
+	/**
+	 * An object or an array, that spans the bytes from {@link #start} (the
+	 * opening bracket) to {@link #end} (the closing bracket).
+	 */
+	static final class Container {
+		final int start;
+		
+		final boolean object;
+		
+		int end;
+		
+		/**
+		 * The positions of the commas directly inside this container.
+		 */
+		int[] commas;
+		
+		/**
+		 * The positions of the colons directly inside this object, or
+		 * {@code null} for an array.
+		 */
+		int[] colons;
+		
+		/**
+		 * The indexed containers directly inside this container, in input
+		 * order, or {@code null}.
+		 */
+		List<Container> children;
+		
+		Container(final int start, final boolean object) {
+			this.start = start;
+			this.object = object;
+		}
+		
+		void add(final Container child) {
+			if (this.children == null) {
+				this.children = new ArrayList<>();
+			}
+			this.children.add(child);
+		}
+		
+		/**
+		 * Returns the number of elements (or members), which is one more than
+		 * the number of commas, unless the container is empty.
+		 */
+		int size(final byte[] b) {
+			if (this.commas.length > 0) {
+				return this.commas.length + 1;
+			}
+			for (int i = this.start + 1; i < this.end; i++) {
+				if (!StructuralIndex.isWhitespace(b[i])) {
+					return 1;
+				}
+			}
+			return 0;
+		}
+		
+		/**
+		 * Returns the position of the first byte of the given element.
+		 */
+		int elementStart(final int index) {
+			return index == 0 ? this.start + 1 : this.commas[index - 1] + 1;
+		}
+		
+		/**
+		 * Returns the position after the last byte of the given element.
+		 */
+		int elementEnd(final int index) {
+			return index == this.commas.length ? this.end : this.commas[index];
+		}
+	}
+	
+	/**
+	 * A growable list of positions.
+	 */
+	private static final class IntList {
+		private int[] values = new int[16];
+		
+		private int size;
+		
+		void add(final int value) {
+			if (this.size == this.values.length) {
+				this.values = Arrays.copyOf(this.values, this.size * 2);
+			}
+			this.values[this.size++] = value;
+		}
+		
+		void clear() {
+			this.size = 0;
+		}
+		
+		int[] toArray() {
+			return Arrays.copyOf(this.values, this.size);
+		}
+	}
+}
@@ -0,0 +1,588 @@
+package de.ooch.jackson.databind;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+
+/**
+ * Scans JSON in a {@code byte[]} a word at a time, rather than a byte at a
+ * time: the bytes of a string are tested eight at a time for quotes,
+ * backslashes, control characters and non-ASCII bytes, with the usual
+ * SIMD-within-a-register arithmetic on {@code long}s, so that the common
+ * case of plain ASCII text is skipped in a few instructions per word. Only
+ * the bytes around a hit are looked at one by one.
+ * <p>
+ * The scanner backs the {@link #isValid(byte[], int, int) validation} of
+ * documents against RFC 8259, which needs no tokens, and the
+ * {@link #locate(byte[], int, int, JsonPointer) location} of a single value,
+ * which skips everything before it by its structure only. Both work on
+ * standard JSON in UTF-8 only. The words are read through a little-endian
+ * {@link ByteBuffer} view of the array, whose {@link ByteBuffer#getLong(int)}
+ * compiles to a single load on Java 9 and later.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+final class StructuralScanner {
+	/**
+	 * The features, that make a parser accept content, which is not standard
+	 * JSON.
+	 */
+	private static final Set<JsonParser.Feature> NON_STANDARD = EnumSet.of(JsonParser.Feature.ALLOW_COMMENTS, JsonParser.Feature.ALLOW_YAML_COMMENTS,
+			JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, JsonParser.Feature.ALLOW_SINGLE_QUOTES, JsonParser.Feature.ALLOW_UNQUOTED_CONTROL_CHARS,
+			JsonParser.Feature.ALLOW_BACKSLASH_ESCAPING_ANY_CHARACTER, JsonParser.Feature.ALLOW_NUMERIC_LEADING_ZEROS,
+			JsonParser.Feature.ALLOW_NON_NUMERIC_NUMBERS, JsonParser.Feature.ALLOW_MISSING_VALUES, JsonParser.Feature.ALLOW_TRAILING_COMMA);
+	
+	private static final long ONES = 0x0101010101010101L;
+	
+	private static final long HIGHS = 0x8080808080808080L;
+	
+	private static final long QUOTES = StructuralScanner.ONES * '"';
+	
+	private static final long BACKSLASHES = StructuralScanner.ONES * '\\';
+	
+	private static final long SPACES = StructuralScanner.ONES * ' ';
+	
+	/**
+	 * Returned by {@link #locate(byte[], int, int, JsonPointer)}, if the
+	 * pointer does not match any value.
+	 */
+	static final int MISSING = -1;
+	
+	/**
+	 * Returned by {@link #locate(byte[], int, int, JsonPointer)}, if the
+	 * content is malformed.
+	 */
+	static final int MALFORMED = -2;
+	
+	private final byte[] b;
+	
+	private final ByteBuffer words;
+	
+	private final int to;
+	
+	/**
+	 * Creates a scanner of the given array up to the given position.
+	 */
+	StructuralScanner(final byte[] b, final int to) {
+		this.b = b;
+		this.words = ByteBuffer.wrap(b).order(ByteOrder.LITTLE_ENDIAN);
+		this.to = to;
+	}
+	
+	/**
+	 * Returns a mask with the high bit set in the lowest byte of the given
+	 * word, that equals the byte repeated in the given pattern, and possibly in
+	 * higher bytes.
+	 */
+	private static long matches(final long word, final long pattern) {
+		final long x = word ^ pattern;
+		return x - StructuralScanner.ONES & ~x & StructuralScanner.HIGHS;
+	}
+	
+	/**
+	 * Returns the position of the closing quote of the string, whose content
+	 * starts at the given position, or {@code -1}, if there is none. Escapes
+	 * are skipped, but not validated.
+	 */
+	int skipString(int i) {
+		for (;;) {
+			while (i + 8 <= this.to) {
+				final long word = this.words.getLong(i);
+				final long hits = StructuralScanner.matches(word, StructuralScanner.QUOTES) | StructuralScanner.matches(word, StructuralScanner.BACKSLASHES);
+				if (hits != 0) {
+					i += Long.numberOfTrailingZeros(hits) >>> 3;
+					break;
+				}
+				i += 8;
+			}
+			while (i < this.to && this.b[i] != '"' && this.b[i] != '\\') {
+				i++;
+			}
+			if (i >= this.to) {
+				return -1;
+			}
+			if (this.b[i] == '"') {
+				return i;
+			}
+			i += 2;
+		}
+	}
+	
+	/**
+	 * Returns the position of the closing quote of the string, whose content
+	 * starts at the given position, or {@code -1}, if there is none, or if the
+	 * string contains a control character, an invalid escape or invalid
+	 * UTF-8.
+	 */
+	private int validateString(int i) {
+		for (;;) {
+			while (i + 8 <= this.to) {
+				final long word = this.words.getLong(i);
+				final long hits = StructuralScanner.matches(word, StructuralScanner.QUOTES) | StructuralScanner.matches(word, StructuralScanner.BACKSLASHES)
+						| word - StructuralScanner.SPACES & ~word & StructuralScanner.HIGHS | word & StructuralScanner.HIGHS;
+				if (hits != 0) {
+					i += Long.numberOfTrailingZeros(hits) >>> 3;
+					break;
+				}
+				i += 8;
+			}
+			if (i >= this.to) {
+				return -1;
+			}
+			final int c = this.b[i] & 0xFF;
+			if (c == '"') {
+				return i;
+			} else if (c == '\\') {
+				i = this.validateEscape(i + 1);
+			} else if (c < 0x20) {
+				return -1;
+			} else if (c >= 0x80) {
+				i = this.validateUtf8(i, c);
+			} else {
+				i++;
+			}
+			if (i < 0) {
+				return -1;
+			}
+		}
+	}
+	
+	private int validateEscape(final int i) {
+		if (i >= this.to) {
+			return -1;
+		}
+		switch (this.b[i]) {
+		case '"':
+		case '\\':
+		case '/':
+		case 'b':
+		case 'f':
+		case 'n':
+		case 'r':
+		case 't':
+			return i + 1;
+		case 'u':
+			if (i + 5 > this.to) {
+				return -1;
+			}
+			for (int j = i + 1; j < i + 5; j++) {
+				if (Character.digit(this.b[j], 16) < 0) {
+					return -1;
+				}
+			}
+			return i + 5;
+		default:
+			return -1;
+		}
+	}
+	
+	/**
+	 * Validates the UTF-8 sequence, that starts with the given non-ASCII
+	 * byte, rejecting overlong encodings, surrogates and code points beyond
+	 * U+10FFFF, and returns the position after it, or {@code -1}.
+	 */
+	private int validateUtf8(final int i, final int c) {
+		final int length;
+		int min;
+		int max = 0xBF;
+		if (c >= 0xC2 && c <= 0xDF) {
+			return this.isContinuation(i + 1, 0x80, 0xBF) ? i + 2 : -1;
+		} else if (c >= 0xE0 && c <= 0xEF) {
+			length = 3;
+			min = c == 0xE0 ? 0xA0 : 0x80;
+			max = c == 0xED ? 0x9F : 0xBF;
+		} else if (c >= 0xF0 && c <= 0xF4) {
+			length = 4;
+			min = c == 0xF0 ? 0x90 : 0x80;
+			max = c == 0xF4 ? 0x8F : 0xBF;
+		} else {
+			return -1;
+		}
+		if (!this.isContinuation(i + 1, min, max)) {
+			return -1;
+		}
+		for (int j = i + 2; j < i + length; j++) {
+			if (!this.isContinuation(j, 0x80, 0xBF)) {
+				return -1;
+			}
+		}
+		return i + length;
+	}
+	
+	private boolean isContinuation(final int i, final int min, final int max) {
+		if (i >= this.to) {
+			return false;
+		}
+		final int c = this.b[i] & 0xFF;
+		return c >= min && c <= max;
+	}
+	
+	private int validateNumber(int i) {
+		if (this.b[i] == '-') {
+			i++;
+		}
+		if (i >= this.to) {
+			return -1;
+		}
+		if (this.b[i] == '0') {
+			i++;
+		} else if (this.isDigit(i)) {
+			i = this.skipDigits(i);
+		} else {
+			return -1;
+		}
+		if (i < this.to && this.b[i] == '.') {
+			if (!this.isDigit(++i)) {
+				return -1;
+			}
+			i = this.skipDigits(i);
+		}
+		if (i < this.to && (this.b[i] == 'e' || this.b[i] == 'E')) {
+			if (++i < this.to && (this.b[i] == '+' || this.b[i] == '-')) {
+				i++;
+			}
+			if (!this.isDigit(i)) {
+				return -1;
+			}
+			i = this.skipDigits(i);
+		}
+		return i;
+	}
+	
+	private boolean isDigit(final int i) {
+		return i < this.to && this.b[i] >= '0' && this.b[i] <= '9';
+	}
+	
+	private int skipDigits(int i) {
+		while (this.isDigit(i)) {
+			i++;
+		}
+		return i;
+	}
+	
+	private int validateLiteral(final int i, final String literal) {
+		if (i + literal.length() > this.to) {
+			return -1;
+		}
+		for (int j = 0; j < literal.length(); j++) {
+			if (this.b[i + j] != literal.charAt(j)) {
+				return -1;
+			}
+		}
+		return i + literal.length();
+	}
+	
+	int skipWhitespace(int i) {
+		while (i < this.to && StructuralIndex.isWhitespace(this.b[i])) {
+			i++;
+		}
+		return i;
+	}
+	
+	/**
+	 * Returns whether the given range can be scanned in place of a parser of
+	 * the given factory: the factory must accept standard JSON only, and the
+	 * content must not start like UTF-16 or UTF-32.
+	 */
+	static boolean supports(final JsonFactory factory, final byte[] b, final int off, final int len) {
+		for (final JsonParser.Feature feature : StructuralScanner.NON_STANDARD) {
+			if (factory.isEnabled(feature)) {
+				return false;
+			}
+		}
+		return len < 2 || b[off] != 0 && b[off + 1] != 0 && (b[off] & 0xFE) != 0xFE;
+	}
+	
+	/**
+	 * Returns the position after the UTF-8 byte order mark, that the given
+	 * range starts with, or else the start of the range.
+	 */
+	int skipBom(final int off) {
+		return off + 3 <= this.to && (this.b[off] & 0xFF) == 0xEF && (this.b[off + 1] & 0xFF) == 0xBB && (this.b[off + 2] & 0xFF) == 0xBF ? off + 3 : off;
+	}
+	
+	/**
+	 * Returns whether the given range holds exactly one valid JSON value,
+	 * optionally surrounded by whitespace.
+	 */
+	static boolean isValid(final byte[] b, final int off, final int len) {
+		final StructuralScanner scanner = new StructuralScanner(b, off + len);
+		return scanner.validate(scanner.skipBom(off));
+	}
+	
+	private boolean validate(int i) {
+		// the kinds of the open containers, true for objects
+		boolean[] stack = new boolean[16];
+		int depth = -1;
+		boolean value = true;
+		for (;;) {
+			i = this.skipWhitespace(i);
+			if (i >= this.to) {
+				return false;
+			}
+			final byte c = this.b[i];
+			if (value) {
+				switch (c) {
+				case '{':
+				case '[':
+					if (++depth == stack.length) {
+						stack = Arrays.copyOf(stack, depth * 2);
+					}
+					stack[depth] = c == '{';
+					i = this.skipWhitespace(i + 1);
+					if (i < this.to && this.b[i] == (c == '{' ? '}' : ']')) {
+						depth--;
+						i++;
+						value = false;
+					} else if (c == '{') {
+						i = this.validateName(i);
+					}
+					break;
+				case '"':
+					i = this.validateString(i + 1) + 1;
+					value = false;
+					break;
+				case 't':
+					i = this.validateLiteral(i, "true");
+					value = false;
+					break;
+				case 'f':
+					i = this.validateLiteral(i, "false");
+					value = false;
+					break;
+				case 'n':
+					i = this.validateLiteral(i, "null");
+					value = false;
+					break;
+				default:
+					i = this.validateNumber(i);
+					value = false;
+					break;
+				}
+				if (i <= 0) {
+					return false;
+				}
+				if (depth < 0) {
+					return this.skipWhitespace(i) == this.to;
+				}
+				continue;
+			}
+			if (c == ',') {
+				i = stack[depth] ? this.validateName(this.skipWhitespace(i + 1)) : i + 1;
+				if (i < 0) {
+					return false;
+				}
+				value = true;
+			} else if (c == (stack[depth] ? '}' : ']')) {
+				if (--depth < 0) {
+					return this.skipWhitespace(i + 1) == this.to;
+				}
+				i++;
+			} else {
+				return false;
+			}
+		}
+	}
+	
+	/**
+	 * Validates the name and colon of a member, and returns the position
+	 * after the colon, or {@code -1}.
+	 */
+	private int validateName(final int i) {
+		if (i >= this.to || this.b[i] != '"') {
+			return -1;
+		}
+		final int end = this.validateString(i + 1);
+		if (end < 0) {
+			return -1;
+		}
+		final int colon = this.skipWhitespace(end + 1);
+		return colon < this.to && this.b[colon] == ':' ? colon + 1 : -1;
+	}
+	
+	/**
+	 * Returns the position after the value, that starts at the given
+	 * position, or {@code -1}, if it does not end. The value is skipped by its
+	 * structure, without validating it.
+	 */
+	int skipValue(int i) {
+		switch (this.b[i]) {
+		case '"':
+			i = this.skipString(i + 1);
+			return i < 0 ? -1 : i + 1;
+		case '{':
+		case '[':
+			int depth = 0;
+			for (; i < this.to; i++) {
+				switch (this.b[i]) {
+				case '"':
+					i = this.skipString(i + 1);
+					if (i < 0) {
+						return -1;
+					}
+					break;
+				case '{':
+				case '[':
+					depth++;
+					break;
+				case '}':
+				case ']':
+					if (--depth == 0) {
+						return i + 1;
+					}
+					break;
+				default:
+					break;
+				}
+			}
+			return -1;
+		default:
+			while (i < this.to && !StructuralIndex.isWhitespace(this.b[i]) && this.b[i] != ',' && this.b[i] != ']' && this.b[i] != '}') {
+				i++;
+			}
+			return i;
+		}
+	}
+	
+	/**
+	 * Locates the value, that the given pointer refers to, and returns its
+	 * start and end position, packed into a {@code long} (the start in the
+	 * high half), or {@link #MISSING} or {@link #MALFORMED}. Names, that
+	 * contain escapes, are reported as {@link #MALFORMED} as well, so that a
+	 * regular parser decodes them.
+	 */
+	static long locate(final byte[] b, final int off, final int len, final JsonPointer pointer) {
+		final StructuralScanner scanner = new StructuralScanner(b, off + len);
+		return scanner.locate(scanner.skipBom(off), pointer);
+	}
+	
+	private long locate(final int off, final JsonPointer pointer) {
+		int i = this.skipWhitespace(off);
+		for (JsonPointer p = pointer; !p.matches(); p = p.tail()) {
+			if (i >= this.to) {
+				return StructuralScanner.MALFORMED;
+			}
+			if (this.b[i] == '{') {
+				i = this.member(i, p.getMatchingProperty().getBytes(StandardCharsets.UTF_8));
+			} else if (this.b[i] == '[') {
+				i = p.getMatchingIndex() < 0 ? StructuralScanner.MISSING : this.element(i, p.getMatchingIndex());
+			} else {
+				return StructuralScanner.MISSING;
+			}
+			if (i < 0) {
+				return i;
+			}
+		}
+		if (i >= this.to) {
+			return StructuralScanner.MALFORMED;
+		}
+		final int end = this.skipValue(i);
+		return end <= i ? StructuralScanner.MALFORMED : (long) i << 32 | end;
+	}
+	
+	/**
+	 * Returns the start of the value of the member with the given name in
+	 * the object, that starts at the given position.
+	 */
+	private int member(int i, final byte[] name) {
+		for (;;) {
+			i = this.skipWhitespace(i + 1);
+			if (i >= this.to || this.b[i] == '}') {
+				return StructuralScanner.MISSING;
+			}
+			if (this.b[i] != '"') {
+				return StructuralScanner.MALFORMED;
+			}
+			final int end = this.skipString(i + 1);
+			if (end < 0) {
+				return StructuralScanner.MALFORMED;
+			}
+			if (this.indexOf('\\', i + 1, end) >= 0) {
+				return StructuralScanner.MALFORMED;
+			}
+			final boolean matches = this.equals(i + 1, end, name);
+			i = this.skipWhitespace(end + 1);
+			if (i >= this.to || this.b[i] != ':') {
+				return StructuralScanner.MALFORMED;
+			}
+			i = this.skipWhitespace(i + 1);
+			if (matches) {
+				return i;
+			}
+			i = this.next(i);
+			if (i < 0) {
+				return i;
+			} else if (this.b[i] != ',') {
+				return this.b[i] == '}' ? StructuralScanner.MISSING : StructuralScanner.MALFORMED;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the start of the element with the given index in the array,
+	 * that starts at the given position.
+	 */
+	private int element(int i, final int index) {
+		i = this.skipWhitespace(i + 1);
+		if (i >= this.to || this.b[i] == ']') {
+			return StructuralScanner.MISSING;
+		}
+		for (int n = 0; n < index; n++) {
+			i = this.next(i);
+			if (i < 0) {
+				return i;
+			} else if (this.b[i] != ',') {
+				return this.b[i] == ']' ? StructuralScanner.MISSING : StructuralScanner.MALFORMED;
+			}
+			i = this.skipWhitespace(i + 1);
+		}
+		return i;
+	}
+	
+	/**
+	 * Skips the value at the given position, and returns the position of the
+	 * following comma or closing bracket.
+	 */
+	private int next(final int i) {
+		if (i >= this.to) {
+			return StructuralScanner.MALFORMED;
+		}
+		final int end = this.skipValue(i);
+		if (end < 0) {
+			return StructuralScanner.MALFORMED;
+		}
+		final int next = this.skipWhitespace(end);
+		if (next >= this.to || this.b[next] != ',' && this.b[next] != '}' && this.b[next] != ']') {
+			return StructuralScanner.MALFORMED;
+		}
+		return next;
+	}
+	
+	private int indexOf(final char c, final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			if (this.b[i] == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	private boolean equals(final int from, final int to, final byte[] name) {
+		if (to - from != name.length) {
+			return false;
+		}
+		for (int i = 0; i < name.length; i++) {
+			if (this.b[from + i] != name[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,173 @@
+package de.ooch.jackson.databind;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.util.LRUMap;
+
+/**
+ * A size-bounded cache of resolved {@link JavaType}s for a
+ * {@link TypeFactory}, which exposes its hit, miss and eviction counts (see
+ * {@link #install(ObjectMapper, int)}).
+ * <p>
+ * The default cache of a {@link TypeFactory} holds 200 entries, and drops all
+ * of them at once when it is full. Every thread then misses the cache at the
+ * same time, and resolves (and puts) the same types over again. This cache
+ * never blocks: lookups are plain reads of a
+ * {@link java.util.concurrent.ConcurrentHashMap}, the counters are
+ * {@link LongAdder}s, and a full cache evicts a quarter of its entries, in
+ * whatever order they are stored, by a single thread, while the other threads
+ * carry on. Hence, the bound is a soft one, and may be exceeded briefly during
+ * an eviction.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+public class TypeCache extends LRUMap<Object, JavaType> {
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * The default maximum number of entries.
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 1000;
+	
+	private final transient LongAdder hits = new LongAdder();
+	
+	private final transient LongAdder misses = new LongAdder();
+	
+	private final transient LongAdder evictions = new LongAdder();
+	
+	private final transient AtomicBoolean evicting = new AtomicBoolean();
+	
+	/**
+	 * Constructs a cache of at most {@link #DEFAULT_MAX_ENTRIES} entries.
+	 */
+	public TypeCache() {
+		this(TypeCache.DEFAULT_MAX_ENTRIES);
+	}
+	
+	/**
+	 * Constructs a cache of at most the given number of entries.
+	 */
+	public TypeCache(final int maxEntries) {
+		super(Math.min(maxEntries, 64), maxEntries);
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+		}
+		this._jdkSerializeMaxEntries = maxEntries;
+	}
+	
+	/**
+	 * Installs a new cache of at most the given number of entries into the
+	 * {@link TypeFactory} of the given mapper, and returns it. Note, that
+	 * registering the first module with a
+	 * {@link com.fasterxml.jackson.databind.type.TypeModifier} replaces the
+	 * cache by a default one, so this method should be called after all
+	 * modules have been registered.
+	 */
+	public static TypeCache install(final ObjectMapper mapper, final int maxEntries) {
+		final TypeCache cache = new TypeCache(maxEntries);
+		mapper.setTypeFactory(mapper.getTypeFactory().withCache(cache));
+		return cache;
+	}
+	
+	@Override
+	public JavaType get(final Object key) {
+		final JavaType type = this._map.get(key);
+		(type == null ? this.misses : this.hits).increment();
+		return type;
+	}
+	
+	@Override
+	public JavaType put(final Object key, final JavaType value) {
+		final JavaType previous = this._map.put(key, value);
+		if (previous == null) {
+			this.trim();
+		}
+		return previous;
+	}
+	
+	@Override
+	public JavaType putIfAbsent(final Object key, final JavaType value) {
+		final JavaType previous = this._map.putIfAbsent(key, value);
+		if (previous == null) {
+			this.trim();
+		}
+		return previous;
+	}
+	
+	/**
+	 * Evicts a quarter of the entries, if the cache holds more than the
+	 * maximum number of entries, and no other thread does so already.
+	 */
+	private void trim() {
+		if (this._map.size() <= this._maxEntries || !this.evicting.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			int excess = this._map.size() - this._maxEntries + this._maxEntries / 4;
+			final Iterator<Object> keys = this._map.keySet().iterator();
+			while (excess > 0 && keys.hasNext()) {
+				keys.next();
+				keys.remove();
+				this.evictions.increment();
+				excess--;
+			}
+		} finally {
+			this.evicting.set(false);
+		}
+	}
+	
+	/**
+	 * Returns the maximum number of entries.
+	 */
+	public int getMaxEntries() {
+		return this._maxEntries;
+	}
+	
+	/**
+	 * Returns the number of lookups, that found an entry.
+	 */
+	public long getHitCount() {
+		return this.hits.sum();
+	}
+	
+	/**
+	 * Returns the number of lookups, that found no entry.
+	 */
+	public long getMissCount() {
+		return this.misses.sum();
+	}
+	
+	/**
+	 * Returns the number of entries evicted due to the size bound. Entries
+	 * removed by {@link #clear()} are not counted.
+	 */
+	public long getEvictionCount() {
+		return this.evictions.sum();
+	}
+	
+	/**
+	 * Returns the ratio of lookups, that found an entry, or {@code NaN} if
+	 * there were no lookups yet.
+	 */
+	public double getHitRate() {
+		final long found = this.hits.sum();
+		final long lookups = found + this.misses.sum();
+		return lookups == 0 ? Double.NaN : (double) found / lookups;
+	}
+	
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + "[size=" + this.size() + ", maxEntries=" + this._maxEntries + ", hits=" + this.getHitCount()
+				+ ", misses=" + this.getMissCount() + ", evictions=" + this.getEvictionCount() + "]";
+	}
+	
+	@Override
+	protected Object readResolve() {
+		return new TypeCache(this._jdkSerializeMaxEntries > 0 ? this._jdkSerializeMaxEntries : TypeCache.DEFAULT_MAX_ENTRIES);
+	}
+}
@@ -0,0 +1,255 @@
+package de.ooch.jackson.databind;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * Resolves local URLs without a {@link java.net.URLConnection}: a
+ * {@code file:} URL resolves to its {@link File}, including a
+ * percent-encoded one, which a {@link JsonFactory} would open through
+ * {@link URL#openStream()}, and a {@code jar:file:} URL resolves to the
+ * entry of a {@link ZipFile}, rather than to a
+ * {@link java.net.JarURLConnection}. Any other URL, including a nested
+ * {@code jar:} URL, is opened by the factory.
+ * <p>
+ * Like a {@link java.net.JarURLConnection}, the zip files are cached, so
+ * that the central directory of a jar is not read again for each entry.
+ * Unlike its cache, which keeps the jar files open for good, the cache is
+ * bounded, closes the least recently used zip files, and reopens a zip
+ * file, that has changed on disk (see {@link CachedZipFile}). Since a zip
+ * file is released, once its entry is closed, a {@code jar:file:} URL is
+ * opened by the factory as well, if the factory does not close the source
+ * of a parser ({@link JsonParser.Feature#AUTO_CLOSE_SOURCE}).
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+final class UrlSource {
+	private UrlSource() {
+	}
+	
+	/**
+	 * Returns the file of the given {@code file:} URL, or {@code null} if the
+	 * URL is not a local {@code file:} URL.
+	 */
+	static File file(final URL url) {
+		if (!"file".equals(url.getProtocol())) {
+			return null;
+		}
+		final String host = url.getHost();
+		final String path = url.getPath();
+		if ((host == null || host.isEmpty()) && url.getQuery() == null && url.getRef() == null && path.indexOf('%') < 0) {
+			// like the factory, without parsing an URI
+			return new File(path);
+		}
+		return UrlSource.file(url.toString());
+	}
+	
+	private static File file(final String uri) {
+		try {
+			return new File(new URI(uri));
+		} catch (final URISyntaxException | IllegalArgumentException e) {
+			// not hierarchical, with authority, query or fragment
+			return null;
+		}
+	}
+	
+	/**
+	 * Creates a parser for the content of the given URL, reading the entry of
+	 * a {@code jar:file:} URL from its cached zip file, which is released
+	 * along with the parser.
+	 */
+	static JsonParser createParser(final JsonFactory factory, final URL url) throws IOException {
+		if (!"jar".equals(url.getProtocol()) || !factory.isEnabled(JsonParser.Feature.AUTO_CLOSE_SOURCE)) {
+			return factory.createParser(url);
+		}
+		// file:/path.jar!/name
+		String spec = url.getPath();
+		if (spec.indexOf('%') >= 0) {
+			try {
+				spec = url.toURI().getSchemeSpecificPart();
+			} catch (final URISyntaxException e) {
+				return factory.createParser(url);
+			}
+		}
+		final int separator = spec.indexOf("!/");
+		if (separator < 0 || spec.indexOf("!/", separator + 2) >= 0 || !spec.startsWith("file:")) {
+			return factory.createParser(url);
+		}
+		String path = spec.substring("file:".length(), separator);
+		if (path.startsWith("///")) {
+			path = path.substring(2);
+		} else if (path.startsWith("//")) {
+			// with authority
+			return factory.createParser(url);
+		}
+		final String name = spec.substring(separator + 2);
+		final CachedZipFile zipFile = CachedZipFile.acquire(new File(path));
+		try {
+			final ZipEntry entry = zipFile.zipFile.getEntry(name);
+			if (entry == null) {
+				throw new FileNotFoundException("JAR entry " + name + " not found in " + zipFile.zipFile.getName());
+			}
+			return factory.createParser(new EntryInput(zipFile, zipFile.zipFile.getInputStream(entry)));
+		} catch (final IOException | RuntimeException e) {
+			zipFile.release();
+			throw e;
+		}
+	}
+	
+	/**
+	 * An open zip file, that is shared by the reads of its entries, as long
+	 * as the file is unchanged on disk, i.e. has the same size and time of
+	 * last modification.
+	 * <p>
+	 * At most {@value #MAX_OPEN} zip files are kept open, the least recently
+	 * used one is closed first. A zip file, that is evicted or outdated while
+	 * entries are still being read, is closed once the last of them is
+	 * closed.
+	 */
+	private static final class CachedZipFile {
+		/**
+		 * The maximum number of zip files kept open.
+		 */
+		static final int MAX_OPEN = 16;
+		
+		private static final Map<File, CachedZipFile> OPEN = new LinkedHashMap<>(2 * CachedZipFile.MAX_OPEN, 0.75f, true);
+		
+		final ZipFile zipFile;
+		
+		private final long size;
+		
+		private final long lastModified;
+		
+		/**
+		 * The number of unclosed entries, guarded by {@link #OPEN}.
+		 */
+		private int readers;
+		
+		/**
+		 * Whether this zip file has been removed from {@link #OPEN}, guarded
+		 * by {@link #OPEN}.
+		 */
+		private boolean evicted;
+		
+		private CachedZipFile(final ZipFile zipFile, final long size, final long lastModified) {
+			this.zipFile = zipFile;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+		
+		/**
+		 * Returns the open zip file of the given file, reopening it, if it has
+		 * changed on disk. Each call must be followed by a call to
+		 * {@link #release()}.
+		 */
+		static CachedZipFile acquire(final File file) throws IOException {
+			final BasicFileAttributes attributes;
+			try {
+				attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+			} catch (final NoSuchFileException e) {
+				throw new FileNotFoundException(file.getPath());
+			}
+			final long size = attributes.size();
+			final long lastModified = attributes.lastModifiedTime().toMillis();
+			synchronized (CachedZipFile.OPEN) {
+				final CachedZipFile cached = CachedZipFile.OPEN.get(file);
+				if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+					cached.readers++;
+					return cached;
+				}
+			}
+			final CachedZipFile opened = new CachedZipFile(new ZipFile(file), size, lastModified);
+			opened.readers = 1;
+			final List<CachedZipFile> closing = new ArrayList<>();
+			synchronized (CachedZipFile.OPEN) {
+				final CachedZipFile replaced = CachedZipFile.OPEN.put(file, opened);
+				if (replaced != null) {
+					replaced.evict(closing);
+				}
+				final Iterator<CachedZipFile> eldest = CachedZipFile.OPEN.values().iterator();
+				while (CachedZipFile.OPEN.size() > CachedZipFile.MAX_OPEN) {
+					eldest.next().evict(closing);
+					eldest.remove();
+				}
+			}
+			CachedZipFile.close(closing);
+			return opened;
+		}
+		
+		/**
+		 * Marks this zip file as evicted, and adds it to the given list, if no
+		 * entry is being read.
+		 */
+		private void evict(final List<CachedZipFile> closing) {
+			this.evicted = true;
+			if (this.readers == 0) {
+				closing.add(this);
+			}
+		}
+		
+		/**
+		 * Releases this zip file, which is closed, if it has been evicted, and
+		 * this was its last reader.
+		 */
+		void release() throws IOException {
+			synchronized (CachedZipFile.OPEN) {
+				if (--this.readers > 0 || !this.evicted) {
+					return;
+				}
+			}
+			this.zipFile.close();
+		}
+		
+		private static void close(final List<CachedZipFile> zipFiles) throws IOException {
+			for (final CachedZipFile zipFile : zipFiles) {
+				zipFile.zipFile.close();
+			}
+		}
+	}
+	
+	/**
+	 * Reads the entry of a zip file, and releases the zip file along with it.
+	 */
+	private static final class EntryInput extends FilterInputStream {
+		private final CachedZipFile zipFile;
+		
+		private boolean closed;
+		
+		EntryInput(final CachedZipFile zipFile, final InputStream in) {
+			super(in);
+			this.zipFile = zipFile;
+		}
+		
+		@Override
+		public void close() throws IOException {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			try {
+				super.close();
+			} finally {
+				this.zipFile.release();
+			}
+		}
+	}
+}
@@ -0,0 +1,285 @@
+package com.fasterxml.jackson.databind;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+
+/**
+ * Runs every test of {@link ObjectMapperNullabilityTest} against several
+ * versions of the Jackson code base within a single JVM, and prints a combined
+ * matrix of the outcomes, followed by a diff of those tests, whose outcome
+ * differs between versions.
+ * <p>
+ * Each version is loaded into its own child-first {@link ClassLoader}, which
+ * holds the compiled test classes and the {@code jackson-databind},
+ * {@code jackson-core} and {@code jackson-annotations} jars of that version.
+ * Everything else (most notably JUnit) is shared through the parent
+ * {@link ClassLoader}, so that assertion failures can be told apart from
+ * unexpected errors. All test cases of all versions are run in parallel on a
+ * {@link ForkJoinPool}.
+ * <p>
+ * Each argument (or each comma-separated element thereof) denotes a version to
+ * test against, and is either
+ * <ul>
+ * <li>a directory, whose jar files make up the version's class path, and whose
+ * name is used as the version's label, or</li>
+ * <li>a {@code jackson-databind} version, whose jars are resolved from the
+ * local Maven repository (see the {@code maven.repo.local} system property),
+ * assuming {@code jackson-core} and {@code jackson-annotations} of the same
+ * version less any fourth (micro-patch) component.</li>
+ * </ul>
+ * The {@code nullability-matrix} profile of this project's pom copies the jars
+ * of the 2.9 and the 2.10 code base into {@code target/nullability-matrix} and
+ * runs this class against them as part of the {@code test} phase.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+public final class NullabilityMatrixRunner {
+	private static final String[] ARTIFACTS = { "jackson-databind", "jackson-core", "jackson-annotations" };
+	
+	private static final String PASSED = "passed";
+	
+	private NullabilityMatrixRunner() {
+	}
+	
+	public static void main(final String[] args) throws Exception {
+		final List<String> versions = new ArrayList<>();
+		for (final String arg : args) {
+			for (final String version : arg.split(",")) {
+				if (!version.trim().isEmpty()) {
+					versions.add(version.trim());
+				}
+			}
+		}
+		if (versions.isEmpty()) {
+			System.err.println("usage: " + NullabilityMatrixRunner.class.getName() + " <version|directory>...");
+			System.exit(2);
+		}
+		
+		final Map<String, Map<String, String>> matrix = NullabilityMatrixRunner.run(versions);
+		NullabilityMatrixRunner.print(matrix, System.out);
+	}
+	
+	/**
+	 * Runs the tests against all given versions and returns the outcome of
+	 * each test (by its name), per version label (in the given order).
+	 */
+	static Map<String, Map<String, String>> run(final List<String> versions) throws IOException, ClassNotFoundException, InterruptedException, ExecutionException {
+		final URL testClasses = ObjectMapperNullabilityTest.class.getProtectionDomain().getCodeSource().getLocation();
+		final ClassLoader parent = NullabilityMatrixRunner.class.getClassLoader();
+		final Map<String, ChildFirstClassLoader> loaders = new LinkedHashMap<>();
+		final ForkJoinPool pool = new ForkJoinPool();
+		try {
+			final Map<String, Map<String, Future<String>>> futures = new TreeMap<>();
+			final Map<String, String> tags = new TreeMap<>();
+			for (final String version : versions) {
+				final List<URL> classPath = new ArrayList<>();
+				classPath.add(testClasses);
+				final String label = NullabilityMatrixRunner.resolve(version, classPath);
+				final ChildFirstClassLoader loader = new ChildFirstClassLoader(classPath.toArray(new URL[0]), parent);
+				loaders.put(label, loader);
+				
+				final Class<?> testClass = loader.loadClass(ObjectMapperNullabilityTest.class.getName());
+				for (final Method method : testClass.getDeclaredMethods()) {
+					if (method.isAnnotationPresent(Test.class) && !Modifier.isStatic(method.getModifiers())) {
+						method.setAccessible(true);
+						tags.put(method.getName(), NullabilityMatrixRunner.tags(method));
+						futures.computeIfAbsent(method.getName(), name -> new LinkedHashMap<>())
+								.put(label, pool.submit(NullabilityMatrixRunner.task(testClass, method, loader)));
+					}
+				}
+			}
+			
+			final Map<String, Map<String, String>> matrix = new LinkedHashMap<>();
+			for (final Map.Entry<String, Map<String, Future<String>>> test : futures.entrySet()) {
+				final Map<String, String> outcomes = new LinkedHashMap<>();
+				outcomes.put("", tags.get(test.getKey()));
+				for (final String label : loaders.keySet()) {
+					final Future<String> outcome = test.getValue().get(label);
+					outcomes.put(label, outcome == null ? "missing" : outcome.get());
+				}
+				matrix.put(test.getKey(), outcomes);
+			}
+			return matrix;
+		} finally {
+			pool.shutdown();
+			for (final ChildFirstClassLoader loader : loaders.values()) {
+				loader.close();
+			}
+		}
+	}
+	
+	/**
+	 * Adds the class path of the given version to the given list and returns
+	 * the version's label.
+	 */
+	private static String resolve(final String version, final List<URL> classPath) throws MalformedURLException {
+		final File directory = new File(version);
+		if (directory.isDirectory()) {
+			final File[] jars = directory.listFiles((dir, name) -> name.endsWith(".jar"));
+			if (jars == null || jars.length == 0) {
+				throw new IllegalArgumentException("no jar files in directory " + directory);
+			}
+			Arrays.sort(jars);
+			for (final File jar : jars) {
+				classPath.add(jar.toURI().toURL());
+			}
+			return directory.getName();
+		}
+		
+		final String repository = System.getProperty("maven.repo.local",
+				System.getProperty("user.home") + File.separator + ".m2" + File.separator + "repository");
+		final String[] components = version.split("\\.");
+		final String baseVersion = components.length > 3 ? String.join(".", Arrays.copyOf(components, 3)) : version;
+		for (final String artifact : NullabilityMatrixRunner.ARTIFACTS) {
+			final String artifactVersion = artifact.equals("jackson-databind") ? version : baseVersion;
+			final File jar = new File(repository, String.join(File.separator, "com", "fasterxml", "jackson", "core", artifact,
+					artifactVersion, artifact + "-" + artifactVersion + ".jar"));
+			if (!jar.isFile()) {
+				throw new IllegalArgumentException("missing " + jar + " (fetch it with: mvn dependency:get -Dartifact=com.fasterxml.jackson.core:"
+						+ artifact + ":" + artifactVersion + ")");
+			}
+			classPath.add(jar.toURI().toURL());
+		}
+		return version;
+	}
+	
+	private static String tags(final Method method) {
+		final List<String> tags = new ArrayList<>();
+		for (final Tag tag : method.getAnnotationsByType(Tag.class)) {
+			tags.add(tag.value());
+		}
+		return String.join(",", tags);
+	}
+	
+	private static Callable<String> task(final Class<?> testClass, final Method method, final ClassLoader loader) {
+		return () -> {
+			final Thread thread = Thread.currentThread();
+			final ClassLoader previous = thread.getContextClassLoader();
+			thread.setContextClassLoader(loader);
+			try {
+				method.invoke(testClass.getDeclaredConstructor().newInstance());
+				return NullabilityMatrixRunner.PASSED;
+			} catch (final InvocationTargetException exception) {
+				final Throwable cause = exception.getCause();
+				if (cause instanceof AssertionFailedError) {
+					return "failed: " + cause.getMessage() + (cause.getCause() != null ? " (" + cause.getCause() + ")" : "");
+				}
+				return "error: " + cause;
+			} finally {
+				thread.setContextClassLoader(previous);
+			}
+		};
+	}
+	
+	/**
+	 * Prints the outcome matrix, followed by the diff.
+	 */
+	static void print(final Map<String, Map<String, String>> matrix, final PrintStream out) {
+		final List<String> labels = new ArrayList<>();
+		final Map<String, String> any = matrix.isEmpty() ? Collections.<String, String> emptyMap() : matrix.values().iterator().next();
+		for (final String label : any.keySet()) {
+			if (!label.isEmpty()) {
+				labels.add(label);
+			}
+		}
+		
+		final int nameWidth = matrix.keySet().stream().mapToInt(String::length).max().orElse(4);
+		final int tagWidth = matrix.values().stream().mapToInt(outcomes -> outcomes.get("").length()).max().orElse(4);
+		final int labelWidth = labels.stream().mapToInt(String::length).max().orElse(6);
+		final String format = "%-" + nameWidth + "s  %-" + tagWidth + "s" + String.join("", Collections.nCopies(labels.size(), "  %-" + labelWidth + "s")) + "%n";
+		
+		final List<Object> header = new ArrayList<>();
+		header.add("test");
+		header.add("tags");
+		header.addAll(labels);
+		out.printf(format, header.toArray());
+		
+		final Map<String, Map<String, String>> diff = new LinkedHashMap<>();
+		for (final Map.Entry<String, Map<String, String>> test : matrix.entrySet()) {
+			final List<Object> row = new ArrayList<>();
+			row.add(test.getKey());
+			row.add(test.getValue().get(""));
+			final Map<String, String> outcomes = new LinkedHashMap<>();
+			for (final String label : labels) {
+				final String outcome = test.getValue().get(label);
+				row.add(outcome.indexOf(':') < 0 ? outcome : outcome.substring(0, outcome.indexOf(':')));
+				outcomes.put(label, outcome);
+			}
+			out.printf(format, row.toArray());
+			if (outcomes.values().stream().distinct().count() > 1) {
+				diff.put(test.getKey(), outcomes);
+			}
+		}
+		
+		out.println();
+		out.println(diff.size() + " of " + matrix.size() + " tests differ between " + String.join(", ", labels));
+		for (final Map.Entry<String, Map<String, String>> test : diff.entrySet()) {
+			out.println();
+			out.println(test.getKey() + ":");
+			test.getValue().forEach((label, outcome) -> out.println("  " + label + ": " + outcome));
+		}
+	}
+	
+	/**
+	 * Loads the Jackson code base and the test classes from its own class path
+	 * first, and everything else from the parent {@link ClassLoader}.
+	 */
+	private static final class ChildFirstClassLoader extends URLClassLoader {
+		static {
+			ClassLoader.registerAsParallelCapable();
+		}
+		
+		ChildFirstClassLoader(final URL[] urls, final ClassLoader parent) {
+			super(urls, parent);
+		}
+		
+		@Override
+		protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+			if (!name.startsWith("com.fasterxml.jackson.")) {
+				return super.loadClass(name, resolve);
+			}
+			synchronized (this.getClassLoadingLock(name)) {
+				Class<?> type = this.findLoadedClass(name);
+				if (type == null) {
+					try {
+						type = this.findClass(name);
+					} catch (final ClassNotFoundException exception) {
+						return super.loadClass(name, resolve);
+					}
+				}
+				if (resolve) {
+					this.resolveClass(type);
+				}
+				return type;
+			}
+		}
+		
+		@Override
+		public URL getResource(final String name) {
+			final URL resource = this.findResource(name);
+			return resource != null ? resource : super.getResource(name);
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package de.ooch.jackson.databind;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+/**
+ * Verifies, that the trees of a {@link CompactNodeFactory} equal regular
+ * trees, and behave like them.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+public class CompactNodeFactoryTest {
+	private static final String JSON = "{\"ints\":[1,-2,3000000000,4],\"doubles\":[0.5,-1.25e10],\"mixed\":[1,2.5,\"x\",null,true,{\"a\":[]}],"
+			+ "\"text\":\"ä€\",\"long\":5000000000,\"nested\":{\"b\":{\"c\":[[1],[2.0]]}},\"empty\":{}}";
+	
+	@Test
+	public void readTree() throws Exception {
+		final ObjectMapper regular = new ObjectMapper();
+		final ObjectMapper compact = new ObjectMapper();
+		final CompactNodeFactory factory = CompactNodeFactory.install(compact);
+		Assertions.assertSame(factory, compact.getNodeFactory());
+		
+		final JsonNode expected = regular.readTree(CompactNodeFactoryTest.JSON);
+		final JsonNode tree = compact.readTree(CompactNodeFactoryTest.JSON);
+		Assertions.assertEquals(expected, tree);
+		Assertions.assertEquals(tree, expected);
+		Assertions.assertEquals(expected.hashCode(), tree.hashCode());
+		Assertions.assertEquals(expected.toString(), tree.toString());
+		Assertions.assertEquals(regular.writeValueAsString(expected), compact.writeValueAsString(tree));
+		
+		// leaves keep their types
+		Assertions.assertEquals(IntNode.class, tree.at("/ints/1").getClass());
+		Assertions.assertEquals(LongNode.class, tree.at("/ints/2").getClass());
+		Assertions.assertEquals(DoubleNode.class, tree.at("/doubles/1").getClass());
+		Assertions.assertEquals(TextNode.class, tree.get("text").getClass());
+		Assertions.assertEquals(LongNode.class, tree.get("long").getClass());
+		Assertions.assertEquals(Arrays.asList("ints", "doubles", "mixed", "text", "long", "nested", "empty"), Arrays.asList(regular.convertValue(
+				tree.fieldNames(), String[].class)));
+		
+		// tokens
+		try (JsonParser p = compact.treeAsTokens(tree)) {
+			Assertions.assertEquals(expected, regular.readTree(p));
+		}
+		Assertions.assertEquals(expected, regular.treeToValue(tree, JsonNode.class));
+		Assertions.assertEquals(regular.treeToValue(expected, Map.class), compact.treeToValue(tree, Map.class));
+	}
+	
+	@Test
+	public void mutation() throws Exception {
+		final ObjectMapper compact = new ObjectMapper();
+		CompactNodeFactory.install(compact);
+		final ObjectNode tree = (ObjectNode) compact.readTree(CompactNodeFactoryTest.JSON);
+		final ObjectNode expected = (ObjectNode) new ObjectMapper().readTree(CompactNodeFactoryTest.JSON);
+		
+		// arrays turn from primitive to generic
+		for (final ObjectNode node : Arrays.asList(tree, expected)) {
+			((ArrayNode) node.get("ints")).add(LongNode.valueOf(7)).insert(0, 1.5).remove(1);
+			((ArrayNode) node.get("doubles")).set(0, TextNode.valueOf("y"));
+			((ArrayNode) node.get("mixed")).removeAll().add(3);
+			node.remove("text");
+			node.put("z", "last");
+			for (int i = 0; i < 40; i++) {
+				node.with("large").put("k" + i, i);
+			}
+			node.with("large").remove("k3");
+			for (final Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext();) {
+				if (fields.next().getKey().startsWith("e")) {
+					fields.remove();
+				}
+			}
+		}
+		Assertions.assertEquals(expected, tree);
+		Assertions.assertEquals(expected.toString(), tree.toString());
+		Assertions.assertEquals(expected, tree.deepCopy());
+		Assertions.assertEquals(expected.get("ints"), tree.get("ints"));
+	}
+}
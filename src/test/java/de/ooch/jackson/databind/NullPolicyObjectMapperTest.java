@@ -0,0 +1,1213 @@
+package de.ooch.jackson.databind;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.FromStringDeserializer;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.fasterxml.jackson.databind.type.SimpleType;
+import com.fasterxml.jackson.databind.type.TypeBindings;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.type.TypeModifier;
+import com.fasterxml.jackson.databind.util.LRUMap;
+
+/**
+ * Verifies, that the {@link NullPolicyObjectMapper} applies its
+ * {@link NullPolicy policies} regardless of the underlying Jackson code base.
+ * The legacy tests mirror the expectations of
+ * {@code ObjectMapperNullabilityTest}, which pass against the 2.9 code base
+ * only, when run against a plain {@link ObjectMapper}.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+public class NullPolicyObjectMapperTest {
+	private static final JavaType TYPE = SimpleType.constructUnsafe(Object.class);
+	
+	private static NullPolicyObjectMapper mapper(final NullPolicy policy) {
+		final Map<NullPolicyObjectMapper.Family, NullPolicy> policies = new EnumMap<>(NullPolicyObjectMapper.Family.class);
+		for (final NullPolicyObjectMapper.Family family : NullPolicyObjectMapper.Family.values()) {
+			if (policy != NullPolicy.THROW_JPE || family.isChecked()) {
+				policies.put(family, policy);
+			}
+		}
+		return new NullPolicyObjectMapper(policies);
+	}
+	
+	@Test
+	public void legacy_modules() {
+		final ObjectMapper mapper = new NullPolicyObjectMapper();
+		
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.registerModule((Module) null));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.registerModules((Module[]) null));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.registerModules((Iterable<Module>) null));
+	}
+	
+	@Test
+	public void legacy_config() {
+		final ObjectMapper mapper = new NullPolicyObjectMapper();
+		
+		Assertions.assertSame(mapper, mapper.setConfig((SerializationConfig) null));
+		Assertions.assertSame(mapper, mapper.setConfig((DeserializationConfig) null));
+		Assertions.assertNull(mapper.getSerializationConfig());
+		Assertions.assertNull(mapper.getDeserializationConfig());
+	}
+	
+	@Test
+	public void legacy_types() {
+		final ObjectMapper mapper = new NullPolicyObjectMapper();
+		
+		Assertions.assertThrows(IllegalArgumentException.class, () -> mapper.constructType(null));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.treeAsTokens((TreeNode) null));
+	}
+	
+	@Test
+	public void legacy_parser() throws Exception {
+		final ObjectMapper mapper = new NullPolicyObjectMapper();
+		
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readValue((JsonParser) null, Object.class));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readValue((JsonParser) null, new TypeReference<Object>() {
+		}));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readValue((JsonParser) null, NullPolicyObjectMapperTest.TYPE));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readTree((JsonParser) null));
+		Assertions.assertFalse(mapper.readValues((JsonParser) null, NullPolicyObjectMapperTest.TYPE).hasNext());
+		Assertions.assertFalse(mapper.readValues((JsonParser) null, Object.class).hasNext());
+	}
+	
+	@Test
+	public void legacy_readTree() throws Exception {
+		final ObjectMapper mapper = new NullPolicyObjectMapper();
+		
+		Assertions.assertNull(mapper.readTree((InputStream) null));
+		Assertions.assertNull(mapper.readTree((Reader) null));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readTree((String) null));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readTree((byte[]) null));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readTree((File) null));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readTree((URL) null));
+	}
+	
+	@Test
+	public void legacy_readValue() {
+		final ObjectMapper mapper = new NullPolicyObjectMapper();
+		
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readValue((File) null, Object.class));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readValue((URL) null, NullPolicyObjectMapperTest.TYPE));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readValue((String) null, Object.class));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readValue((byte[]) null, Object.class));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readValue((DataInput) null, Object.class));
+		Assertions.assertThrows(MismatchedInputException.class, () -> mapper.readValue((Reader) null, Object.class));
+		Assertions.assertThrows(MismatchedInputException.class, () -> mapper.readValue((InputStream) null, NullPolicyObjectMapperTest.TYPE));
+		Assertions.assertThrows(MismatchedInputException.class, () -> mapper.readValue((byte[]) null, 0, 0, new TypeReference<Object>() {
+		}));
+	}
+	
+	@Test
+	public void legacy_write() {
+		final ObjectMapper mapper = new NullPolicyObjectMapper();
+		
+		Assertions.assertThrows(JsonMappingException.class, () -> mapper.writeValue((JsonGenerator) null, null));
+		Assertions.assertThrows(JsonMappingException.class, () -> mapper.writeTree((JsonGenerator) null, (TreeNode) null));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.writeValue((File) null, null));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.writeValue((OutputStream) null, null));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.writeValue((DataOutput) null, null));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.writeValue((Writer) null, null));
+	}
+	
+	@Test
+	public void legacy_copy() {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		
+		final NullPolicyObjectMapper copy = mapper.copy();
+		Assertions.assertEquals(mapper.getPolicies(), copy.getPolicies());
+		Assertions.assertThrows(NullPointerException.class, () -> copy.readValue((String) null, Object.class));
+	}
+	
+	@Test
+	public void iae() {
+		final ObjectMapper mapper = NullPolicyObjectMapperTest.mapper(NullPolicy.THROW_IAE);
+		
+		Assertions.assertThrows(IllegalArgumentException.class, () -> mapper.registerModule((Module) null));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> mapper.setConfig((SerializationConfig) null));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> mapper.readTree((InputStream) null));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> mapper.readValues((JsonParser) null, Object.class));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> mapper.writeValue((JsonGenerator) null, null));
+	}
+	
+	@Test
+	public void jpe() {
+		final ObjectMapper mapper = NullPolicyObjectMapperTest.mapper(NullPolicy.THROW_JPE);
+		
+		Assertions.assertThrows(MismatchedInputException.class, () -> mapper.readValue((String) null, Object.class));
+		Assertions.assertThrows(MismatchedInputException.class, () -> mapper.readTree((File) null));
+		Assertions.assertThrows(MismatchedInputException.class, () -> mapper.readValues((JsonParser) null, Object.class));
+		Assertions.assertThrows(JsonMappingException.class, () -> mapper.writeValue((Writer) null, null));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> mapper.constructType(null));
+	}
+	
+	@Test
+	public void jpe_unchecked() {
+		final Map<NullPolicyObjectMapper.Family, NullPolicy> policies = NullPolicyObjectMapper.legacyPolicies();
+		policies.put(NullPolicyObjectMapper.Family.REGISTER_MODULE, NullPolicy.THROW_JPE);
+		
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new NullPolicyObjectMapper(policies));
+	}
+	
+	@Test
+	public void lenient() throws Exception {
+		final ObjectMapper mapper = NullPolicyObjectMapperTest.mapper(NullPolicy.LENIENT);
+		
+		Assertions.assertSame(mapper, mapper.registerModules((Iterable<Module>) null));
+		Assertions.assertNull(mapper.constructType(null));
+		Assertions.assertNull(mapper.treeAsTokens(null));
+		Assertions.assertNull(mapper.readValue((JsonParser) null, Object.class));
+		Assertions.assertNull(mapper.readValue((byte[]) null, 0, 0, Object.class));
+		Assertions.assertNull(mapper.readTree((URL) null));
+		mapper.writeValue((OutputStream) null, "ignored");
+		mapper.writeTree((JsonGenerator) null, (TreeNode) null);
+	}
+	
+	@Test
+	public void nonNull() throws Exception {
+		final ObjectMapper mapper = NullPolicyObjectMapperTest.mapper(NullPolicy.THROW_NPE);
+		
+		Assertions.assertEquals(Integer.valueOf(42), mapper.readValue("42", Object.class));
+		Assertions.assertEquals("[1,2]", mapper.writeValueAsString(mapper.readTree("[1,2]".getBytes("UTF-8"))));
+	}
+	
+	@Test
+	public void lightweight() {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper().setLightweightExceptions(true);
+		
+		final AbsentInputException empty = Assertions.assertThrows(AbsentInputException.class,
+				() -> mapper.readValue(new ByteArrayInputStream(new byte[0]), Object.class));
+		Assertions.assertEquals(0, empty.getStackTrace().length);
+		Assertions.assertEquals(Object.class, empty.getTargetType());
+		Assertions.assertNull(empty.getArgument());
+		Assertions.assertEquals("No content to map due to end-of-input", empty.getOriginalMessage());
+		Assertions.assertNotNull(empty.getLocation());
+		
+		final AbsentInputException absent = Assertions.assertThrows(AbsentInputException.class,
+				() -> mapper.readValue((InputStream) null, Object.class));
+		Assertions.assertEquals(0, absent.getStackTrace().length);
+		Assertions.assertEquals("src", absent.getArgument());
+		Assertions.assertEquals("No content to map: argument \"src\" is null", absent.getMessage());
+		
+		Assertions.assertThrows(AbsentInputException.class, () -> mapper.readValue(new byte[0], 0, 0, Object.class));
+		Assertions.assertTrue(mapper.copy().isLightweightExceptions());
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readValue((String) null, Object.class));
+	}
+	
+	@Test
+	public void heavyweight() {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		
+		final MismatchedInputException empty = Assertions.assertThrows(MismatchedInputException.class,
+				() -> mapper.readValue(new ByteArrayInputStream(new byte[0]), Object.class));
+		Assertions.assertFalse(empty instanceof AbsentInputException);
+		Assertions.assertNotEquals(0, empty.getStackTrace().length);
+	}
+	
+	@Test
+	public void orNull() throws Exception {
+		final NullPolicyObjectMapper mapper = NullPolicyObjectMapperTest.mapper(NullPolicy.THROW_IAE);
+		
+		Assertions.assertNull(mapper.readValueOrNull((InputStream) null, Object.class));
+		Assertions.assertNull(mapper.readValueOrNull(new ByteArrayInputStream(new byte[0]), Object.class));
+		Assertions.assertNull(mapper.readValueOrNull(" ", NullPolicyObjectMapperTest.TYPE));
+		Assertions.assertNull(mapper.readValueOrNull(new byte[] { '4', '2' }, 0, 0, new TypeReference<Object>() {
+		}));
+		Assertions.assertNull(mapper.readValueOrNull(mapper.getFactory().createParser(""), Object.class));
+		Assertions.assertNull(mapper.readValueOrNull((DataInput) null, Object.class));
+		Assertions.assertFalse(mapper.readValueOptional((Reader) null, Object.class).isPresent());
+		Assertions.assertFalse(mapper.readValueOptional(new StringReader(""), Object.class).isPresent());
+		
+		Assertions.assertEquals(Integer.valueOf(42), mapper.readValueOrNull(new byte[] { '4', '2' }, Object.class));
+		Assertions.assertEquals(Optional.of("x"), mapper.readValueOptional("\"x\"", String.class));
+		Assertions.assertThrows(JsonProcessingException.class, () -> mapper.readValueOrNull("{", Object.class));
+	}
+	
+	@Test
+	public void typeReference() throws Exception {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		final TypeReference<List<Integer>> typeRef = new TypeReference<List<Integer>>() {
+		};
+		
+		final JavaType type = mapper.constructType(typeRef);
+		Assertions.assertEquals(mapper.getTypeFactory().constructType(typeRef), type);
+		Assertions.assertSame(type, mapper.constructType(typeRef));
+		Assertions.assertSame(type, mapper.copy().constructType(typeRef));
+		Assertions.assertEquals(Arrays.asList(1, 2), mapper.readValue("[1,2]", typeRef));
+		
+		mapper.setTypeFactory(TypeFactory.defaultInstance().withCache(new LRUMap<>(16, 200)));
+		Assertions.assertEquals(type, mapper.constructType(typeRef));
+		Assertions.assertNotSame(type, mapper.constructType(typeRef));
+	}
+	
+	@Test
+	public void derive() throws Exception {
+		final NullPolicyObjectMapper template = new NullPolicyObjectMapper().setLightweightExceptions(true);
+		Assertions.assertEquals("{\"a\":[1]}", template.writeValueAsString(Collections.singletonMap("a", Arrays.asList(1))));
+		
+		template.registerSubtypes(new NamedType(Circle.class, "circle"));
+		final NullPolicyObjectMapper derived = template.derive().setLightweightExceptions(false);
+		Assertions.assertTrue(template.isSharingCaches());
+		Assertions.assertTrue(derived.isSharingCaches());
+		Assertions.assertEquals(template.getPolicies(), derived.getPolicies());
+		Assertions.assertTrue(template.isLightweightExceptions());
+		
+		derived.enable(SerializationFeature.INDENT_OUTPUT);
+		Assertions.assertTrue(derived.isSharingCaches());
+		Assertions.assertFalse(template.isEnabled(SerializationFeature.INDENT_OUTPUT));
+		
+		derived.addMixIn(Object.class, Object.class);
+		Assertions.assertFalse(derived.isSharingCaches());
+		Assertions.assertTrue(template.isSharingCaches());
+		
+		// the subtypes are copied
+		derived.registerSubtypes(new NamedType(Square.class, "square"));
+		Assertions.assertTrue(derived.readValue("{\"@type\":\"circle\"}", Shape.class) instanceof Circle);
+		Assertions.assertTrue(derived.readValue("{\"@type\":\"square\"}", Shape.class) instanceof Square);
+		Assertions.assertTrue(template.readValue("{\"@type\":\"circle\"}", Shape.class) instanceof Circle);
+		Assertions.assertThrows(JsonMappingException.class, () -> template.readValue("{\"@type\":\"square\"}", Shape.class));
+		
+		// the serializer provider is not handed out while shared
+		final Map<String, Integer> nullKey = Collections.singletonMap(null, 1);
+		final NullPolicyObjectMapper tenant = template.derive();
+		((DefaultSerializerProvider) tenant.getSerializerProvider()).setNullKeySerializer(new ToStringSerializer() {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			public void serialize(final Object value, final JsonGenerator gen, final SerializerProvider provider) throws IOException {
+				gen.writeFieldName("NULLKEY");
+			}
+		});
+		Assertions.assertFalse(tenant.isSharingCaches());
+		Assertions.assertEquals("{\"NULLKEY\":1}", tenant.writeValueAsString(nullKey));
+		Assertions.assertThrows(JsonMappingException.class, () -> template.writeValueAsString(nullKey));
+		final NullPolicyObjectMapper other = template.derive();
+		Assertions.assertNotSame(template.getDeserializationContext(), other.getDeserializationContext());
+		Assertions.assertFalse(other.isSharingCaches());
+		
+		template.registerModule(new SimpleModule());
+		Assertions.assertFalse(template.isSharingCaches());
+		Assertions.assertEquals(Integer.valueOf(42), template.readValue("42", Integer.class));
+	}
+	
+	@Test
+	public void registerModules() throws Exception {
+		final SimpleModule first = new SimpleModule("first").addSerializer(Point.class, new ToStringSerializer() {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			public void serialize(final Object value, final JsonGenerator gen, final SerializerProvider provider) throws IOException {
+				gen.writeString("first");
+			}
+		}).addDeserializer(Point.class, new FromStringDeserializer<Point>(Point.class) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected Point _deserialize(final String value, final DeserializationContext ctxt) {
+				return new Point();
+			}
+		});
+		final SimpleModule second = new SimpleModule("second").addSerializer(Point.class, new ToStringSerializer());
+		final SimpleModule third = new SimpleModule("third") {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			public void setupModule(final SetupContext context) {
+				super.setupModule(context);
+				context.addTypeModifier(new TypeModifier() {
+					@Override
+					public JavaType modifyType(final JavaType type, final Type jdkType, final TypeBindings context, final TypeFactory typeFactory) {
+						return type;
+					}
+				});
+			}
+		};
+		
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		final TypeFactory typeFactory = mapper.getTypeFactory();
+		mapper.registerModules(first, second, third);
+		
+		Assertions.assertEquals("\"point\"", mapper.writeValueAsString(new Point()));
+		Assertions.assertNotNull(mapper.readValue("\"x\"", Point.class));
+		Assertions.assertNotSame(typeFactory, mapper.getTypeFactory());
+		Assertions.assertSame(mapper.getTypeFactory(), mapper.getDeserializationConfig().getTypeFactory());
+		
+		final ObjectMapper expected = new ObjectMapper().registerModules(first, second, third, first);
+		final ObjectMapper actual = new NullPolicyObjectMapper().registerModules(Arrays.asList(first, second, third, first));
+		Assertions.assertEquals(expected.writeValueAsString(new Point()), actual.writeValueAsString(new Point()));
+		Assertions.assertEquals(expected.getRegisteredModuleIds(), actual.getRegisteredModuleIds());
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.registerModules(Arrays.asList(first, null)));
+		
+		// a module, that reconfigures its owner, keeps its reconfiguration
+		final SimpleModule owning = new SimpleModule("owning") {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			public void setupModule(final SetupContext context) {
+				super.setupModule(context);
+				((ObjectMapper) context.getOwner()).enable(SerializationFeature.INDENT_OUTPUT);
+				context.setNamingStrategy(PropertyNamingStrategy.UPPER_CAMEL_CASE);
+			}
+		};
+		final Map<String, Object> value = Collections.singletonMap("value", Collections.singletonList(1));
+		final String indented = new ObjectMapper().registerModules(owning, third).writeValueAsString(value);
+		Assertions.assertEquals(indented, new NullPolicyObjectMapper().registerModules(owning, third).writeValueAsString(value));
+		Assertions.assertEquals(indented, new NullPolicyObjectMapper().setAtomicConfig(true).registerModules(owning, third).writeValueAsString(value));
+		Assertions.assertSame(PropertyNamingStrategy.UPPER_CAMEL_CASE,
+				new NullPolicyObjectMapper().setAtomicConfig(true).registerModules(third, owning).getSerializationConfig().getPropertyNamingStrategy());
+	}
+	
+	@Test
+	public void atomicConfig() throws Exception {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper().setAtomicConfig(true);
+		final NullPolicyObjectMapper derived = mapper.derive();
+		Assertions.assertTrue(derived.isAtomicConfig());
+		final NullPolicyObjectMapper.ConfigSnapshot initial = mapper.getConfigSnapshot();
+		Assertions.assertSame(initial.getDeserializationConfig(), mapper.getDeserializationConfig());
+		Assertions.assertThrows(UnrecognizedPropertyException.class, () -> mapper.readValue("{\"x\":1}", Point.class));
+		
+		mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+		Assertions.assertNotSame(initial, mapper.getConfigSnapshot());
+		Assertions.assertFalse(mapper.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+		Assertions.assertNotNull(mapper.readValue("{\"x\":1}", Point.class));
+		Assertions.assertNotNull(mapper.readerFor(Point.class).readValue("{\"x\":1}"));
+		Assertions.assertTrue(derived.isSharingCaches());
+		
+		Assertions.assertFalse(mapper.compareAndSetConfig(initial, initial.getSerializationConfig(), initial.getDeserializationConfig()));
+		Assertions.assertTrue(mapper.compareAndSetConfig(mapper.getConfigSnapshot(), initial.getSerializationConfig(), initial.getDeserializationConfig()));
+		Assertions.assertTrue(mapper.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+		
+		mapper.setConfig(mapper.getSerializationConfig().with(SerializationFeature.INDENT_OUTPUT));
+		Assertions.assertTrue(mapper.isEnabled(SerializationFeature.INDENT_OUTPUT));
+		mapper.addMixIn(Point.class, Object.class);
+		mapper.setAtomicConfig(false);
+		Assertions.assertFalse(mapper.isAtomicConfig());
+		Assertions.assertTrue(mapper.isEnabled(SerializationFeature.INDENT_OUTPUT));
+		Assertions.assertThrows(IllegalStateException.class, () -> mapper.compareAndSetConfig(initial, initial.getSerializationConfig(), initial.getDeserializationConfig()));
+	}
+	
+	@Test
+	public void dataInput() throws Exception {
+		final byte[] content = "{\"a\":[1,2]}  [3]\n\"x\"  ".getBytes(StandardCharsets.UTF_8);
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		
+		final File file = File.createTempFile("dataInput", ".json");
+		try {
+			Files.write(file.toPath(), content);
+			try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+				Assertions.assertEquals(Collections.singletonMap("a", Arrays.asList(1, 2)), mapper.readValue(raf, new TypeReference<Map<String, List<Integer>>>() {
+				}));
+				Assertions.assertEquals(11, raf.getFilePointer());
+				Assertions.assertEquals(Arrays.asList(3), mapper.readValue(raf, List.class));
+				Assertions.assertEquals("x", mapper.readValueOrNull(raf, String.class));
+				Assertions.assertNull(mapper.readValueOrNull(raf, String.class));
+			}
+		} finally {
+			file.delete();
+		}
+		
+		final DataInputStream stream = new DataInputStream(new ByteArrayInputStream(content));
+		Assertions.assertEquals(Collections.singletonMap("a", Arrays.asList(1, 2)), mapper.readValue((DataInput) stream, Map.class));
+		Assertions.assertEquals(' ', stream.readByte());
+		Assertions.assertEquals(Arrays.asList(3), mapper.readValue((DataInput) stream, List.class));
+		Assertions.assertEquals("x", mapper.readValue((DataInput) stream, String.class));
+		Assertions.assertEquals(2, stream.available());
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readValue((DataInput) null, new TypeReference<Object>() {
+		}));
+		
+		// the mark is bounded, and released even if reading fails
+		final List<Integer> marks = new ArrayList<>();
+		final byte[] large = ("[" + String.join(",", Collections.nCopies(50000, "1")) + "] \"y\" [1,}").getBytes(StandardCharsets.UTF_8);
+		final DataInputStream marked = new DataInputStream(new BufferedInputStream(new ByteArrayInputStream(large)) {
+			@Override
+			public synchronized void mark(final int readlimit) {
+				marks.add(readlimit);
+				super.mark(readlimit);
+			}
+		});
+		Assertions.assertEquals(50000, mapper.readValue((DataInput) marked, List.class).size());
+		Assertions.assertEquals("y", mapper.readValue((DataInput) marked, String.class));
+		Assertions.assertThrows(JsonProcessingException.class, () -> mapper.readValue((DataInput) marked, List.class));
+		Assertions.assertTrue(marks.stream().allMatch(limit -> limit <= 64 * 1024), marks::toString);
+		Assertions.assertEquals(0, marks.get(marks.size() - 1));
+	}
+	
+	@Test
+	public void dataOutput() throws Exception {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		final List<Integer> writes = new ArrayList<>();
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(bytes) {
+			@Override
+			public synchronized void write(final byte[] b, final int off, final int len) throws IOException {
+				writes.add(len);
+				super.write(b, off, len);
+			}
+		};
+		
+		final char[] chars = new char[100000];
+		Arrays.fill(chars, 'x');
+		final Map<String, String> value = Collections.singletonMap("a", new String(chars));
+		mapper.writeValue((DataOutput) out, value);
+		Assertions.assertEquals(new ObjectMapper().writeValueAsString(value), bytes.toString("UTF-8"));
+		Assertions.assertEquals(2, writes.size());
+		
+		bytes.reset();
+		writes.clear();
+		try (SequenceWriter sequence = mapper.writeValues(out)) {
+			sequence.write(1).write(2);
+			Assertions.assertEquals(0, bytes.size());
+			sequence.flush();
+			Assertions.assertEquals("1 2", bytes.toString("UTF-8"));
+			sequence.write(3);
+		}
+		Assertions.assertEquals("1 2 3", bytes.toString("UTF-8"));
+		Assertions.assertEquals(2, writes.size());
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.writeValues((DataOutput) null));
+	}
+	
+	@Test
+	public void byteBuffer() throws Exception {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		final byte[] content = "xx{\"a\":[1,2]}xx".getBytes(StandardCharsets.UTF_8);
+		final Map<String, List<Integer>> expected = Collections.singletonMap("a", Arrays.asList(1, 2));
+		
+		final ByteBuffer heap = ByteBuffer.wrap(content, 2, content.length - 4);
+		final ByteBuffer direct = ByteBuffer.allocateDirect(content.length).put(content);
+		direct.position(2).limit(content.length - 2);
+		for (final ByteBuffer buffer : Arrays.asList(heap, direct, heap.asReadOnlyBuffer(), heap.slice())) {
+			final int position = buffer.position();
+			Assertions.assertEquals(expected, mapper.readValue(buffer, Map.class));
+			Assertions.assertEquals(expected, mapper.readValue(buffer, new TypeReference<Map<String, List<Integer>>>() {
+			}));
+			Assertions.assertEquals(mapper.readTree("{\"a\":[1,2]}"), mapper.readTree(buffer));
+			Assertions.assertEquals(position, buffer.position());
+		}
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readValue((ByteBuffer) null, Object.class));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readTree((ByteBuffer) null));
+	}
+	
+	@Test
+	public void file() throws Exception {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		final File file = File.createTempFile("file", ".json");
+		try {
+			// small, streamed and mapped
+			for (final int count : new int[] { 10, 50000, 500000 }) {
+				final List<Integer> expected = new ArrayList<>();
+				for (int i = 0; i < count; i++) {
+					expected.add(i);
+				}
+				mapper.writeValue(file, expected);
+				Assertions.assertEquals(expected, mapper.readValue(file, List.class));
+				Assertions.assertEquals(expected, mapper.readValue(file, new TypeReference<List<Integer>>() {
+				}));
+				Assertions.assertEquals(expected, mapper.readValueOrNull(file, List.class));
+				Assertions.assertEquals(count, mapper.readTree(file).size());
+				try (FileSource source = FileSource.open(file, 4096);
+						JsonParser p = source.createParser(mapper.getFactory())) {
+					Assertions.assertEquals(expected, mapper.readValue(p, List.class));
+				}
+			}
+			
+			// a previous file does not leak into error messages
+			mapper.writeValue(file, Collections.nCopies(1000, "TOPSECRET"));
+			Assertions.assertEquals(1000, mapper.readTree(file).size());
+			Files.write(file.toPath(), "[1,}".getBytes(StandardCharsets.UTF_8));
+			final JsonProcessingException exception = Assertions.assertThrows(JsonProcessingException.class, () -> mapper.readValue(file, List.class));
+			Assertions.assertFalse(exception.getMessage().contains("TOPSECRET"), exception::getMessage);
+			
+			Files.write(file.toPath(), new byte[0]);
+			Assertions.assertNull(mapper.readValueOrNull(file, Object.class));
+			Assertions.assertThrows(MismatchedInputException.class, () -> mapper.readValue(file, Object.class));
+		} finally {
+			file.delete();
+		}
+		Assertions.assertThrows(FileNotFoundException.class, () -> mapper.readValue(file, Object.class));
+	}
+	
+	@Test
+	public void async() throws Exception {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		final File file = File.createTempFile("async", ".json");
+		try {
+			// in memory and blocking
+			for (final int count : new int[] { 10, 500000 }) {
+				final List<Integer> expected = new ArrayList<>();
+				for (int i = 0; i < count; i++) {
+					expected.add(i);
+				}
+				Assertions.assertNull(mapper.writeValueAsync(file, expected).get());
+				Assertions.assertEquals(expected, mapper.readValueAsync(file, List.class).get());
+				Assertions.assertEquals(expected, mapper.readValueAsync(file.toURI().toURL(), new TypeReference<List<Integer>>() {
+				}).get());
+				Assertions.assertEquals(count, mapper.readTreeAsync(file).get().size());
+			}
+			
+			// own executor
+			final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "own"));
+			try {
+				mapper.setAsyncExecutor(executor);
+				Assertions.assertSame(executor, mapper.getAsyncExecutor());
+				Assertions.assertEquals("own", mapper.readValueAsync(file, Object.class).thenApply(value -> Thread.currentThread().getName()).get());
+			} finally {
+				mapper.setAsyncExecutor(null);
+				executor.shutdown();
+			}
+			
+			Files.write(file.toPath(), new byte[0]);
+			Assertions.assertTrue(NullPolicyObjectMapperTest.cause(mapper.readValueAsync(file, Object.class)) instanceof MismatchedInputException);
+		} finally {
+			file.delete();
+		}
+		Assertions.assertTrue(NullPolicyObjectMapperTest.cause(mapper.readValueAsync(file, Object.class)) instanceof FileNotFoundException);
+		
+		// null arguments, just like the blocking methods
+		Assertions.assertTrue(NullPolicyObjectMapperTest.cause(mapper.readValueAsync((File) null, Object.class)) instanceof NullPointerException);
+		Assertions.assertTrue(NullPolicyObjectMapperTest.cause(mapper.readTreeAsync((URL) null)) instanceof NullPointerException);
+		Assertions.assertTrue(NullPolicyObjectMapperTest.cause(mapper.writeValueAsync(null, "value")) instanceof NullPointerException);
+		final NullPolicyObjectMapper lenient = new NullPolicyObjectMapper(Collections.singletonMap(NullPolicyObjectMapper.Family.READ_VALUE, NullPolicy.LENIENT));
+		Assertions.assertNull(lenient.readValueAsync((URL) null, Object.class).get());
+	}
+	
+	/**
+	 * Returns the exception, that the given future has completed with.
+	 */
+	private static Throwable cause(final Future<?> future) {
+		try {
+			future.get();
+		} catch (final ExecutionException e) {
+			return e.getCause();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return null;
+	}
+	
+	@Test
+	public void channel() throws Exception {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		final char[] chars = new char[100000];
+		Arrays.fill(chars, 'x');
+		final Map<String, String> expected = Collections.singletonMap("a", new String(chars));
+		
+		final File file = File.createTempFile("channel", ".json");
+		try {
+			// gathering
+			final FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+			mapper.writeValue(out, expected);
+			Assertions.assertFalse(out.isOpen());
+			try (FileChannel in = FileChannel.open(file.toPath())) {
+				Assertions.assertEquals(expected, mapper.readValue(in, Map.class));
+				Assertions.assertFalse(in.isOpen());
+			}
+			try (FileChannel in = FileChannel.open(file.toPath())) {
+				Assertions.assertEquals(100000, mapper.readTree(in).get("a").textValue().length());
+			}
+		} finally {
+			file.delete();
+		}
+		
+		// not gathering
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final NullPolicyObjectMapper open = new NullPolicyObjectMapper();
+		open.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		open.writeValue(Channels.newChannel(bytes), expected);
+		open.writeValue(Channels.newChannel(bytes), 1);
+		Assertions.assertEquals(mapper.writeValueAsString(expected) + "1", bytes.toString("UTF-8"));
+		Assertions.assertEquals(expected, mapper.readValue(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray(), 0, bytes.size() - 1)),
+				new TypeReference<Map<String, String>>() {
+				}));
+		
+		final Pipe pipe = Pipe.open();
+		try {
+			pipe.sink().configureBlocking(false);
+			Assertions.assertThrows(IllegalBlockingModeException.class, () -> mapper.writeValue(pipe.sink(), 1));
+		} finally {
+			pipe.sink().close();
+			pipe.source().close();
+		}
+		Assertions.assertThrows(MismatchedInputException.class, () -> mapper.readValue((ReadableByteChannel) null, Object.class));
+		Assertions.assertNull(mapper.readTree((ReadableByteChannel) null));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.writeValue((WritableByteChannel) null, 1));
+	}
+	
+	@Test
+	public void url() throws Exception {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		final Map<String, List<Integer>> expected = Collections.singletonMap("a", Arrays.asList(1, 2));
+		final File dir = Files.createTempDirectory("url").toFile();
+		final File file = new File(dir, "a b.json");
+		final File jar = new File(dir, "c d.jar");
+		try {
+			mapper.writeValue(file, expected);
+			try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+				out.putNextEntry(new ZipEntry("e f/g.json"));
+				mapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, expected);
+				out.closeEntry();
+			}
+			
+			final URL fileUrl = file.toURI().toURL();
+			Assertions.assertEquals(expected, mapper.readValue(fileUrl, Map.class));
+			Assertions.assertEquals(expected, mapper.readValueOrNull(fileUrl, Map.class));
+			Assertions.assertEquals(mapper.valueToTree(expected), mapper.readTree(fileUrl));
+			try (URLClassLoader loader = new URLClassLoader(new URL[] { jar.toURI().toURL() }, null)) {
+				final URL jarUrl = loader.getResource("e f/g.json");
+				Assertions.assertEquals(expected, mapper.readValue(jarUrl, new TypeReference<Map<String, List<Integer>>>() {
+				}));
+				Assertions.assertEquals(expected, mapper.readValueOrNull(jarUrl, Map.class));
+				Assertions.assertEquals(mapper.valueToTree(expected), mapper.readTree(jarUrl));
+			}
+			Assertions.assertThrows(FileNotFoundException.class, () -> mapper.readValue(new URL("jar:" + jar.toURI() + "!/missing.json"), Map.class));
+			
+			// a zip file, that changes on disk, is reopened
+			try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+				out.putNextEntry(new ZipEntry("e f/g.json"));
+				out.write("[3]".getBytes(StandardCharsets.UTF_8));
+				out.closeEntry();
+			}
+			Assertions.assertEquals(Arrays.asList(3), mapper.readValue(new URL("jar:" + jar.toURI() + "!/e%20f/g.json"), List.class));
+			Assertions.assertEquals(Arrays.asList(3), mapper.copy().disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+					.readValue(new URL("jar:" + jar.toURI() + "!/e%20f/g.json"), List.class));
+		} finally {
+			file.delete();
+			jar.delete();
+			dir.delete();
+		}
+		Assertions.assertThrows(FileNotFoundException.class, () -> mapper.readValue(file.toURI().toURL(), Map.class));
+	}
+	
+	@Test
+	public void nonBlocking() throws Exception {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		final byte[] content = "{\"a\":[1,2]}\n\"ä€\" [3]{}  0.10000000000000000000001\n".getBytes(StandardCharsets.UTF_8);
+		final List<Object> expected = Arrays.asList(Collections.singletonMap("a", Arrays.asList(1, 2)), "ä€", Arrays.asList(3),
+				Collections.emptyMap(), new BigDecimal("0.10000000000000000000001"));
+		mapper.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+		
+		// in one chunk, and byte by byte
+		try (NonBlockingReader<Object> reader = mapper.nonBlockingReader(Object.class)) {
+			final List<Object> values = new ArrayList<>(reader.feed(content));
+			values.addAll(reader.end());
+			Assertions.assertEquals(expected, values);
+		}
+		try (NonBlockingReader<Object> reader = mapper.nonBlockingReader(new TypeReference<Object>() {
+		})) {
+			final List<Object> values = new ArrayList<>();
+			final byte[] chunk = new byte[1];
+			for (final byte b : content) {
+				chunk[0] = b;
+				values.addAll(reader.feed(chunk));
+			}
+			Assertions.assertEquals(expected, values);
+			Assertions.assertEquals(Collections.emptyList(), reader.end());
+			Assertions.assertThrows(IllegalStateException.class, () -> reader.feed(chunk));
+		}
+		
+		// trailing scalar, direct buffer
+		try (NonBlockingReader<Integer> reader = mapper.nonBlockingReader(Integer.class)) {
+			final ByteBuffer buffer = ByteBuffer.allocateDirect(8).put("1 2 3".getBytes(StandardCharsets.UTF_8));
+			buffer.flip();
+			Assertions.assertEquals(Arrays.asList(1, 2), reader.feed(buffer));
+			Assertions.assertEquals(0, buffer.position());
+			Assertions.assertEquals(Arrays.asList(3), reader.end());
+		}
+		
+		// incomplete and mismatched
+		try (NonBlockingReader<Object> reader = mapper.nonBlockingReader(Object.class)) {
+			Assertions.assertEquals(Collections.emptyList(), reader.feed("{\"a\":".getBytes(StandardCharsets.UTF_8)));
+			Assertions.assertThrows(JsonProcessingException.class, () -> reader.end());
+		}
+		try (NonBlockingReader<Integer> reader = mapper.nonBlockingReader(Integer.class)) {
+			Assertions.assertThrows(MismatchedInputException.class, () -> reader.feed("[] ".getBytes(StandardCharsets.UTF_8)));
+		}
+	}
+	
+	@Test
+	public void parallel() throws Exception {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		final List<Map<String, Object>> expected = new ArrayList<>();
+		final StringBuilder lines = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			final Map<String, Object> value = Collections.singletonMap("id", i);
+			expected.add(value);
+			lines.append(mapper.writeValueAsString(value)).append(i % 7 == 0 ? "\r\n" : "\n");
+		}
+		final byte[] content = lines.toString().getBytes(StandardCharsets.UTF_8);
+		final TypeReference<Map<String, Object>> type = new TypeReference<Map<String, Object>>() {
+		};
+		
+		// ordered and unordered
+		Assertions.assertEquals(expected, mapper.readValuesParallel(content, type, true).collect(Collectors.toList()));
+		Assertions.assertEquals(new HashSet<>(expected), mapper.readValuesParallel(content, type, false).collect(Collectors.toSet()));
+		Assertions.assertEquals(expected.size(), mapper.readValuesParallel(content, Map.class, false).count());
+		
+		// split at line breaks
+		final Spliterator<Map<String, Object>> suffix = mapper.readValuesParallel(content, type, true).spliterator();
+		final Spliterator<Map<String, Object>> prefix = suffix.trySplit();
+		Assertions.assertNotNull(prefix);
+		Assertions.assertEquals('\n', content[(int) prefix.estimateSize() - 1]);
+		Assertions.assertEquals(content.length, prefix.estimateSize() + suffix.estimateSize());
+		
+		// direct buffer and file
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(content.length + 3).put("[] ".getBytes(StandardCharsets.UTF_8)).put(content);
+		buffer.flip().position(3);
+		Assertions.assertEquals(expected, mapper.readValuesParallel(buffer, type, true).collect(Collectors.toList()));
+		Assertions.assertEquals(3, buffer.position());
+		final File file = File.createTempFile("parallel", ".json");
+		try {
+			Files.write(file.toPath(), content);
+			try (Stream<Map<String, Object>> values = mapper.readValuesParallel(file, type, true)) {
+				Assertions.assertEquals(expected, values.collect(Collectors.toList()));
+			}
+		} finally {
+			file.delete();
+		}
+		
+		// failing, and null
+		Assertions.assertThrows(UncheckedIOException.class, () -> mapper.readValuesParallel("{}\n]\n".getBytes(StandardCharsets.UTF_8), Map.class, true).count());
+		Assertions.assertEquals(0, mapper.readValuesParallel((byte[]) null, Object.class, true).count());
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> new NullPolicyObjectMapper(Collections.emptyMap()).readValuesParallel((File) null, Object.class, true));
+	}
+	
+	@Test
+	public void parallelTree() throws Exception {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		final StringBuilder json = new StringBuilder("{\"small\": [1, 2.5, \"{[\\\"]}\"], \"items\" : [");
+		for (int i = 0; i < 20000; i++) {
+			json.append(i == 0 ? "" : ",\n").append("{\"id\":").append(i).append(",\"tags\":[\"a,b\",\"c:d\"],\"ok\":true}");
+		}
+		json.append("],\n\"nested\": {\"deep\": [");
+		for (int i = 0; i < 20000; i++) {
+			json.append(i == 0 ? "" : ",").append(i * 0.5);
+		}
+		json.append("]}, \"empty\": {}}\n");
+		final byte[] content = json.toString().getBytes(StandardCharsets.UTF_8);
+		final JsonNode expected = mapper.readTree(content);
+		
+		// bytes, file and stream
+		Assertions.assertEquals(expected, mapper.readTreeParallel(content));
+		Assertions.assertEquals(expected, mapper.readTreeParallel(new ByteArrayInputStream(content)));
+		final File file = File.createTempFile("parallel", ".json");
+		try {
+			Files.write(file.toPath(), content);
+			Assertions.assertEquals(expected, mapper.readTreeParallel(file));
+		} finally {
+			file.delete();
+		}
+		Assertions.assertEquals(mapper.readTree("[1]"), mapper.readTreeParallel("[1]".getBytes(StandardCharsets.UTF_8)));
+		
+		// failures are reported by a single parser
+		final byte[] malformed = json.toString().replace("\"id\":19999", "\"id\" 19999").getBytes(StandardCharsets.UTF_8);
+		final JsonProcessingException e = Assertions.assertThrows(JsonProcessingException.class, () -> mapper.readTreeParallel(malformed));
+		Assertions.assertEquals(Assertions.assertThrows(JsonProcessingException.class, () -> mapper.readTree(malformed)).getMessage(), e.getMessage());
+		final String big = "[" + String.join(",", Collections.nCopies(40000, "1")) + "]";
+		final byte[] missing = ("[" + big + ", ," + big + "]").getBytes(StandardCharsets.UTF_8);
+		Assertions.assertThrows(JsonProcessingException.class, () -> mapper.readTree(missing));
+		Assertions.assertThrows(JsonProcessingException.class, () -> mapper.readTreeParallel(missing));
+		final byte[] missingMember = ("{\"a\":" + big + ", , \"b\":" + big + "}").getBytes(StandardCharsets.UTF_8);
+		Assertions.assertThrows(JsonProcessingException.class, () -> mapper.readTreeParallel(missingMember));
+		final NullPolicyObjectMapper missingValues = new NullPolicyObjectMapper();
+		missingValues.enable(JsonParser.Feature.ALLOW_MISSING_VALUES);
+		Assertions.assertEquals(3, missingValues.readTree(missing).size());
+		Assertions.assertEquals(missingValues.readTree(missing), missingValues.readTreeParallel(missing));
+		final byte[] duplicate = json.toString().replace("\"empty\"", "\"small\"").getBytes(StandardCharsets.UTF_8);
+		Assertions.assertEquals(mapper.readTree(duplicate), mapper.readTreeParallel(duplicate));
+		mapper.enable(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
+		Assertions.assertThrows(JsonMappingException.class, () -> mapper.readTreeParallel(duplicate));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readTreeParallel((byte[]) null));
+	}
+	
+	@Test
+	public void structural() throws Exception {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		final NullPolicyObjectMapper lenient = new NullPolicyObjectMapper();
+		lenient.enable(JsonParser.Feature.ALLOW_COMMENTS);
+		
+		// validation agrees with a regular parser
+		final String[] documents = { "{}", " [ ] ", "0", "-0.5e+10", "\"a\\u00e4\\n\"", "true", "null", "{\"a\":[1,{\"b\":null}],\"c\":\"\u00e4\u20ac\"}",
+				"\ufeff[1]", "", " ", "{", "[1,]", "{\"a\" 1}", "{\"a\":1,}", "[1 2]", "01", "1.", "-", "1e", "tru", "nul", "\"a", "\"\\x\"", "\"\\u12g4\"",
+				"\"\t\"", "[1]]", "{}{}", "[}", "{\"a\":}", "[\"a\\\"b\"]" };
+		for (final String document : documents) {
+			final byte[] content = document.getBytes(StandardCharsets.UTF_8);
+			final ByteBuffer direct = ByteBuffer.allocateDirect(content.length);
+			direct.duplicate().put(content);
+			Assertions.assertEquals(lenient.isValidJson(content), mapper.isValidJson(content), document);
+			Assertions.assertEquals(mapper.isValidJson(content), mapper.isValidJson(direct), document);
+		}
+		Assertions.assertTrue(lenient.isValidJson("[1 /* one */]".getBytes(StandardCharsets.UTF_8)));
+		Assertions.assertFalse(mapper.isValidJson("[1 /* one */]".getBytes(StandardCharsets.UTF_8)));
+		Assertions.assertFalse(mapper.isValidJson(new byte[] { '"', (byte) 0xC0, (byte) 0x80, '"' }));
+		Assertions.assertFalse(mapper.isValidJson(new byte[] { '"', (byte) 0xED, (byte) 0xA0, (byte) 0x80, '"' }));
+		Assertions.assertTrue(mapper.isValidJson("[1,2]".getBytes(StandardCharsets.UTF_16)));
+		
+		// values are located by a pointer
+		final byte[] content = "{\"a\": [1, {\"b/c\": \"x\"}, [true]], \"d\": {\"e\": {\"f\": 2.5}}, \"g\u00e4\": null, \"h\\u0069\": 3}".getBytes(StandardCharsets.UTF_8);
+		final JsonNode tree = mapper.readTree(content);
+		for (final String pointer : new String[] { "", "/a", "/a/1/b~1c", "/a/2/0", "/d/e", "/g\u00e4", "/hi", "/a/3", "/a/x", "/x", "/d/e/f/g" }) {
+			final JsonPointer p = JsonPointer.compile(pointer);
+			Assertions.assertEquals(tree.at(p), mapper.readTreeAt(content, p), pointer);
+			Assertions.assertEquals(tree.at(p), lenient.readTreeAt(content, p), pointer);
+		}
+		Assertions.assertEquals(2.5, mapper.readValueAt(content, JsonPointer.compile("/d/e/f"), Double.class));
+		Assertions.assertEquals(Collections.singletonMap("f", 2.5), mapper.readValueAt(content, JsonPointer.compile("/d/e"), new TypeReference<Map<String, Double>>() {
+		}));
+		Assertions.assertNull(mapper.readValueAt(content, JsonPointer.compile("/x"), Object.class));
+		Assertions.assertEquals(1, mapper.readValueAt("{\"a\": 1, \"a\": 2}".getBytes(StandardCharsets.UTF_8), JsonPointer.compile("/a"), Integer.class));
+		Assertions.assertThrows(JsonProcessingException.class, () -> mapper.readTreeAt("{\"a\" 1}".getBytes(StandardCharsets.UTF_8), JsonPointer.compile("/a")));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.isValidJson((byte[]) null));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readTreeAt(content, null));
+	}
+	
+	@Test
+	public void lazyTree() throws Exception {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		final byte[] content = ("\ufeff {\"a\": [1, -2.5e3, 3000000000, 12345678901234567890, {\"b/c\": \"x\\\"y\"}, [], {}], \"d\": {\"e\": {\"f\": true}},"
+				+ " \"g\u00e4\": null, \"h\\u0069\": \"\u20ac\", \"hi\": false, \"a\": [0.5]}").getBytes(StandardCharsets.UTF_8);
+		final JsonNode expected = mapper.readTree(content);
+		
+		// nodes are created on access, and kept
+		final JsonNode tree = mapper.readTreeLazy(content);
+		Assertions.assertEquals(expected.at("/d/e/f"), tree.at("/d/e/f"));
+		Assertions.assertSame(tree.get("d"), tree.get("d"));
+		Assertions.assertEquals(expected.get("hi"), tree.get("hi"));
+		Assertions.assertTrue(tree.path("x").isMissingNode());
+		Assertions.assertEquals(expected, tree);
+		Assertions.assertEquals(expected.toString(), tree.toString());
+		Assertions.assertEquals(Arrays.asList("a", "d", "g\u00e4", "hi"), Arrays.asList(mapper.convertValue(tree.fieldNames(), String[].class)));
+		try (JsonParser p = mapper.treeAsTokens(mapper.readTreeLazy(content))) {
+			Assertions.assertEquals(expected, mapper.readTree(p));
+		}
+		Assertions.assertEquals(mapper.readTree("\"x\""), mapper.readTreeLazy("\"x\"".getBytes(StandardCharsets.UTF_8)));
+		
+		// modifications
+		final ObjectNode lazy = (ObjectNode) mapper.readTreeLazy(content);
+		final ObjectNode regular = (ObjectNode) mapper.readTree(content);
+		for (final ObjectNode node : Arrays.asList(lazy, regular)) {
+			node.with("d").put("z", 1);
+			((ArrayNode) node.get("a")).add(2).remove(0);
+			node.remove("hi");
+			for (final Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext();) {
+				if (fields.next().getKey().startsWith("g")) {
+					fields.remove();
+				}
+			}
+		}
+		Assertions.assertEquals(regular, lazy);
+		
+		// failures are reported by a regular parser
+		final byte[] malformed = "{\"a\": [1, 2}".getBytes(StandardCharsets.UTF_8);
+		final JsonProcessingException e = Assertions.assertThrows(JsonProcessingException.class, () -> mapper.readTreeLazy(malformed));
+		Assertions.assertEquals(Assertions.assertThrows(JsonProcessingException.class, () -> mapper.readTree(malformed)).getMessage(), e.getMessage());
+		mapper.enable(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
+		Assertions.assertThrows(JsonMappingException.class, () -> mapper.readTreeLazy(content));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.readTreeLazy(null));
+		
+		// scalar nodes are created by the node factory
+		final List<String> created = new ArrayList<>();
+		final NullPolicyObjectMapper factored = new NullPolicyObjectMapper();
+		factored.setNodeFactory(new JsonNodeFactory() {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			public BooleanNode booleanNode(final boolean v) {
+				created.add("boolean");
+				return super.booleanNode(v);
+			}
+			
+			@Override
+			public NullNode nullNode() {
+				created.add("null");
+				return super.nullNode();
+			}
+			
+			@Override
+			public TextNode textNode(final String text) {
+				created.add("text");
+				return super.textNode(text);
+			}
+		});
+		final JsonNode scalars = factored.readTreeLazy("{\"t\": true, \"n\": null, \"s\": \"x\"}".getBytes(StandardCharsets.UTF_8));
+		Assertions.assertEquals(Arrays.asList(true, true, "x"), Arrays.asList(scalars.get("t").booleanValue(), scalars.get("n").isNull(), scalars.get("s").textValue()));
+		Assertions.assertEquals(Arrays.asList("boolean", "null", "text"), created);
+	}
+	
+	@Test
+	public void stringCache() throws Exception {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		final byte[] content = "[{\"status\": \"OK\"}, {\"status\": \"OK\"}, {\"status\": \"a long description\"}]".getBytes(StandardCharsets.UTF_8);
+		Assertions.assertNull(mapper.getStringCache());
+		Assertions.assertNotSame(mapper.readTree(content).get(0).get("status").textValue(), mapper.readTree(content).get(1).get("status").textValue());
+		
+		// string values are shared, up to the maximum length
+		final StringCache cache = new StringCache(64, 8);
+		Assertions.assertSame(mapper, mapper.setStringCache(cache));
+		Assertions.assertSame(cache, mapper.getStringCache());
+		final JsonNode tree = mapper.readTree(content);
+		Assertions.assertEquals(mapper.copy().setStringCache(null).readTree(content), tree);
+		Assertions.assertSame(tree.get(0).get("status").textValue(), tree.get(1).get("status").textValue());
+		Assertions.assertSame(tree.get(0).get("status").textValue(), mapper.readTree(new String(content, StandardCharsets.UTF_8)).get(1).get("status").textValue());
+		final List<Map<String, Object>> values = mapper.readValue(content, new TypeReference<List<Map<String, Object>>>() {
+		});
+		Assertions.assertSame(tree.get(0).get("status").textValue(), values.get(0).get("status"));
+		final Object[] array = mapper.readValue((DataInput) new DataInputStream(new ByteArrayInputStream(content)), Object[].class);
+		Assertions.assertSame(values.get(0).get("status"), ((Map<?, ?>) array[1]).get("status"));
+		Assertions.assertEquals("a long description", values.get(2).get("status"));
+		Assertions.assertEquals(1, cache.getMissCount());
+		Assertions.assertEquals(7, cache.getHitCount());
+		Assertions.assertSame(cache, mapper.copy().getStringCache());
+		
+		// so are the strings read from a given parser, lazily or at a pointer
+		final String ok = tree.get(0).get("status").textValue();
+		try (JsonParser p = mapper.getFactory().createParser(content)) {
+			Assertions.assertSame(ok, ((JsonNode) mapper.readTree(p)).get(1).get("status").textValue());
+		}
+		try (JsonParser p = mapper.getFactory().createParser(content)) {
+			Assertions.assertSame(ok, ((Map<?, ?>) mapper.readValue(p, Object[].class)[1]).get("status"));
+		}
+		try (JsonParser p = mapper.getFactory().createParser("{\"status\": \"OK\"} {}")) {
+			Assertions.assertSame(ok, mapper.readValues(p, Map.class).next().get("status"));
+		}
+		Assertions.assertSame(ok, mapper.readTreeAt(content, JsonPointer.compile("/1/status")).textValue());
+		Assertions.assertSame(ok, mapper.readValueAt(content, JsonPointer.compile("/1/status"), String.class));
+		Assertions.assertSame(ok, mapper.readTreeLazy(content).get(1).get("status").textValue());
+		
+		// names are shared, if the factory does not canonicalize them
+		final NullPolicyObjectMapper plain = new NullPolicyObjectMapper(new JsonFactory().disable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES),
+				NullPolicyObjectMapper.legacyPolicies());
+		final List<Map<String, Object>> names = plain.setStringCache(new StringCache()).readValue(content, new TypeReference<List<Map<String, Object>>>() {
+		});
+		Assertions.assertSame(names.get(0).keySet().iterator().next(), names.get(1).keySet().iterator().next());
+	}
+	
+	@Test
+	public void reactive() throws Exception {
+		final NullPolicyObjectMapper mapper = new NullPolicyObjectMapper();
+		final byte[] content = "{\"a\":1} null [2,3]\n\"ä€\" 4".getBytes(StandardCharsets.UTF_8);
+		final List<ByteBuffer> chunks = new ArrayList<>();
+		for (int off = 0; off < content.length; off += 3) {
+			chunks.add(ByteBuffer.wrap(content, off, Math.min(3, content.length - off)));
+		}
+		
+		// decoding: a chunk is requested only on demand, nulls are skipped
+		final ListPublisher<ByteBuffer> source = new ListPublisher<>(chunks);
+		final ListSubscriber<Object> values = new ListSubscriber<>();
+		mapper.decodeValues(source, Object.class).subscribe(values);
+		Assertions.assertEquals(0, source.requested);
+		values.subscription.request(1);
+		Assertions.assertEquals(Arrays.asList(Collections.singletonMap("a", 1)), values.values);
+		Assertions.assertEquals(3, source.requested);
+		values.subscription.request(1);
+		Assertions.assertEquals(Arrays.asList(2, 3), values.values.get(1));
+		values.subscription.request(Long.MAX_VALUE);
+		Assertions.assertEquals(Arrays.asList(Collections.singletonMap("a", 1), Arrays.asList(2, 3), "ä€", 4), values.values);
+		Assertions.assertTrue(values.completed);
+		
+		// encoding and decoding back
+		final ListSubscriber<ByteBuffer> encoded = new ListSubscriber<>();
+		mapper.encodeValues(new ListPublisher<>(Arrays.asList(Collections.singletonMap("a", 1), "ä€"))).subscribe(encoded);
+		encoded.subscription.request(Long.MAX_VALUE);
+		Assertions.assertEquals(Arrays.asList(ByteBuffer.wrap("{\"a\":1}\n".getBytes(StandardCharsets.UTF_8)),
+				ByteBuffer.wrap("\"ä€\"\n".getBytes(StandardCharsets.UTF_8))), encoded.values);
+		final ListSubscriber<Object> decoded = new ListSubscriber<>();
+		mapper.decodeValues(new ListPublisher<>(encoded.values), Object.class).subscribe(decoded);
+		decoded.subscription.request(Long.MAX_VALUE);
+		Assertions.assertEquals(Arrays.asList(Collections.singletonMap("a", 1), "ä€"), decoded.values);
+		
+		// failing and cancelling
+		final ListSubscriber<Object> failed = new ListSubscriber<>();
+		final ListPublisher<ByteBuffer> broken = new ListPublisher<>(Arrays.asList(ByteBuffer.wrap("1 ]".getBytes(StandardCharsets.UTF_8))));
+		mapper.decodeValues(broken, Object.class).subscribe(failed);
+		failed.subscription.request(Long.MAX_VALUE);
+		Assertions.assertEquals(Collections.emptyList(), failed.values);
+		Assertions.assertTrue(failed.error instanceof JsonProcessingException);
+		Assertions.assertTrue(broken.cancelled);
+		final ListPublisher<ByteBuffer> cancelled = new ListPublisher<>(chunks);
+		final ListSubscriber<Object> cancelling = new ListSubscriber<>();
+		mapper.decodeValues(cancelled, Object.class).subscribe(cancelling);
+		cancelling.subscription.request(1);
+		cancelling.subscription.cancel();
+		Assertions.assertTrue(cancelled.cancelled);
+		Assertions.assertFalse(cancelling.completed);
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.decodeValues(null, Object.class));
+		Assertions.assertThrows(NullPointerException.class, () -> mapper.encodeValues(null));
+	}
+	
+	/**
+	 * Publishes the given items synchronously, as they are requested.
+	 */
+	private static final class ListPublisher<T> implements Publisher<T> {
+		private final List<T> items;
+		
+		private long requested;
+		
+		private boolean cancelled;
+		
+		ListPublisher(final List<T> items) {
+			this.items = items;
+		}
+		
+		@Override
+		public void subscribe(final Subscriber<? super T> subscriber) {
+			subscriber.onSubscribe(new Subscription() {
+				private int index;
+				
+				@Override
+				public void request(final long n) {
+					ListPublisher.this.requested += n;
+					for (long i = 0; i < n && !ListPublisher.this.cancelled && this.index < ListPublisher.this.items.size(); i++) {
+						subscriber.onNext(ListPublisher.this.items.get(this.index++));
+					}
+					if (!ListPublisher.this.cancelled && this.index == ListPublisher.this.items.size()) {
+						this.index++;
+						subscriber.onComplete();
+					}
+				}
+				
+				@Override
+				public void cancel() {
+					ListPublisher.this.cancelled = true;
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Collects the items received, without requesting any.
+	 */
+	private static final class ListSubscriber<T> implements Subscriber<T> {
+		private final List<T> values = new ArrayList<>();
+		
+		private Subscription subscription;
+		
+		private Throwable error;
+		
+		private boolean completed;
+		
+		@Override
+		public void onSubscribe(final Subscription s) {
+			this.subscription = s;
+		}
+		
+		@Override
+		public void onNext(final T value) {
+			this.values.add(value);
+		}
+		
+		@Override
+		public void onError(final Throwable t) {
+			this.error = t;
+		}
+		
+		@Override
+		public void onComplete() {
+			this.completed = true;
+		}
+	}
+	
+	private static final class Point {
+		@Override
+		public String toString() {
+			return "point";
+		}
+	}
+	
+	@JsonTypeInfo(use = JsonTypeInfo.Id.NAME)
+	private interface Shape {
+	}
+	
+	private static final class Circle implements Shape {
+	}
+	
+	private static final class Square implements Shape {
+	}
+}
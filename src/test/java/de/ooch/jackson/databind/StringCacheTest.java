@@ -0,0 +1,76 @@
+package de.ooch.jackson.databind;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies, that the {@link StringCache} shares equal strings, keeps count,
+ * and respects its bounds.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+public class StringCacheTest {
+	@Test
+	public void intern() {
+		final StringCache cache = new StringCache();
+		final char[] chars = "[\"OK\",\"OK\"]".toCharArray();
+		
+		final String first = cache.intern(chars, 2, 2);
+		Assertions.assertEquals("OK", first);
+		Assertions.assertSame(first, cache.intern(chars, 7, 2));
+		Assertions.assertSame(first, cache.intern(new String("OK")));
+		Assertions.assertEquals(1, cache.getMissCount());
+		Assertions.assertEquals(2, cache.getHitCount());
+		Assertions.assertEquals(2.0 / 3, cache.getHitRate(), 1e-9);
+		
+		Assertions.assertEquals("", cache.intern(chars, 0, 0));
+		Assertions.assertNull(cache.intern(null));
+		
+		cache.clear();
+		Assertions.assertNotSame(first, cache.intern(chars, 7, 2));
+	}
+	
+	@Test
+	public void bounds() {
+		final StringCache cache = new StringCache(100, 4);
+		Assertions.assertEquals(64, cache.getMaxEntries());
+		Assertions.assertEquals(4, cache.getMaxLength());
+		Assertions.assertTrue(Double.isNaN(cache.getHitRate()));
+		
+		final char[] chars = "ERROR".toCharArray();
+		Assertions.assertNotSame(cache.intern(chars, 0, 5), cache.intern(chars, 0, 5));
+		Assertions.assertSame(cache.intern(chars, 0, 4), cache.intern(chars, 0, 4));
+		Assertions.assertEquals(1, cache.getHitCount());
+		Assertions.assertEquals(1, cache.getMissCount());
+		
+		for (int i = 0; i < 1000; i++) {
+			cache.intern(Integer.toString(i));
+		}
+		Assertions.assertEquals(1002, cache.getHitCount() + cache.getMissCount());
+	}
+	
+	@Test
+	public void serialization() throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(new StringCache(42, 7));
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			final StringCache cache = (StringCache) in.readObject();
+			Assertions.assertEquals(32, cache.getMaxEntries());
+			Assertions.assertEquals(7, cache.getMaxLength());
+			Assertions.assertEquals("x", cache.intern("x"));
+		}
+	}
+	
+	@Test
+	public void invalid() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new StringCache(0, 8));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new StringCache(8, -1));
+	}
+}
@@ -0,0 +1,74 @@
+package de.ooch.jackson.databind;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Array;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+/**
+ * Verifies, that the {@link TypeCache} serves the types of an
+ * {@link ObjectMapper}, keeps count, and respects its bound.
+ * 
+ * @author <a href="mailto:kai@ooch.de">Kai Kunstmann</a>
+ */
+public class TypeCacheTest {
+	@Test
+	public void install() throws Exception {
+		final ObjectMapper mapper = new ObjectMapper();
+		final TypeCache cache = TypeCache.install(mapper, 100);
+		
+		final JavaType type = mapper.getTypeFactory().constructMapType(Map.class, String.class, Integer.class);
+		Assertions.assertSame(type, mapper.getTypeFactory().constructMapType(Map.class, String.class, Integer.class));
+		Assertions.assertTrue(cache.getHitCount() >= 1);
+		Assertions.assertTrue(cache.getMissCount() >= 1);
+		Assertions.assertTrue(cache.size() >= 1);
+		
+		Assertions.assertEquals(Integer.valueOf(1), mapper.<Map<String, Integer>> readValue("{\"a\":1}", type).get("a"));
+		Assertions.assertNotSame(TypeFactory.defaultInstance(), mapper.getTypeFactory());
+	}
+	
+	@Test
+	public void bound() {
+		final TypeCache cache = new TypeCache(40);
+		final TypeFactory typeFactory = TypeFactory.defaultInstance().withCache(cache);
+		
+		for (int dimensions = 1; dimensions <= 100; dimensions++) {
+			final Class<?> valueType = Array.newInstance(int.class, new int[dimensions]).getClass();
+			typeFactory.constructMapType(Map.class, String.class, valueType);
+			Assertions.assertTrue(cache.size() <= cache.getMaxEntries());
+		}
+		Assertions.assertTrue(cache.getEvictionCount() > 0);
+		Assertions.assertTrue(cache.size() > cache.getMaxEntries() / 2);
+		Assertions.assertTrue(cache.getHitRate() >= 0);
+		
+		cache.clear();
+		Assertions.assertEquals(0, cache.size());
+	}
+	
+	@Test
+	public void serialization() throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(new TypeCache(42));
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			final TypeCache cache = (TypeCache) in.readObject();
+			Assertions.assertEquals(42, cache.getMaxEntries());
+			Assertions.assertEquals(0, cache.getHitCount());
+		}
+	}
+	
+	@Test
+	public void invalid() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new TypeCache(0));
+	}
+}